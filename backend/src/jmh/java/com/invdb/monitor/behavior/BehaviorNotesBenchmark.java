@@ -0,0 +1,87 @@
+package com.invdb.monitor.behavior;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-event cost of attaching behavior notes and testing them in the risk rules, with notes as a
+ * {@link BehaviorNote} bitmask against the List&lt;String&gt; rebuilt through a LinkedHashSet that
+ * it replaced. Run with {@code -prof gc}; {@code gc.alloc.rate.norm} is the bytes allocated per
+ * event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BehaviorNotesBenchmark {
+
+    private static final BehaviorNote[] NOTES = BehaviorNote.values();
+
+    /** Notes the event already carries before analysis. */
+    @Param({"0", "2"})
+    int existingNotes;
+
+    private List<String> existingNames;
+    private int existingFlags;
+
+    @Setup
+    public void setUp() {
+        existingFlags = 0;
+        for (int i = 0; i < existingNotes; i++) {
+            existingFlags |= NOTES[i].mask();
+        }
+        existingNames = BehaviorNote.names(existingFlags);
+    }
+
+    @Benchmark
+    public int bitmask() {
+        int flags = existingFlags;
+        flags |= BehaviorNote.MASS_CHANGE_SUSPECTED.mask();
+        flags |= BehaviorNote.SUSPICIOUS_EXTENSION.mask();
+        if (BehaviorNote.MASS_CHANGE_SUSPECTED.isSet(flags)) {
+            flags |= BehaviorNote.CRITICAL_INTRUSION_PATTERN.mask();
+        }
+        int score = 0;
+        for (BehaviorNote note : NOTES) {
+            if (note.isSet(flags)) {
+                score += note.ordinal() + 1;
+            }
+        }
+        return score;
+    }
+
+    @Benchmark
+    public int stringList() {
+        Set<String> notes = new LinkedHashSet<>();
+        notes.addAll(existingNames);
+        notes.add(BehaviorNote.MASS_CHANGE_SUSPECTED.name());
+        notes.add(BehaviorNote.SUSPICIOUS_EXTENSION.name());
+        if (notes.contains(BehaviorNote.MASS_CHANGE_SUSPECTED.name())) {
+            notes.add(BehaviorNote.CRITICAL_INTRUSION_PATTERN.name());
+        }
+        List<String> attached = new ArrayList<>(notes);
+        int score = 0;
+        for (BehaviorNote note : NOTES) {
+            if (attached.contains(note.name())) {
+                score += note.ordinal() + 1;
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,114 @@
+package com.invdb.monitor.behavior;
+
+import com.invdb.monitor.event.FileEventType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One behavior-window update per operation, as {@link BehaviorAnalyzerImpl#analyze} does it: record
+ * the event, then count all events and deletes in the last 10s. Compares the time wheel with the
+ * synchronized deque it replaced, at a steady rate that keeps {@code eventsPerWindow} events in the
+ * window. Run the threaded variants with {@code -t} to see contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlidingWindowBenchmark {
+
+    private static final Duration WINDOW = Duration.ofSeconds(10);
+    private static final FileEventType[] TYPES = FileEventType.values();
+
+    @Param({"100", "10000", "100000"})
+    int eventsPerWindow;
+
+    private final Instant start = Instant.parse("2026-01-01T00:00:00Z");
+    private final AtomicLong clock = new AtomicLong();
+    private long stepNanos;
+    private SlidingWindowCounter wheel;
+    private DequeWindow deque;
+
+    @Setup
+    public void setUp() {
+        stepNanos = WINDOW.toNanos() / eventsPerWindow;
+        wheel = new SlidingWindowCounter(WINDOW, 100, TYPES.length + 1);
+        deque = new DequeWindow();
+        // Fill one window so both start in steady state.
+        for (int i = 0; i < eventsPerWindow; i++) {
+            long tick = clock.getAndIncrement();
+            Instant now = start.plusNanos(tick * stepNanos);
+            wheel.record(now, TYPES[(int) (tick & 3)].ordinal());
+            deque.record(now, TYPES[(int) (tick & 3)]);
+        }
+    }
+
+    @Benchmark
+    public long timeWheel() {
+        long tick = clock.getAndIncrement();
+        Instant now = start.plusNanos(tick * stepNanos);
+        wheel.record(now, TYPES[(int) (tick & 3)].ordinal());
+        return wheel.count(now) + wheel.count(now, FileEventType.DELETED.ordinal());
+    }
+
+    @Benchmark
+    public long deque() {
+        long tick = clock.getAndIncrement();
+        Instant now = start.plusNanos(tick * stepNanos);
+        return deque.record(now, TYPES[(int) (tick & 3)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long timeWheelContended() {
+        return timeWheel();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long dequeContended() {
+        return deque();
+    }
+
+    /**
+     * The window as BehaviorAnalyzerImpl kept it before the time wheel.
+     */
+    private static final class DequeWindow {
+
+        private final Deque<EventStamp> recentEvents = new ArrayDeque<>();
+
+        long record(Instant now, FileEventType eventType) {
+            synchronized (recentEvents) {
+                recentEvents.addLast(new EventStamp(now, eventType));
+                Instant threshold = now.minus(WINDOW);
+                while (!recentEvents.isEmpty() && recentEvents.peekFirst().timestamp().isBefore(threshold)) {
+                    recentEvents.removeFirst();
+                }
+                int total = recentEvents.size();
+                long deletes = recentEvents.stream()
+                        .filter(stamp -> stamp.eventType() == FileEventType.DELETED)
+                        .count();
+                return total + deletes;
+            }
+        }
+    }
+
+    private record EventStamp(Instant timestamp, FileEventType eventType) {}
+}
@@ -0,0 +1,74 @@
+package com.invdb.monitor.report;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.risk.RiskLevel;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to render a PDF report of {@code events} events into a discarding stream. Run with
+ * {@code -prof gc} for the bytes allocated per report; the fork's heap is capped so a report whose
+ * retained size grew with the row count would fail here rather than pass on a large default heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class PdfExportBenchmark {
+
+    @Param({"100000"})
+    int events;
+
+    private final PdfExporter exporter = new PdfExporter();
+    private List<FileEvent> source;
+    private ReportSummary report;
+
+    @Setup
+    public void setUp() {
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        FileEventType[] types = FileEventType.values();
+        RiskLevel[] levels = RiskLevel.values();
+        source = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            source.add(FileEvent.builder()
+                    .sequence(i)
+                    .path("/srv/share/projects/team-" + (i % 40) + "/documents/report-" + i + ".docx")
+                    .timestamp(start.plusMillis(i * 250L))
+                    .eventType(types[i % types.length])
+                    .riskScore(i % 100)
+                    .riskLevel(levels[i % levels.length])
+                    .isHoneypotTriggered(i % 997 == 0)
+                    .noteFlags(i % 7 == 0 ? BehaviorNote.MASS_CHANGE_SUSPECTED.mask() : 0)
+                    .build());
+        }
+        report = ReportSummary.builder()
+                .directory("/srv/share")
+                .generatedAt(start)
+                .monitoringStartedAt(start)
+                .build();
+    }
+
+    @Benchmark
+    public void export() throws IOException {
+        exporter.export(report, EventSource.of(source), OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,186 @@
+package com.invdb.monitor.rules;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Behavior and risk evaluation of one event against a generated rule set of {@code rules} rules, a
+ * fifth of them behavior rules, drawing on 40 extensions and 20 path globs. {@code compiled} is
+ * {@link CompiledRules}; {@code interpreted} walks the {@link RuleDefinition} lists directly, as a
+ * straightforward evaluator would, for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleEvaluationBenchmark {
+
+    private static final int EVENTS = 1024;
+    private static final FileEventType[] TYPES = FileEventType.values();
+    private static final BehaviorNote[] NOTES = BehaviorNote.values();
+
+    @Param({"14", "500"})
+    int rules;
+
+    private RuleSetDefinition definition;
+    private CompiledRules compiled;
+    private Map<String, PathMatcher> matchers;
+    private FileEvent[] events;
+    private String[] extensions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> extensionPool = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            extensionPool.add("x" + i);
+        }
+        List<String> globPool = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            globPool.add("/data/dir" + i + "/**");
+        }
+
+        definition = rules <= 14 ? RuleSetDefinition.defaults(List.of("exe", "dll", "bat", "ps1", "jar", "sh")) : generate(random, extensionPool, globPool);
+        compiled = CompiledRules.compile(definition);
+        matchers = new HashMap<>();
+        for (String glob : globPool) {
+            matchers.put(glob, FileSystems.getDefault().getPathMatcher("glob:" + glob));
+        }
+
+        events = new FileEvent[EVENTS];
+        extensions = new String[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            extensions[i] = random.nextInt(4) == 0 ? "exe" : extensionPool.get(random.nextInt(extensionPool.size()));
+            events[i] = FileEvent.builder()
+                    .path("/data/dir" + random.nextInt(30) + "/file" + i + "." + extensions[i])
+                    .eventType(TYPES[random.nextInt(TYPES.length)])
+                    .isHoneypotTriggered(random.nextInt(50) == 0)
+                    .build();
+        }
+    }
+
+    private RuleSetDefinition generate(Random random, List<String> extensionPool, List<String> globPool) {
+        RuleSetDefinition generated = new RuleSetDefinition();
+        int behaviorRules = rules / 5;
+        for (int i = 0; i < rules; i++) {
+            RuleDefinition.RuleDefinitionBuilder rule = RuleDefinition.builder().name("rule-" + i);
+            if (random.nextBoolean()) {
+                rule.eventTypes(List.of(TYPES[random.nextInt(TYPES.length)]));
+            }
+            switch (random.nextInt(4)) {
+                case 0 -> rule.extensions(List.of(
+                        extensionPool.get(random.nextInt(extensionPool.size())),
+                        extensionPool.get(random.nextInt(extensionPool.size()))));
+                case 1 -> rule.paths(List.of(globPool.get(random.nextInt(globPool.size()))));
+                case 2 -> rule.notes(List.of(NOTES[random.nextInt(NOTES.length)]));
+                default -> {
+                    // Type condition only.
+                }
+            }
+            if (i < behaviorRules) {
+                rule.windowEventsAbove((long) random.nextInt(50)).addNote(NOTES[random.nextInt(NOTES.length)]);
+                generated.getBehavior().add(rule.build());
+            } else {
+                rule.addScore(random.nextInt(5));
+                generated.getRisk().add(rule.build());
+            }
+        }
+        return generated;
+    }
+
+    @Benchmark
+    public int compiled() {
+        int i = next++ & (EVENTS - 1);
+        FileEvent event = events[i];
+        event.setNoteFlags(compiled.applyBehavior(event, extensions[i], 40, 5, 0, 40));
+        return compiled.score(event);
+    }
+
+    @Benchmark
+    public int interpreted() {
+        int i = next++ & (EVENTS - 1);
+        FileEvent event = events[i];
+        Path path = Path.of(event.getPath());
+        int notes = 0;
+        for (RuleDefinition rule : definition.getBehavior()) {
+            if (matches(rule, event, path, extensions[i], notes, 40)) {
+                notes |= rule.getAddNote().mask();
+                if (rule.isStop()) {
+                    break;
+                }
+            }
+        }
+        int score = 0;
+        for (RuleDefinition rule : definition.getRisk()) {
+            if (matches(rule, event, path, extensions[i], notes, Long.MAX_VALUE)) {
+                if (rule.getSetScore() != null) {
+                    score = rule.getSetScore();
+                }
+                if (rule.getAddScore() != null) {
+                    score += rule.getAddScore();
+                }
+                if (rule.isStop()) {
+                    break;
+                }
+            }
+        }
+        return Math.max(0, Math.min(100, score));
+    }
+
+    private boolean matches(RuleDefinition rule, FileEvent event, Path path, String extension, int notes, long windowEvents) {
+        if (rule.getEventTypes() != null && !rule.getEventTypes().contains(event.getEventType())) {
+            return false;
+        }
+        if (rule.getHoneypot() != null && rule.getHoneypot() != event.isHoneypotTriggered()) {
+            return false;
+        }
+        if (rule.getWindowEventsAbove() != null && windowEvents <= rule.getWindowEventsAbove()) {
+            return false;
+        }
+        if (rule.getNotes() != null) {
+            for (BehaviorNote note : rule.getNotes()) {
+                if (!note.isSet(notes)) {
+                    return false;
+                }
+            }
+        }
+        if (rule.getExtensions() != null
+                && rule.getExtensions().stream().noneMatch(item -> item.toLowerCase(Locale.ROOT).equals(extension))) {
+            return false;
+        }
+        if (rule.getPaths() != null) {
+            for (String glob : rule.getPaths()) {
+                if (matchers.computeIfAbsent(glob, g -> FileSystems.getDefault().getPathMatcher("glob:" + g)).matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+}
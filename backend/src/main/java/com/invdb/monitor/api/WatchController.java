@@ -2,31 +2,55 @@ package com.invdb.monitor.api;
 
 import com.invdb.monitor.event.EventPipelineService;
 import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.journal.EventPage;
+import com.invdb.monitor.journal.EventQuery;
+import com.invdb.monitor.journal.JournalQueryService;
+import com.invdb.monitor.risk.RiskLevel;
+import com.invdb.monitor.stream.LiveEventBroadcaster;
 import com.invdb.monitor.watcher.FileWatcherService;
 import com.invdb.monitor.watcher.WatchStatus;
+import java.io.IOException;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping
 public class WatchController {
 
+    private static final String TRUNCATED_HEADER = "X-Events-Truncated";
+    private static final int EVENTS_PAGE_SIZE = 200;
+
     private final FileWatcherService fileWatcherService;
     private final EventPipelineService eventPipelineService;
+    private final JournalQueryService journalQueryService;
+    private final LiveEventBroadcaster liveEventBroadcaster;
 
-    public WatchController(FileWatcherService fileWatcherService, EventPipelineService eventPipelineService) {
+    public WatchController(
+            FileWatcherService fileWatcherService,
+            EventPipelineService eventPipelineService,
+            JournalQueryService journalQueryService,
+            LiveEventBroadcaster liveEventBroadcaster) {
         this.fileWatcherService = fileWatcherService;
         this.eventPipelineService = eventPipelineService;
+        this.journalQueryService = journalQueryService;
+        this.liveEventBroadcaster = liveEventBroadcaster;
     }
 
     @PostMapping("/watch/start")
@@ -50,8 +74,58 @@ public class WatchController {
     }
 
     @GetMapping("/events")
-    public List<FileEvent> listRecentEvents() {
-        return eventPipelineService.getRecentEvents(200);
+    public ResponseEntity<List<FileEvent>> listRecentEvents(@RequestParam(required = false) Long after, WebRequest request) {
+        String etag = "\"" + eventPipelineService.getVersionTag() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        // A cursor ahead of the latest sequence means the client saw a previous run; send the full list.
+        if (after == null || after > eventPipelineService.getLatestSequence()) {
+            return ResponseEntity.ok().eTag(etag).body(eventPipelineService.getRecentEvents(EVENTS_PAGE_SIZE));
+        }
+        // One extra tells whether more follow; the client then asks again after the newest it got.
+        List<FileEvent> events = eventPipelineService.getEventsAfter(after, EVENTS_PAGE_SIZE + 1);
+        boolean truncated = events.size() > EVENTS_PAGE_SIZE;
+        if (truncated) {
+            events = events.subList(1, events.size());
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .header(TRUNCATED_HEADER, String.valueOf(truncated))
+                .body(events);
+    }
+
+    @GetMapping(path = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents() {
+        try {
+            return ResponseEntity.ok(liveEventBroadcaster.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/events/search")
+    public ResponseEntity<?> searchEvents(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String pathPrefix,
+            @RequestParam(required = false) FileEventType eventType,
+            @RequestParam(required = false) RiskLevel riskLevel,
+            @RequestParam(required = false) Boolean honeypot,
+            @RequestParam(required = false) String note,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Long cursor) {
+        EventQuery query = new EventQuery(from, to, pathPrefix, eventType, riskLevel, honeypot, note, limit, cursor);
+        try {
+            EventPage page = journalQueryService.search(query);
+            return ResponseEntity.ok(page);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to search events", "details", e.getMessage()));
+        }
     }
 
     @GetMapping("/watch/status")
@@ -1,8 +1,14 @@
 package com.invdb.monitor.behavior;
 
 import com.invdb.monitor.event.FileEvent;
+import java.nio.file.Path;
 
 public interface BehaviorAnalyzer {
 
     void analyze(FileEvent event);
+
+    /**
+     * Drops all windowed statistics; directory depth is measured from {@code root} afterwards.
+     */
+    void reset(Path root);
 }
@@ -3,104 +3,162 @@ package com.invdb.monitor.behavior;
 import com.invdb.monitor.config.AppProperties;
 import com.invdb.monitor.event.FileEvent;
 import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.rules.CompiledRules;
+import com.invdb.monitor.rules.RuleService;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Locale;
-import java.util.Set;
-import lombok.RequiredArgsConstructor;
+import java.util.Objects;
 import org.springframework.stereotype.Service;
 
+/**
+ * Windows are kept per directory and per extension rather than globally, so a busy build folder
+ * only flags its own events and a burst in one folder is not diluted by activity elsewhere. One
+ * share-wide window is kept as well for rules about the whole share, such as a honeypot hit during
+ * a sweep that spans many folders. Which notes an event gets is decided by the behavior rules of the
+ * current rule set.
+ */
 @Service
-@RequiredArgsConstructor
 public class BehaviorAnalyzerImpl implements BehaviorAnalyzer {
 
     private static final Duration WINDOW = Duration.ofSeconds(10);
-    private static final int MASS_CHANGE_THRESHOLD = 30;
-    private static final int DELETE_SPIKE_THRESHOLD = 15;
-    private static final String MASS_CHANGE_SUSPECTED = "MASS_CHANGE_SUSPECTED";
-    private static final String RAPID_DELETE_SPIKE = "RAPID_DELETE_SPIKE";
-    private static final String SUSPICIOUS_EXTENSION = "SUSPICIOUS_EXTENSION";
-    private static final String CRITICAL_INTRUSION_PATTERN = "CRITICAL_INTRUSION_PATTERN";
 
-    private final AppProperties appProperties;
-    private final Deque<EventStamp> recentEvents = new ArrayDeque<>();
+    private final RuleService ruleService;
+    private final int directoryDepth;
+    private final KeyedWindowCounters directoryWindows;
+    private final KeyedWindowCounters extensionWindows;
+    private final int shareBuckets;
+    private volatile SlidingWindowCounter shareWindow;
+    private volatile String root;
+
+    public BehaviorAnalyzerImpl(RuleService ruleService, AppProperties appProperties) {
+        AppProperties.BehaviorProperties properties = appProperties.getBehavior();
+        this.ruleService = ruleService;
+        this.directoryDepth = Math.max(0, properties.getDirectoryDepth());
+        Duration bucketWidth = Duration.ofMillis(properties.getWindowBucketMillis());
+        if (bucketWidth.compareTo(KeyedWindowCounters.MIN_BUCKET_WIDTH) < 0) {
+            throw new IllegalArgumentException("app.behavior.windowBucketMillis must be at least "
+                    + KeyedWindowCounters.MIN_BUCKET_WIDTH.toMillis() + ", got " + bucketWidth.toMillis());
+        }
+        this.directoryWindows = new KeyedWindowCounters(WINDOW, bucketWidth, properties.getMaxTrackedDirectories());
+        this.extensionWindows = new KeyedWindowCounters(WINDOW, bucketWidth, properties.getMaxTrackedExtensions());
+        this.shareBuckets = KeyedWindowCounters.bucketsFor(WINDOW, bucketWidth);
+        this.shareWindow = new SlidingWindowCounter(WINDOW, shareBuckets, 1);
+    }
+
+    @Override
+    public void reset(Path root) {
+        this.root = root == null ? null : root.toAbsolutePath().normalize().toString();
+        directoryWindows.clear();
+        extensionWindows.clear();
+        shareWindow = new SlidingWindowCounter(WINDOW, shareBuckets, 1);
+    }
 
     @Override
     public void analyze(FileEvent event) {
         Instant now = event.getTimestamp() == null ? Instant.now() : event.getTimestamp();
+        String path = event.getPath() == null || event.getPath().isBlank() ? null : event.getPath();
+        String extension = extractExtension(path);
+        int category = KeyedWindowCounters.ALL;
+        if (event.getEventType() == FileEventType.DELETED) {
+            category = KeyedWindowCounters.DELETES;
+        } else if (event.getEventType() == FileEventType.RENAMED
+                && !Objects.equals(extension, extractExtension(event.getPreviousPath()))) {
+            // report.docx -> report.docx.locked: the pattern of a pass encrypting files in place.
+            category = KeyedWindowCounters.RENAMES;
+        }
 
-        synchronized (recentEvents) {
-            recentEvents.addLast(new EventStamp(now, event.getEventType()));
-            Instant threshold = now.minus(WINDOW);
-
-            while (!recentEvents.isEmpty() && recentEvents.peekFirst().timestamp().isBefore(threshold)) {
-                recentEvents.removeFirst();
-            }
-
-            int totalEvents10s = recentEvents.size();
-            int deleteEvents10s = (int) recentEvents.stream()
-                    .filter(stamp -> stamp.eventType() == FileEventType.DELETED)
-                    .count();
-
-            Set<String> notes = new LinkedHashSet<>();
-            if (event.getNotes() != null) {
-                notes.addAll(event.getNotes());
-            }
+        long totalEvents10s = 0;
+        long deleteEvents10s = 0;
+        long renameEvents10s = 0;
+        String directory = directoryKey(path);
+        if (directory != null) {
+            SlidingWindowCounter window = directoryWindows.record(directory, now, category);
+            totalEvents10s = window.count(now, KeyedWindowCounters.ALL);
+            deleteEvents10s = window.count(now, KeyedWindowCounters.DELETES);
+            renameEvents10s = window.count(now, KeyedWindowCounters.RENAMES);
+        }
+        if (extension != null) {
+            SlidingWindowCounter window = extensionWindows.record(extension, now, category);
+            totalEvents10s = Math.max(totalEvents10s, window.count(now, KeyedWindowCounters.ALL));
+            deleteEvents10s = Math.max(deleteEvents10s, window.count(now, KeyedWindowCounters.DELETES));
+            renameEvents10s = Math.max(renameEvents10s, window.count(now, KeyedWindowCounters.RENAMES));
+        }
 
-            if (totalEvents10s > MASS_CHANGE_THRESHOLD) {
-                notes.add(MASS_CHANGE_SUSPECTED);
-            }
+        SlidingWindowCounter share = shareWindow;
+        share.record(now, KeyedWindowCounters.ALL);
+        long shareEvents10s = share.count(now, KeyedWindowCounters.ALL);
 
-            if (deleteEvents10s > DELETE_SPIKE_THRESHOLD) {
-                notes.add(RAPID_DELETE_SPIKE);
-            }
+        CompiledRules rules = ruleService.current();
+        event.setNoteFlags(rules.applyBehavior(
+                event, extension, totalEvents10s, deleteEvents10s, renameEvents10s, shareEvents10s));
+    }
 
-            if (isSuspiciousExtensionChange(event)) {
-                notes.add(SUSPICIOUS_EXTENSION);
-            }
+    /**
+     * The parent directory, cut to {@code directoryDepth} levels below the watched root when set.
+     * Works on the raw path string; event paths are already absolute and normalized.
+     */
+    private String directoryKey(String path) {
+        int separator = path == null ? -1 : lastSeparator(path, path.length() - 1);
+        if (separator < 0) {
+            return null;
+        }
+        String parent = path.substring(0, separator == 0 ? 1 : separator);
 
-            if (event.isHoneypotTriggered() && notes.contains(MASS_CHANGE_SUSPECTED)) {
-                notes.add(CRITICAL_INTRUSION_PATTERN);
+        String currentRoot = root;
+        if (directoryDepth == 0 || currentRoot == null || !parent.startsWith(currentRoot)) {
+            return parent;
+        }
+        int cut = isSeparator(currentRoot.charAt(currentRoot.length() - 1))
+                ? currentRoot.length() - 1
+                : currentRoot.length();
+        if (cut >= parent.length() || !isSeparator(parent.charAt(cut))) {
+            return parent;
+        }
+        for (int level = 0; level < directoryDepth; level++) {
+            int next = nextSeparator(parent, cut + 1);
+            if (next < 0) {
+                return parent;
             }
-
-            event.setNotes(new ArrayList<>(notes));
+            cut = next;
         }
+        return parent.substring(0, cut);
     }
 
-    private boolean isSuspiciousExtensionChange(FileEvent event) {
-        if (event.getEventType() != FileEventType.CREATED && event.getEventType() != FileEventType.MODIFIED) {
-            return false;
+    private static String extractExtension(String path) {
+        if (path == null) {
+            return null;
         }
 
-        String extension = extractExtension(event.getPath());
-        if (extension == null) {
-            return false;
+        int nameStart = lastSeparator(path, path.length() - 1) + 1;
+        int dotIndex = path.lastIndexOf('.');
+        if (dotIndex < nameStart || dotIndex == path.length() - 1) {
+            return null;
         }
 
-        return appProperties.getSuspiciousExtensions().stream()
-                .map(item -> item.toLowerCase(Locale.ROOT))
-                .anyMatch(extension::equals);
+        return path.substring(dotIndex + 1).toLowerCase(Locale.ROOT);
     }
 
-    private String extractExtension(String path) {
-        if (path == null || path.isBlank()) {
-            return null;
+    private static int lastSeparator(String path, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (isSeparator(path.charAt(i))) {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        String fileName = Path.of(path).getFileName().toString();
-        int dotIndex = fileName.lastIndexOf('.');
-        if (dotIndex < 0 || dotIndex == fileName.length() - 1) {
-            return null;
+    private static int nextSeparator(String path, int from) {
+        for (int i = from; i < path.length(); i++) {
+            if (isSeparator(path.charAt(i))) {
+                return i;
+            }
         }
-
-        return fileName.substring(dotIndex + 1).toLowerCase(Locale.ROOT);
+        return -1;
     }
 
-    private record EventStamp(Instant timestamp, FileEventType eventType) {}
+    private static boolean isSeparator(char c) {
+        return c == '/' || c == '\\';
+    }
 }
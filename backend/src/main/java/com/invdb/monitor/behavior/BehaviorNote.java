@@ -0,0 +1,52 @@
+package com.invdb.monitor.behavior;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Detection flags attached to an event. Events carry them as a bitmask of {@link #mask()} values;
+ * names are only produced for JSON and reports.
+ */
+public enum BehaviorNote {
+    MASS_CHANGE_SUSPECTED,
+    RAPID_DELETE_SPIKE,
+    SUSPICIOUS_EXTENSION,
+    CRITICAL_INTRUSION_PATTERN,
+    MASS_RENAME_SUSPECTED;
+
+    private static final BehaviorNote[] VALUES = values();
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public boolean isSet(int flags) {
+        return (flags & mask()) != 0;
+    }
+
+    public static List<String> names(int flags) {
+        if (flags == 0) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>(Integer.bitCount(flags));
+        for (BehaviorNote note : VALUES) {
+            if (note.isSet(flags)) {
+                names.add(note.name());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns the mask for a note name, or 0 if the name is not a known note.
+     */
+    public static int maskOf(String name) {
+        for (BehaviorNote note : VALUES) {
+            if (note.name().equals(name)) {
+                return note.mask();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,125 @@
+package com.invdb.monitor.behavior;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sliding-window change, delete and extension-changing rename counts per key, for at most {@code maxKeys} keys. When the limit
+ * is passed one thread sweeps the map, dropping idle keys first and then the least active ones, down
+ * to 90% of the limit so sweeps stay rare.
+ */
+final class KeyedWindowCounters {
+
+    static final int ALL = 0;
+    static final int DELETES = 1;
+    static final int RENAMES = 2;
+
+    /**
+     * Narrower buckets would overflow the tick that {@link SlidingWindowCounter} packs into each
+     * cell at current epoch times, and cost thousands of cells per key.
+     */
+    static final Duration MIN_BUCKET_WIDTH = Duration.ofMillis(10);
+
+    private final Duration window;
+    private final int buckets;
+    private final int maxKeys;
+    private final int sweepTarget;
+    private final Map<String, SlidingWindowCounter> windows = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    /**
+     * Splits the window into buckets of {@code bucketWidth}, rounded up to a whole number of
+     * buckets; narrower buckets age out history more precisely at the cost of memory per key.
+     */
+    KeyedWindowCounters(Duration window, Duration bucketWidth, int maxKeys) {
+        this.window = window;
+        this.buckets = bucketsFor(window, bucketWidth);
+        this.maxKeys = Math.max(1, maxKeys);
+        this.sweepTarget = Math.max(1, this.maxKeys - this.maxKeys / 10);
+    }
+
+    /**
+     * The number of buckets of {@code bucketWidth} needed to cover the window.
+     */
+    static int bucketsFor(Duration window, Duration bucketWidth) {
+        if (bucketWidth.compareTo(MIN_BUCKET_WIDTH) < 0) {
+            throw new IllegalArgumentException("Window buckets must be at least "
+                    + MIN_BUCKET_WIDTH.toMillis() + " ms wide, got " + bucketWidth.toMillis() + " ms");
+        }
+        long windowMillis = Math.max(1L, window.toMillis());
+        long bucketMillis = Math.min(windowMillis, bucketWidth.toMillis());
+        return (int) ((windowMillis + bucketMillis - 1) / bucketMillis);
+    }
+
+    /**
+     * Counts one event under {@link #ALL} and, unless {@code category} is {@link #ALL}, under
+     * {@code category} as well.
+     */
+    SlidingWindowCounter record(String key, Instant timestamp, int category) {
+        SlidingWindowCounter counter = windows.get(key);
+        boolean added = false;
+        if (counter == null) {
+            counter = windows.computeIfAbsent(key, ignored -> new SlidingWindowCounter(window, buckets, 3));
+            added = true;
+        }
+        counter.record(timestamp, ALL);
+        if (category != ALL) {
+            counter.record(timestamp, category);
+        }
+        // Swept only after recording, so the new key is not dropped as idle.
+        if (added && windows.size() > maxKeys) {
+            sweep(timestamp);
+        }
+        return counter;
+    }
+
+    int size() {
+        return windows.size();
+    }
+
+    void clear() {
+        windows.clear();
+    }
+
+    private void sweep(Instant now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            windows.values().removeIf(counter -> counter.count(now, ALL) == 0);
+            int excess = windows.size() - sweepTarget;
+            if (excess <= 0) {
+                return;
+            }
+
+            long[] counts = new long[windows.size()];
+            int size = 0;
+            for (SlidingWindowCounter counter : windows.values()) {
+                if (size == counts.length) {
+                    break;
+                }
+                counts[size++] = counter.count(now, ALL);
+            }
+            if (size == 0) {
+                return;
+            }
+            Arrays.sort(counts, 0, size);
+            long cutoff = counts[Math.min(excess, size) - 1];
+
+            Iterator<SlidingWindowCounter> iterator = windows.values().iterator();
+            while (excess > 0 && iterator.hasNext()) {
+                if (iterator.next().count(now, ALL) <= cutoff) {
+                    iterator.remove();
+                    excess--;
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.invdb.monitor.behavior;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory time wheel counting events per category over a sliding window. The window is split
+ * into buckets; each (bucket, category) cell packs the bucket's tick and its count into one long,
+ * so recording is a single CAS and a stale cell is recycled by the first writer of a newer tick.
+ * Queries sum one cell per bucket, so cost depends on the bucket count, not the event rate.
+ */
+final class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final int categories;
+    private final AtomicLongArray cells;
+
+    SlidingWindowCounter(Duration window, int buckets, int categories) {
+        this.buckets = Math.max(1, buckets);
+        this.categories = Math.max(1, categories);
+        this.bucketMillis = Math.max(1L, window.toMillis() / this.buckets);
+        this.cells = new AtomicLongArray(this.buckets * this.categories);
+    }
+
+    void record(Instant timestamp, int category) {
+        long tick = timestamp.toEpochMilli() / bucketMillis;
+        int index = cellIndex(tick, category);
+        while (true) {
+            long current = cells.get(index);
+            long currentTick = current >>> COUNT_BITS;
+            long next;
+            if (currentTick == tick) {
+                if ((current & COUNT_MASK) == COUNT_MASK) {
+                    return;
+                }
+                next = current + 1;
+            } else if (currentTick < tick) {
+                next = (tick << COUNT_BITS) | 1L;
+            } else {
+                // The cell already holds a newer tick, so this event is older than the window.
+                return;
+            }
+            if (cells.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    long count(Instant now, int category) {
+        long oldestTick = now.toEpochMilli() / bucketMillis - buckets + 1;
+        long total = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            long cell = cells.get(bucket * categories + category);
+            if ((cell >>> COUNT_BITS) >= oldestTick) {
+                total += cell & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    long count(Instant now) {
+        long total = 0;
+        for (int category = 0; category < categories; category++) {
+            total += count(now, category);
+        }
+        return total;
+    }
+
+    private int cellIndex(long tick, int category) {
+        return (int) Math.floorMod(tick, (long) buckets) * categories + category;
+    }
+}
@@ -1,5 +1,11 @@
 package com.invdb.monitor.config;
 
+import com.invdb.monitor.event.BackpressurePolicy;
+import com.invdb.monitor.event.WaitStrategy;
+import com.invdb.monitor.journal.FsyncPolicy;
+import com.invdb.monitor.snapshot.HashAlgorithm;
+import com.invdb.monitor.snapshot.HashMode;
+import com.invdb.monitor.snapshot.StorageType;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +26,18 @@ public class AppProperties {
     private List<String> suspiciousExtensions = new ArrayList<>(List.of("exe", "dll", "bat", "ps1", "jar", "sh"));
     private int maxEventsStored = 500;
     private long dedupWindowMs = 300;
+    private int dedupMaxEntries = 65536;
+    private PipelineProperties pipeline = new PipelineProperties();
+    private CoalesceProperties coalesce = new CoalesceProperties();
+    private RenameProperties rename = new RenameProperties();
+    private WatcherProperties watcher = new WatcherProperties();
+    private SnapshotProperties snapshot = new SnapshotProperties();
+    private JournalProperties journal = new JournalProperties();
+    private StreamProperties stream = new StreamProperties();
+    private BehaviorProperties behavior = new BehaviorProperties();
+    private RulesProperties rules = new RulesProperties();
+    private ReportProperties reports = new ReportProperties();
+    private MetricsProperties metrics = new MetricsProperties();
 
     @Getter
     @Setter
@@ -30,6 +48,129 @@ public class AppProperties {
         private boolean cleanupOnStop = false;
         private String trapFolderName = ".sys_trap";
         private List<String> files = new ArrayList<>(List.of("salary_2025.xlsx", "admin_passwords.txt"));
+        private List<String> paths = new ArrayList<>();
+        private List<String> patterns = new ArrayList<>();
         private Map<String, String> content = new HashMap<>();
     }
+
+    @Getter
+    @Setter
+    public static class PipelineProperties {
+
+        private boolean async = true;
+        private int bufferSize = 8192;
+        private int consumers = 1;
+        private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+        private BackpressurePolicy backpressure = BackpressurePolicy.BLOCK;
+    }
+
+    @Getter
+    @Setter
+    public static class CoalesceProperties {
+
+        private boolean enabled = false;
+        private long quietPeriodMs = 500;
+        private long maxLatencyMs = 5000;
+        private int maxPending = 65536;
+    }
+
+    @Getter
+    @Setter
+    public static class RenameProperties {
+
+        private boolean enabled = true;
+        private long windowMs = 250;
+        private int maxPending = 16384;
+    }
+
+    @Getter
+    @Setter
+    public static class WatcherProperties {
+
+        private boolean recursive = true;
+        private int registrationParallelism = 0;
+        private boolean overflowRescan = true;
+        private long rescanMinIntervalMs = 1000;
+        private int maxRescansPerSecond = 20;
+    }
+
+    @Getter
+    @Setter
+    public static class SnapshotProperties {
+
+        private StorageType storage = StorageType.SSD;
+        private int parallelism = 0;
+        private HashMode hashMode = HashMode.SAMPLED;
+        private HashAlgorithm hashAlgorithm = HashAlgorithm.SHA_256;
+        private int sampleBlockSize = 64 * 1024;
+        private int hashBufferSize = 1024 * 1024;
+        private boolean catchUpOnStart = true;
+        private String storeDirectory = "snapshots";
+    }
+
+    @Getter
+    @Setter
+    public static class JournalProperties {
+
+        private boolean enabled = true;
+        private String directory = "journal";
+        private FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+        private long fsyncIntervalMs = 1000;
+        private int batchSize = 4096;
+        private int queueCapacity = 65536;
+        private int writeBufferSize = 4 * 1024 * 1024;
+        private long segmentSizeBytes = 64L * 1024 * 1024;
+        private long segmentMaxAgeMinutes = 60;
+        private long retentionDays = 30;
+        private long maxTotalBytes = 0;
+        private int maxIndexedSegments = 64;
+    }
+
+    @Getter
+    @Setter
+    public static class StreamProperties {
+
+        private int maxSubscribers = 100;
+        private int subscriberBufferSize = 64;
+        private int maxBatchEvents = 1000;
+        private long flushIntervalMs = 250;
+        private long statsIntervalMs = 5000;
+        private int senderThreads = 4;
+    }
+
+    @Getter
+    @Setter
+    public static class BehaviorProperties {
+
+        private int directoryDepth = 0;
+        private int maxTrackedDirectories = 65536;
+        private int maxTrackedExtensions = 4096;
+        private long windowBucketMillis = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class RulesProperties {
+
+        private String file = "";
+    }
+
+    @Getter
+    @Setter
+    public static class ReportProperties {
+
+        private int jobThreads = 2;
+        private int maxQueuedJobs = 16;
+        private String cacheDirectory = "report-cache";
+        private int maxCachedReports = 32;
+        private long abandonAfterSeconds = 120;
+        private long jobRetentionMinutes = 30;
+    }
+
+    @Getter
+    @Setter
+    public static class MetricsProperties {
+
+        private boolean timingEnabled = true;
+    }
 }
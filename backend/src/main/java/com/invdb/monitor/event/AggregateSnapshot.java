@@ -0,0 +1,19 @@
+package com.invdb.monitor.event;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.risk.RiskLevel;
+import java.util.List;
+import java.util.Map;
+
+public record AggregateSnapshot(
+        long totalEvents,
+        long honeypotTriggers,
+        Map<FileEventType, Long> byEventType,
+        Map<RiskLevel, Long> byRiskLevel,
+        Map<BehaviorNote, Long> byNote,
+        List<MinuteCount> timeline) {
+
+    public long riskCount(RiskLevel level) {
+        return byRiskLevel.getOrDefault(level, 0L);
+    }
+}
@@ -0,0 +1,7 @@
+package com.invdb.monitor.event;
+
+public enum BackpressurePolicy {
+    BLOCK,
+    DROP_OLDEST,
+    COALESCE
+}
@@ -0,0 +1,4 @@
+package com.invdb.monitor.event;
+
+public record CoalesceStats(int pending, long merged, long folded, long flushed, long passedThrough) {
+}
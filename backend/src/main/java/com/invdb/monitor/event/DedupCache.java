@@ -0,0 +1,165 @@
+package com.invdb.monitor.event;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size, lock-free "seen this path recently" table. Each slot is one long packing a 40-bit
+ * fingerprint of the path hash with the low 24 bits of the millisecond it was last accepted, so
+ * lookups and updates are single CASes and memory never grows past {@code capacity} slots. A key
+ * may sit in any of {@link #PROBES} slots after its home slot; when all of them are live the oldest
+ * is evicted.
+ * <p>
+ * Expired entries are cleared by a timing wheel over the table: the slots are split into
+ * {@link #STRIPES} stripes and lookups advance the wheel by one stripe per elapsed tick, so a full
+ * turn takes a few dedup windows and no background thread is needed.
+ */
+final class DedupCache {
+
+    static final int PROBES = 8;
+    static final int STRIPES = 64;
+    static final long MAX_WINDOW_MS = 1L << 20;
+
+    private static final int TICK_BITS = 24;
+    private static final long TICK_MASK = (1L << TICK_BITS) - 1;
+    private static final long WINDOWS_PER_TURN = 8;
+
+    private final long windowMs;
+    private final int mask;
+    private final AtomicLongArray slots;
+    private final long sweepIntervalMs;
+    private final AtomicLong nextSweepAt = new AtomicLong();
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    DedupCache(long windowMs, int capacity) {
+        this.windowMs = Math.min(Math.max(0L, windowMs), MAX_WINDOW_MS);
+        int slotCount = Integer.highestOneBit(Math.max(STRIPES * PROBES, capacity - 1)) << 1;
+        this.mask = slotCount - 1;
+        this.slots = new AtomicLongArray(slotCount);
+        this.sweepIntervalMs = Math.max(1L, this.windowMs * WINDOWS_PER_TURN / STRIPES);
+    }
+
+    /**
+     * Returns true if the path was accepted less than one window ago; otherwise records it as
+     * accepted now and returns false.
+     */
+    boolean isDuplicate(String path, long nowMillis) {
+        lookups.increment();
+        advanceWheel(nowMillis);
+        if (windowMs == 0) {
+            return false;
+        }
+
+        long hash = hash(path);
+        int home = (int) hash & mask;
+        long fingerprint = fingerprint(hash);
+        long stamp = nowMillis & TICK_MASK;
+        long fresh = (fingerprint << TICK_BITS) | stamp;
+
+        retry:
+        while (true) {
+            int victim = -1;
+            long victimValue = 0;
+            long victimAge = -1;
+            for (int probe = 0; probe < PROBES; probe++) {
+                int index = (home + probe) & mask;
+                long value = slots.get(index);
+                long age = value == 0 ? Long.MAX_VALUE : ageOf(value, stamp);
+                if (value != 0 && value >>> TICK_BITS == fingerprint) {
+                    if (age < windowMs) {
+                        hits.increment();
+                        return true;
+                    }
+                    if (!slots.compareAndSet(index, value, fresh)) {
+                        continue retry;
+                    }
+                    return false;
+                }
+                if (age > victimAge) {
+                    victim = index;
+                    victimValue = value;
+                    victimAge = age;
+                }
+            }
+
+            if (!slots.compareAndSet(victim, victimValue, fresh)) {
+                continue;
+            }
+            if (victimValue == 0) {
+                size.incrementAndGet();
+            } else if (victimAge < windowMs) {
+                evictions.increment();
+            }
+            return false;
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i <= mask; i++) {
+            slots.set(i, 0L);
+        }
+        size.set(0);
+    }
+
+    DedupStats getStats() {
+        return new DedupStats(size.get(), mask + 1, lookups.sum(), hits.sum(), evictions.sum());
+    }
+
+    private void advanceWheel(long nowMillis) {
+        long due = nextSweepAt.get();
+        if (nowMillis < due || !nextSweepAt.compareAndSet(due, nowMillis + sweepIntervalMs)) {
+            return;
+        }
+        // Sweep one stripe per elapsed tick so a full turn never takes longer than STRIPES ticks,
+        // however sparse the lookups; entries are gone long before their 24-bit stamp wraps.
+        int stripes = due == 0 ? 1 : (int) Math.min(STRIPES, 1 + (nowMillis - due) / sweepIntervalMs);
+        int stripeSize = (mask + 1) / STRIPES;
+        long stamp = nowMillis & TICK_MASK;
+        for (int s = 0; s < stripes; s++) {
+            int from = Math.floorMod(nextStripe.getAndIncrement(), STRIPES) * stripeSize;
+            for (int i = from; i < from + stripeSize; i++) {
+                long value = slots.get(i);
+                if (value != 0 && ageOf(value, stamp) >= windowMs && slots.compareAndSet(i, value, 0L)) {
+                    size.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static long ageOf(long value, long stamp) {
+        return (stamp - (value & TICK_MASK)) & TICK_MASK;
+    }
+
+    private static long fingerprint(long hash) {
+        long fingerprint = hash >>> TICK_BITS;
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    /**
+     * 64-bit FNV-1a over the path with case and separators folded, so {@code C:\Data\a.txt} and
+     * {@code c:/data/a.txt} share an entry.
+     */
+    private static long hash(String path) {
+        long hash = 0xcbf29ce484222325L;
+        if (path != null) {
+            for (int i = 0; i < path.length(); i++) {
+                char c = path.charAt(i);
+                if (c == '\\') {
+                    c = '/';
+                } else if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                } else if (c >= 128) {
+                    c = Character.toLowerCase(c);
+                }
+                hash = (hash ^ c) * 0x100000001b3L;
+            }
+        }
+        return hash ^ (hash >>> 29);
+    }
+}
@@ -0,0 +1,8 @@
+package com.invdb.monitor.event;
+
+public record DedupStats(int size, int capacity, long lookups, long hits, long evictions) {
+
+    public double hitRate() {
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,137 @@
+package com.invdb.monitor.event;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.risk.RiskLevel;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running counts over the stored events, updated as events are stored and evicted so a summary
+ * costs the same however much history is retained. Besides the totals by type, risk level, note
+ * and honeypot, events are counted per minute of their timestamp; a minute is dropped once its
+ * last event has been evicted.
+ */
+final class EventAggregates {
+
+    private static final FileEventType[] EVENT_TYPES = FileEventType.values();
+    private static final RiskLevel[] RISK_LEVELS = RiskLevel.values();
+    private static final BehaviorNote[] NOTES = BehaviorNote.values();
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private static final int MINUTE_TOTAL = 0;
+    private static final int MINUTE_HONEYPOT = 1;
+    private static final int MINUTE_LEVELS = 2;
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder honeypotTriggers = new LongAdder();
+    private final LongAdder[] byEventType = newAdders(EVENT_TYPES.length);
+    private final LongAdder[] byRiskLevel = newAdders(RISK_LEVELS.length);
+    private final LongAdder[] byNote = newAdders(NOTES.length);
+    private final Map<Long, long[]> byMinute = new ConcurrentHashMap<>();
+
+    void add(FileEvent event) {
+        apply(event, 1);
+    }
+
+    void remove(FileEvent event) {
+        apply(event, -1);
+    }
+
+    void clear() {
+        total.reset();
+        honeypotTriggers.reset();
+        resetAll(byEventType);
+        resetAll(byRiskLevel);
+        resetAll(byNote);
+        byMinute.clear();
+    }
+
+    AggregateSnapshot snapshot() {
+        Map<FileEventType, Long> eventTypes = new EnumMap<>(FileEventType.class);
+        for (FileEventType type : EVENT_TYPES) {
+            eventTypes.put(type, byEventType[type.ordinal()].sum());
+        }
+        Map<RiskLevel, Long> riskLevels = new EnumMap<>(RiskLevel.class);
+        for (RiskLevel level : RISK_LEVELS) {
+            riskLevels.put(level, byRiskLevel[level.ordinal()].sum());
+        }
+        Map<BehaviorNote, Long> notes = new EnumMap<>(BehaviorNote.class);
+        for (BehaviorNote note : NOTES) {
+            long count = byNote[note.ordinal()].sum();
+            if (count > 0) {
+                notes.put(note, count);
+            }
+        }
+
+        List<MinuteCount> timeline = new ArrayList<>(byMinute.size());
+        byMinute.forEach((minute, counts) -> {
+            synchronized (counts) {
+                timeline.add(new MinuteCount(
+                        Instant.ofEpochMilli(minute * MINUTE_MILLIS),
+                        counts[MINUTE_TOTAL],
+                        counts[MINUTE_HONEYPOT],
+                        counts[MINUTE_LEVELS + RiskLevel.LOW.ordinal()],
+                        counts[MINUTE_LEVELS + RiskLevel.MEDIUM.ordinal()],
+                        counts[MINUTE_LEVELS + RiskLevel.HIGH.ordinal()]));
+            }
+        });
+        timeline.sort((left, right) -> left.minute().compareTo(right.minute()));
+
+        return new AggregateSnapshot(total.sum(), honeypotTriggers.sum(), eventTypes, riskLevels, notes, timeline);
+    }
+
+    private void apply(FileEvent event, int delta) {
+        total.add(delta);
+        if (event.isHoneypotTriggered()) {
+            honeypotTriggers.add(delta);
+        }
+        if (event.getEventType() != null) {
+            byEventType[event.getEventType().ordinal()].add(delta);
+        }
+        if (event.getRiskLevel() != null) {
+            byRiskLevel[event.getRiskLevel().ordinal()].add(delta);
+        }
+        int flags = event.getNoteFlags();
+        while (flags != 0) {
+            byNote[Integer.numberOfTrailingZeros(flags)].add(delta);
+            flags &= flags - 1;
+        }
+
+        if (event.getTimestamp() == null) {
+            return;
+        }
+        long minute = Math.floorDiv(event.getTimestamp().toEpochMilli(), MINUTE_MILLIS);
+        byMinute.compute(minute, (key, counts) -> {
+            long[] updated = counts == null ? new long[MINUTE_LEVELS + RISK_LEVELS.length] : counts;
+            synchronized (updated) {
+                updated[MINUTE_TOTAL] += delta;
+                if (event.isHoneypotTriggered()) {
+                    updated[MINUTE_HONEYPOT] += delta;
+                }
+                if (event.getRiskLevel() != null) {
+                    updated[MINUTE_LEVELS + event.getRiskLevel().ordinal()] += delta;
+                }
+                return updated[MINUTE_TOTAL] <= 0 ? null : updated;
+            }
+        });
+    }
+
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static void resetAll(LongAdder[] adders) {
+        for (LongAdder adder : adders) {
+            adder.reset();
+        }
+    }
+}
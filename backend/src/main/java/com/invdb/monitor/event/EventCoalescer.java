@@ -0,0 +1,170 @@
+package com.invdb.monitor.event;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Merges bursts of events on the same path into one event before analysis. A burst is held until
+ * its path has been quiet for {@code quietPeriodMs} or it has been open for {@code maxLatencyMs},
+ * then handed downstream with the type the whole burst amounts to, the timestamps of its first and
+ * last event and the number of events it stands for. A file created and deleted within one burst,
+ * as temp files are, is dropped entirely, and a file renamed and then deleted is reported as the
+ * deletion of its original path. When {@code maxPending} paths are already held, events for new
+ * paths are passed straight through.
+ */
+@Slf4j
+final class EventCoalescer {
+
+    private final long quietPeriodMs;
+    private final long maxLatencyMs;
+    private final int maxPending;
+    private final Consumer<FileEvent> downstream;
+
+    private final ConcurrentHashMap<String, Burst> pending = new ConcurrentHashMap<>();
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder folded = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder passedThrough = new LongAdder();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    EventCoalescer(long quietPeriodMs, long maxLatencyMs, int maxPending, Consumer<FileEvent> downstream) {
+        this.quietPeriodMs = Math.max(1L, quietPeriodMs);
+        this.maxLatencyMs = Math.max(this.quietPeriodMs, maxLatencyMs);
+        this.maxPending = Math.max(1, maxPending);
+        this.downstream = downstream;
+    }
+
+    void start() {
+        long interval = Math.max(10L, quietPeriodMs / 2);
+        scheduler.scheduleWithFixedDelay(this::flushDue, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Flushes everything still held and stops the flush thread.
+     */
+    void shutdown() {
+        scheduler.shutdownNow();
+        flush(Long.MAX_VALUE);
+    }
+
+    void submit(FileEvent event) {
+        String path = event.getPath();
+        if (path == null || event.getEventType() == null
+                || (pending.size() >= maxPending && !pending.containsKey(path))) {
+            passedThrough.increment();
+            downstream.accept(event);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        pending.compute(path, (key, burst) -> {
+            if (burst == null) {
+                return new Burst(event, now);
+            }
+            FileEventType type = mergedType(burst.event.getEventType(), event.getEventType());
+            if (type == null) {
+                folded.add(burst.event.getEventCount() + 1L);
+                return null;
+            }
+            burst.add(event, type, now);
+            merged.increment();
+            return burst;
+        });
+    }
+
+    void clear() {
+        pending.clear();
+    }
+
+    CoalesceStats getStats() {
+        return new CoalesceStats(pending.size(), merged.sum(), folded.sum(), flushed.sum(), passedThrough.sum());
+    }
+
+    private void flushDue() {
+        try {
+            flush(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush coalesced events", e);
+        }
+    }
+
+    private void flush(long now) {
+        List<Burst> due = new ArrayList<>();
+        for (String path : pending.keySet()) {
+            pending.computeIfPresent(path, (key, burst) -> {
+                if (now - burst.lastArrival < quietPeriodMs && now - burst.firstArrival < maxLatencyMs) {
+                    return burst;
+                }
+                due.add(burst);
+                return null;
+            });
+        }
+        due.sort(Comparator.comparingLong(burst -> burst.firstArrival));
+        for (Burst burst : due) {
+            flushed.increment();
+            downstream.accept(burst.event);
+        }
+    }
+
+    /**
+     * What a held event followed by another on the same path amounts to, or null when the two
+     * cancel out.
+     */
+    static FileEventType mergedType(FileEventType held, FileEventType next) {
+        if (next == FileEventType.RENAMED || next == FileEventType.DELETED) {
+            return held == FileEventType.CREATED && next == FileEventType.DELETED ? null : next;
+        }
+        return switch (held) {
+            case CREATED, RENAMED -> held;
+            case MODIFIED, DELETED -> FileEventType.MODIFIED;
+        };
+    }
+
+    private static final class Burst {
+
+        private final FileEvent event;
+        private final long firstArrival;
+        private long lastArrival;
+
+        private Burst(FileEvent event, long now) {
+            this.event = event;
+            this.firstArrival = now;
+            this.lastArrival = now;
+        }
+
+        private void add(FileEvent next, FileEventType type, long now) {
+            if (event.getFirstTimestamp() == null) {
+                event.setFirstTimestamp(event.getTimestamp());
+            }
+            if (next.getTimestamp() != null) {
+                event.setTimestamp(next.getTimestamp());
+            }
+            if (type == FileEventType.DELETED && event.getEventType() == FileEventType.RENAMED
+                    && event.getPreviousPath() != null) {
+                // a.txt renamed to x.txt, then x.txt deleted: what is gone is a.txt.
+                event.setPath(event.getPreviousPath());
+                event.setPreviousPath(null);
+            } else if (type != FileEventType.RENAMED) {
+                event.setPreviousPath(null);
+            } else if (next.getPreviousPath() != null) {
+                event.setPreviousPath(next.getPreviousPath());
+            }
+            event.setEventType(type);
+            event.setEventCount(event.getEventCount() + next.getEventCount());
+            lastArrival = now;
+        }
+    }
+}
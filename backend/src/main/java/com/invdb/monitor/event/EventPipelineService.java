@@ -3,15 +3,21 @@ package com.invdb.monitor.event;
 import com.invdb.monitor.behavior.BehaviorAnalyzer;
 import com.invdb.monitor.config.AppProperties;
 import com.invdb.monitor.honeypot.HoneypotService;
+import com.invdb.monitor.journal.EventJournal;
+import com.invdb.monitor.journal.JournalEntry;
+import com.invdb.monitor.metrics.PipelineMetrics;
+import com.invdb.monitor.metrics.PipelineStage;
 import com.invdb.monitor.risk.RiskAssessment;
 import com.invdb.monitor.risk.RiskEngine;
-import java.nio.file.Path;
-import java.time.Duration;
-import java.time.Instant;
+import com.invdb.monitor.stream.LiveEventBroadcaster;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,54 +31,173 @@ public class EventPipelineService {
     private final HoneypotService honeypotService;
     private final BehaviorAnalyzer behaviorAnalyzer;
     private final RiskEngine riskEngine;
+    private final EventJournal eventJournal;
+    private final LiveEventBroadcaster liveEventBroadcaster;
+    private final PipelineMetrics pipelineMetrics;
     private final int maxEventsStored;
-    private final Duration dedupWindow;
+    private final long dedupWindowMs;
 
     private final Deque<FileEvent> events = new ConcurrentLinkedDeque<>();
-    private final ConcurrentHashMap<String, Instant> lastSeenByKey = new ConcurrentHashMap<>();
+    private final EventAggregates aggregates = new EventAggregates();
+    // Guards numbering and every change to the stored events, their count and their aggregates.
+    private final Object sequenceLock = new Object();
+    private long nextSequence;
+    private int storedCount;
+    private volatile long latestSequence = -1L;
+    private volatile long clearGeneration;
+    private final DedupCache dedupCache;
+    private final EventCoalescer coalescer;
+    private final RenameCorrelator renameCorrelator;
 
     public EventPipelineService(
             HoneypotService honeypotService,
             BehaviorAnalyzer behaviorAnalyzer,
             RiskEngine riskEngine,
+            EventJournal eventJournal,
+            LiveEventBroadcaster liveEventBroadcaster,
+            PipelineMetrics pipelineMetrics,
             AppProperties appProperties) {
         this.honeypotService = honeypotService;
         this.behaviorAnalyzer = behaviorAnalyzer;
         this.riskEngine = riskEngine;
+        this.eventJournal = eventJournal;
+        this.liveEventBroadcaster = liveEventBroadcaster;
+        this.pipelineMetrics = pipelineMetrics;
         this.maxEventsStored = Math.max(1, appProperties.getMaxEventsStored());
-        this.dedupWindow = Duration.ofMillis(Math.max(0L, appProperties.getDedupWindowMs()));
+        this.dedupWindowMs = Math.max(0L, appProperties.getDedupWindowMs());
+        this.dedupCache = new DedupCache(dedupWindowMs, Math.max(1, appProperties.getDedupMaxEntries()));
+        AppProperties.CoalesceProperties coalesce = appProperties.getCoalesce();
+        this.coalescer = coalesce.isEnabled()
+                ? new EventCoalescer(coalesce.getQuietPeriodMs(), coalesce.getMaxLatencyMs(), coalesce.getMaxPending(), this::store)
+                : null;
+        AppProperties.RenameProperties rename = appProperties.getRename();
+        this.renameCorrelator = rename.isEnabled()
+                ? new RenameCorrelator(rename.getWindowMs(), rename.getMaxPending(), this::coalesce)
+                : null;
+    }
+
+    @PostConstruct
+    public void restoreRecentEvents() {
+        try {
+            List<JournalEntry> latest = eventJournal.readLatest(maxEventsStored);
+            synchronized (sequenceLock) {
+                nextSequence = eventJournal.nextSequence();
+                latestSequence = nextSequence - 1;
+                for (JournalEntry entry : latest) {
+                    events.addFirst(entry.event());
+                    aggregates.add(entry.event());
+                }
+                storedCount = latest.size();
+            }
+            if (!latest.isEmpty()) {
+                log.info("Restored {} recent events from the journal", latest.size());
+            }
+        } catch (IOException e) {
+            log.warn("Could not restore recent events from the journal", e);
+        }
+        if (renameCorrelator != null) {
+            renameCorrelator.start();
+        }
+        if (coalescer != null) {
+            coalescer.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (renameCorrelator != null) {
+            renameCorrelator.shutdown();
+        }
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
     }
 
     public void process(FileEvent event) {
-        boolean honeypotTriggered = honeypotService.isHoneypot(Path.of(event.getPath()));
+        pipelineMetrics.eventReceived();
+        long start = pipelineMetrics.now();
+        boolean honeypotTriggered = honeypotService.isHoneypot(event.getPath());
         event.setHoneypotTriggered(honeypotTriggered);
+        pipelineMetrics.record(PipelineStage.HONEYPOT, start);
+
+        // Honeypot hits are never held back.
+        if (renameCorrelator != null && !honeypotTriggered) {
+            renameCorrelator.submit(event);
+            return;
+        }
+        coalesce(event);
+    }
 
-        if (isDuplicate(event)) {
+    private void coalesce(FileEvent event) {
+        // With coalescing on, bursts replace the dedup window.
+        if (coalescer != null && !event.isHoneypotTriggered()) {
+            coalescer.submit(event);
+            return;
+        }
+        long start = pipelineMetrics.now();
+        boolean duplicate = isDuplicate(event);
+        pipelineMetrics.record(PipelineStage.DEDUP, start);
+        if (duplicate) {
+            pipelineMetrics.eventDeduplicated();
             if (log.isDebugEnabled()) {
                 log.debug(
                         "Dropped duplicate event type={} path={} within dedup window of {}ms",
                         event.getEventType(),
                         event.getPath(),
-                        dedupWindow.toMillis());
+                        dedupWindowMs);
             }
             return;
         }
+        store(event);
+    }
 
+    private void store(FileEvent event) {
+        long start = pipelineMetrics.now();
         behaviorAnalyzer.analyze(event);
+        start = pipelineMetrics.record(PipelineStage.BEHAVIOR, start);
 
         RiskAssessment riskAssessment = riskEngine.calculateRisk(event);
         event.setRiskScore(riskAssessment.score());
         event.setRiskLevel(riskAssessment.level());
+        start = pipelineMetrics.record(PipelineStage.RISK, start);
 
-        events.addFirst(event);
-        while (events.size() > maxEventsStored) {
-            events.removeLast();
+        synchronized (sequenceLock) {
+            // Numbering, journaling and insertion happen together so the deque stays in sequence
+            // order, and the count and aggregates change with it so a concurrent clear cannot skew them.
+            event.setSequence(nextSequence++);
+            eventJournal.append(event);
+            events.addFirst(event);
+            latestSequence = event.getSequence();
+            aggregates.add(event);
+            if (++storedCount > maxEventsStored) {
+                FileEvent evicted = events.pollLast();
+                if (evicted != null) {
+                    storedCount--;
+                    aggregates.remove(evicted);
+                }
+            }
         }
+        liveEventBroadcaster.publish(event);
+        pipelineMetrics.eventStored();
+        pipelineMetrics.record(PipelineStage.STORAGE, start);
+        // Includes time spent queued and held back by rename detection or coalescing.
+        pipelineMetrics.record(PipelineStage.END_TO_END, event.getReceivedNanos());
     }
 
     public void clearEvents() {
-        events.clear();
-        lastSeenByKey.clear();
+        synchronized (sequenceLock) {
+            clearGeneration++;
+            events.clear();
+            storedCount = 0;
+            aggregates.clear();
+        }
+        dedupCache.clear();
+        if (renameCorrelator != null) {
+            renameCorrelator.clear();
+        }
+        if (coalescer != null) {
+            coalescer.clear();
+        }
     }
 
     private boolean isDuplicate(FileEvent event) {
@@ -80,39 +205,67 @@ public class EventPipelineService {
             return false;
         }
 
-        Instant now = Instant.now();
-        String dedupKey = event.getEventType() + "|" + normalizePath(event.getPath());
-
-        return lastSeenByKey.compute(
-                        dedupKey,
-                        (key, previous) -> {
-                            if (previous == null) {
-                                return now;
-                            }
-
-                            Duration elapsed = Duration.between(previous, now);
-                            if (elapsed.compareTo(dedupWindow) < 0) {
-                                return previous;
-                            }
+        return dedupCache.isDuplicate(event.getPath(), System.currentTimeMillis());
+    }
 
-                            return now;
-                        })
-                != now;
+    public DedupStats getDedupStats() {
+        return dedupCache.getStats();
     }
 
-    private String normalizePath(String path) {
-        if (path == null) {
-            return "";
-        }
+    /**
+     * Returns the coalescing stage's counters, all zero when coalescing is disabled.
+     */
+    public CoalesceStats getCoalesceStats() {
+        return coalescer == null ? new CoalesceStats(0, 0, 0, 0, 0) : coalescer.getStats();
+    }
 
-        return path.replace('\\', '/').toLowerCase();
+    /**
+     * Returns the rename correlator's counters, all zero when rename detection is disabled.
+     */
+    public RenameStats getRenameStats() {
+        return renameCorrelator == null ? new RenameStats(0, 0, 0) : renameCorrelator.getStats();
     }
 
+    /**
+     * Counts over the stored events, kept up to date as events are stored and evicted.
+     */
+    public AggregateSnapshot getAggregates() {
+        return aggregates.snapshot();
+    }
 
     public List<FileEvent> getAllEvents() {
         return new ArrayList<>(events);
     }
 
+    /**
+     * Changes whenever the stored events do, for use as an HTTP entity tag.
+     */
+    public String getVersionTag() {
+        return clearGeneration + "-" + latestSequence;
+    }
+
+    /**
+     * Returns the oldest {@code limit} events with a sequence greater than {@code after}, newest
+     * first, so a caller that was cut short can continue after the newest one it got.
+     */
+    public List<FileEvent> getEventsAfter(long after, int limit) {
+        int max = Math.max(1, limit);
+        List<FileEvent> result = new ArrayList<>();
+        Iterator<FileEvent> oldestFirst = events.descendingIterator();
+        while (oldestFirst.hasNext() && result.size() < max) {
+            FileEvent event = oldestFirst.next();
+            if (event.getSequence() > after) {
+                result.add(event);
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    public long getLatestSequence() {
+        return latestSequence;
+    }
+
     public List<FileEvent> getRecentEvents(int limit) {
         int max = Math.max(1, limit);
         List<FileEvent> result = new ArrayList<>(max);
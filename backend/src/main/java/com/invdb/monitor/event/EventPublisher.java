@@ -3,4 +3,6 @@ package com.invdb.monitor.event;
 public interface EventPublisher {
 
     void publish(FileEvent event);
+
+    PublisherStats getStats();
 }
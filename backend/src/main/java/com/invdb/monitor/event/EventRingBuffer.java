@@ -0,0 +1,101 @@
+package com.invdb.monitor.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring of preallocated slots. Each slot carries a sequence number that tells producers
+ * and consumers whether it is free or filled, so neither side takes a lock or allocates per event.
+ * A consumer claims a filled slot by swapping its reference out, which lets a producer swap a
+ * queued event for a newer one only while no consumer has taken it.
+ */
+final class EventRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<FileEvent> slots;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    EventRingBuffer(int requestedCapacity) {
+        this.capacity = nextPowerOfTwo(Math.max(2, requestedCapacity));
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.slots = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Queues the event and returns its position, or -1 when the ring is full.
+     */
+    long offer(FileEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, event);
+                    sequences.set(index, position + 1);
+                    return position;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return -1L;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    FileEvent poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    FileEvent event = slots.getAndSet(index, null);
+                    sequences.set(index, position + capacity);
+                    return event;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Swaps the event queued at {@code position} for {@code replacement}. Fails once a consumer has
+     * claimed the slot or it holds anything other than {@code expected}.
+     */
+    boolean replace(long position, FileEvent expected, FileEvent replacement) {
+        int index = (int) (position & mask);
+        return sequences.get(index) == position + 1 && slots.compareAndSet(index, expected, replacement);
+    }
+
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0L, Math.min(capacity, size));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+}
@@ -1,5 +1,8 @@
 package com.invdb.monitor.event;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.invdb.monitor.behavior.BehaviorNote;
 import com.invdb.monitor.risk.RiskLevel;
 import java.time.Instant;
 import java.util.List;
@@ -13,11 +16,35 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class FileEvent {
+    private long sequence;
     private String path;
+    private String previousPath;
     private Instant timestamp;
+    private Instant firstTimestamp;
+    @Builder.Default
+    private int eventCount = 1;
     private FileEventType eventType;
     private boolean isHoneypotTriggered;
     private int riskScore;
     private RiskLevel riskLevel;
-    private List<String> notes;
+    @JsonIgnore
+    private int noteFlags;
+    /**
+     * {@link System#nanoTime()} when the watcher picked the event up, 0 if it was not timed.
+     */
+    @JsonIgnore
+    private long receivedNanos;
+
+    public void addNote(BehaviorNote note) {
+        noteFlags |= note.mask();
+    }
+
+    public boolean hasNote(BehaviorNote note) {
+        return note.isSet(noteFlags);
+    }
+
+    @JsonProperty("notes")
+    public List<String> getNotes() {
+        return BehaviorNote.names(noteFlags);
+    }
 }
@@ -3,5 +3,6 @@ package com.invdb.monitor.event;
 public enum FileEventType {
     CREATED,
     MODIFIED,
-    DELETED
+    DELETED,
+    RENAMED
 }
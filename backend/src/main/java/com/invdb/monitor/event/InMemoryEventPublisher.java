@@ -1,11 +1,15 @@
 package com.invdb.monitor.event;
 
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 @Service
+@ConditionalOnProperty(prefix = "app.pipeline", name = "async", havingValue = "false")
 public class InMemoryEventPublisher implements EventPublisher {
 
     private final EventPipelineService eventPipelineService;
+    private final LongAdder published = new LongAdder();
 
     public InMemoryEventPublisher(EventPipelineService eventPipelineService) {
         this.eventPipelineService = eventPipelineService;
@@ -13,6 +17,12 @@ public class InMemoryEventPublisher implements EventPublisher {
 
     @Override
     public void publish(FileEvent event) {
+        published.increment();
         eventPipelineService.process(event);
     }
+
+    @Override
+    public PublisherStats getStats() {
+        return new PublisherStats(0, 0, published.sum(), 0L, 0L, 0L);
+    }
 }
@@ -0,0 +1,6 @@
+package com.invdb.monitor.event;
+
+import java.time.Instant;
+
+public record MinuteCount(Instant minute, long total, long honeypot, long low, long medium, long high) {
+}
@@ -0,0 +1,4 @@
+package com.invdb.monitor.event;
+
+public record PublisherStats(
+        int queueDepth, int queueCapacity, long published, long dropped, long coalesced, long blocked) {}
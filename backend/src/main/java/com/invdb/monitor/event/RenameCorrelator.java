@@ -0,0 +1,220 @@
+package com.invdb.monitor.event;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Turns a DELETED event followed within {@code windowMs} by a matching CREATED event into one
+ * RENAMED event carrying both paths. Deletes are held for the window. A create first matches a held
+ * delete in the same directory whose whole name it starts with, so {@code report.docx} pairs with
+ * {@code report.docx.locked}; failing that one with the same stem, the name up to its first dot, so
+ * {@code report.docx} pairs with {@code report.enc}; failing that a delete of the same file name in
+ * another directory, which is a move. Deletes that find no partner are passed on when their window
+ * ends.
+ * <p>
+ * Held deletes sit in a hash index under all three keys and expire in arrival order, so every
+ * event costs O(1) in the number of files churning. At most {@code maxPending} deletes are held;
+ * past that the oldest is released early.
+ */
+@Slf4j
+final class RenameCorrelator {
+
+    private static final char NAME_KEY_PREFIX = '\0';
+    private static final char STEM_KEY_PREFIX = '\1';
+
+    private final long windowMs;
+    private final int maxPending;
+    private final Consumer<FileEvent> downstream;
+
+    private final Object lock = new Object();
+    private final Map<String, PendingDelete> index = new HashMap<>();
+    private final ArrayDeque<PendingDelete> order = new ArrayDeque<>();
+    private int held;
+
+    private final LongAdder renames = new LongAdder();
+    private final LongAdder unmatchedDeletes = new LongAdder();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rename-correlator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    RenameCorrelator(long windowMs, int maxPending, Consumer<FileEvent> downstream) {
+        this.windowMs = Math.max(1L, windowMs);
+        this.maxPending = Math.max(1, maxPending);
+        this.downstream = downstream;
+    }
+
+    void start() {
+        long interval = Math.max(10L, windowMs / 2);
+        scheduler.scheduleWithFixedDelay(this::releaseExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Releases every held delete and stops the expiry thread.
+     */
+    void shutdown() {
+        scheduler.shutdownNow();
+        List<FileEvent> released = new ArrayList<>();
+        synchronized (lock) {
+            expire(Long.MAX_VALUE, 0, released);
+        }
+        emit(released);
+    }
+
+    void submit(FileEvent event) {
+        FileEventType type = event.getEventType();
+        String path = event.getPath();
+        int nameStart = path == null ? -1 : nameStart(path);
+        if ((type != FileEventType.DELETED && type != FileEventType.CREATED) || nameStart < 0 || nameStart == path.length()) {
+            downstream.accept(event);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String stemKey = STEM_KEY_PREFIX + path.substring(0, stemEnd(path, nameStart));
+        String nameKey = NAME_KEY_PREFIX + path.substring(nameStart);
+        List<FileEvent> released = new ArrayList<>();
+        boolean hold = false;
+        synchronized (lock) {
+            expire(now, maxPending - 1, released);
+            if (type == FileEventType.DELETED) {
+                PendingDelete pending = new PendingDelete(event, now, stemKey, nameKey);
+                index.put(path, pending);
+                index.put(stemKey, pending);
+                index.put(nameKey, pending);
+                order.addLast(pending);
+                held++;
+                hold = true;
+            } else {
+                PendingDelete match = null;
+                // The whole path, then each prefix ending before a dot in the name, longest first.
+                for (int end = path.length(); match == null && end > nameStart; end = path.lastIndexOf('.', end - 1)) {
+                    match = index.get(path.substring(0, end));
+                }
+                if (match == null) {
+                    match = index.get(stemKey);
+                }
+                if (match == null) {
+                    match = index.get(nameKey);
+                }
+                if (match != null) {
+                    unindex(match);
+                    if (path.equals(match.event.getPath())) {
+                        // Deleted and recreated in place: not a rename, pass both on in order.
+                        released.add(match.event);
+                        unmatchedDeletes.increment();
+                    } else {
+                        event.setEventType(FileEventType.RENAMED);
+                        event.setPreviousPath(match.event.getPath());
+                        renames.increment();
+                    }
+                }
+            }
+        }
+        emit(released);
+        if (!hold) {
+            downstream.accept(event);
+        }
+    }
+
+    void clear() {
+        synchronized (lock) {
+            index.clear();
+            order.clear();
+            held = 0;
+        }
+    }
+
+    RenameStats getStats() {
+        int pending;
+        synchronized (lock) {
+            pending = held;
+        }
+        return new RenameStats(pending, renames.sum(), unmatchedDeletes.sum());
+    }
+
+    private void releaseExpired() {
+        try {
+            List<FileEvent> released = new ArrayList<>();
+            synchronized (lock) {
+                expire(System.currentTimeMillis(), maxPending, released);
+            }
+            emit(released);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release unmatched deletes", e);
+        }
+    }
+
+    /**
+     * Drops resolved deletes from the head of the queue and releases unmatched ones whose window has
+     * ended, or the oldest ones while more than {@code limit} are held.
+     */
+    private void expire(long now, int limit, List<FileEvent> released) {
+        PendingDelete head;
+        while ((head = order.peekFirst()) != null
+                && (head.resolved || held > limit || now - head.heldAt >= windowMs)) {
+            order.pollFirst();
+            if (!head.resolved) {
+                unindex(head);
+                released.add(head.event);
+                unmatchedDeletes.increment();
+            }
+        }
+    }
+
+    private void unindex(PendingDelete pending) {
+        pending.resolved = true;
+        held--;
+        index.remove(pending.event.getPath(), pending);
+        index.remove(pending.stemKey, pending);
+        index.remove(pending.nameKey, pending);
+    }
+
+    private void emit(List<FileEvent> released) {
+        for (FileEvent event : released) {
+            downstream.accept(event);
+        }
+    }
+
+    private static int nameStart(String path) {
+        for (int i = path.length() - 1; i >= 0; i--) {
+            char c = path.charAt(i);
+            if (c == '/' || c == '\\') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int stemEnd(String path, int nameStart) {
+        int dot = path.indexOf('.', nameStart + 1);
+        return dot < 0 ? path.length() : dot;
+    }
+
+    private static final class PendingDelete {
+
+        private final FileEvent event;
+        private final long heldAt;
+        private final String stemKey;
+        private final String nameKey;
+        private boolean resolved;
+
+        private PendingDelete(FileEvent event, long heldAt, String stemKey, String nameKey) {
+            this.event = event;
+            this.heldAt = heldAt;
+            this.stemKey = stemKey;
+            this.nameKey = nameKey;
+        }
+    }
+}
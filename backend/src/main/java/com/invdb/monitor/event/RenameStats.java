@@ -0,0 +1,4 @@
+package com.invdb.monitor.event;
+
+public record RenameStats(int pending, long renames, long unmatchedDeletes) {
+}
@@ -0,0 +1,312 @@
+package com.invdb.monitor.event;
+
+import com.invdb.monitor.config.AppProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(prefix = "app.pipeline", name = "async", havingValue = "true", matchIfMissing = true)
+public class RingBufferEventPublisher implements EventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(RingBufferEventPublisher.class);
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long BLOCKING_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SHUTDOWN_JOIN_MS = 2000;
+
+    private final EventPipelineService eventPipelineService;
+    private final EventRingBuffer ringBuffer;
+    private final int consumerCount;
+    private final WaitStrategy waitStrategy;
+    private final BackpressurePolicy backpressurePolicy;
+
+    private final Map<String, PendingModification> pendingModifications = new ConcurrentHashMap<>();
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition notEmpty = waitLock.newCondition();
+    private final Condition notFull = waitLock.newCondition();
+    private final AtomicInteger waitingConsumers = new AtomicInteger();
+    private final AtomicInteger waitingProducers = new AtomicInteger();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+
+    private final List<Thread> consumers = new ArrayList<>();
+    private volatile boolean running;
+
+    public RingBufferEventPublisher(EventPipelineService eventPipelineService, AppProperties appProperties) {
+        AppProperties.PipelineProperties pipeline = appProperties.getPipeline();
+        this.eventPipelineService = eventPipelineService;
+        this.ringBuffer = new EventRingBuffer(pipeline.getBufferSize());
+        this.consumerCount = Math.max(1, pipeline.getConsumers());
+        this.waitStrategy = pipeline.getWaitStrategy() == null ? WaitStrategy.BLOCKING : pipeline.getWaitStrategy();
+        this.backpressurePolicy =
+                pipeline.getBackpressure() == null ? BackpressurePolicy.BLOCK : pipeline.getBackpressure();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < consumerCount; i++) {
+            Thread consumer = new Thread(this::consumeLoop, "event-pipeline-consumer-" + i);
+            consumer.setDaemon(true);
+            consumer.start();
+            consumers.add(consumer);
+        }
+        log.info(
+                "Started event pipeline with capacity={} consumers={} waitStrategy={} backpressure={}",
+                ringBuffer.capacity(),
+                consumerCount,
+                waitStrategy,
+                backpressurePolicy);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        signal(notEmpty, waitingConsumers);
+        signal(notFull, waitingProducers);
+        for (Thread consumer : consumers) {
+            try {
+                consumer.join(SHUTDOWN_JOIN_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        consumers.clear();
+
+        FileEvent remaining;
+        while ((remaining = ringBuffer.poll()) != null) {
+            forgetPending(remaining);
+            processSafely(remaining);
+        }
+    }
+
+    @Override
+    public void publish(FileEvent event) {
+        published.increment();
+
+        PendingModification pending = null;
+        if (backpressurePolicy == BackpressurePolicy.COALESCE && isCoalescable(event)) {
+            if (coalesceIntoPending(event)) {
+                coalesced.increment();
+                return;
+            }
+            pending = trackPending(event);
+        }
+
+        long position = ringBuffer.offer(event);
+        if (position < 0) {
+            position = handleFullBuffer(event);
+        }
+        if (pending != null) {
+            pending.position = position;
+        }
+        signal(notEmpty, waitingConsumers);
+    }
+
+    @Override
+    public PublisherStats getStats() {
+        return new PublisherStats(
+                ringBuffer.size(),
+                ringBuffer.capacity(),
+                published.sum(),
+                dropped.sum(),
+                coalesced.sum(),
+                blocked.sum());
+    }
+
+    /**
+     * Waits for room or evicts per the policy; returns the event's position, or -1 if it was handed
+     * to the pipeline directly.
+     */
+    private long handleFullBuffer(FileEvent event) {
+        long position;
+        if (backpressurePolicy == BackpressurePolicy.DROP_OLDEST) {
+            while ((position = ringBuffer.offer(event)) < 0) {
+                FileEvent evicted = ringBuffer.poll();
+                if (evicted != null) {
+                    forgetPending(evicted);
+                    dropped.increment();
+                }
+            }
+            return position;
+        }
+
+        blocked.increment();
+        int attempts = 0;
+        while ((position = ringBuffer.offer(event)) < 0) {
+            if (!running || Thread.currentThread().isInterrupted()) {
+                // Shutting down or the watcher is being stopped: hand the event over directly rather than lose it.
+                forgetPending(event);
+                processSafely(event);
+                return -1L;
+            }
+            await(attempts++, notFull, waitingProducers, () -> ringBuffer.size() >= ringBuffer.capacity());
+        }
+        return position;
+    }
+
+    private static boolean isCoalescable(FileEvent event) {
+        return event.getEventType() == FileEventType.MODIFIED && event.getPath() != null;
+    }
+
+    /**
+     * Swaps a MODIFIED event still waiting in the ring for this newer one. Queued events are never
+     * changed in place, since a consumer may already be processing them: the newer event takes over
+     * the slot only if no consumer has claimed it, and otherwise is queued normally.
+     */
+    private boolean coalesceIntoPending(FileEvent event) {
+        PendingModification pending = pendingModifications.get(event.getPath());
+        if (pending == null || pending.position < 0) {
+            return false;
+        }
+
+        // The new event is not shared yet, so it can take over the queued one's history.
+        FileEvent queued = pending.event;
+        Instant firstTimestamp = event.getFirstTimestamp();
+        int eventCount = event.getEventCount();
+        long receivedNanos = event.getReceivedNanos();
+        event.setFirstTimestamp(queued.getFirstTimestamp() != null ? queued.getFirstTimestamp() : queued.getTimestamp());
+        event.setEventCount(queued.getEventCount() + eventCount);
+        event.setReceivedNanos(queued.getReceivedNanos());
+
+        // Re-point the entry first so a consumer that claims the new event finds and clears it.
+        PendingModification replacement = new PendingModification(event, pending.position);
+        boolean swapped = pendingModifications.replace(event.getPath(), pending, replacement);
+        if (swapped && !ringBuffer.replace(pending.position, queued, event)) {
+            pendingModifications.remove(event.getPath(), replacement);
+            swapped = false;
+        }
+        if (!swapped) {
+            event.setFirstTimestamp(firstTimestamp);
+            event.setEventCount(eventCount);
+            event.setReceivedNanos(receivedNanos);
+        }
+        return swapped;
+    }
+
+    private PendingModification trackPending(FileEvent event) {
+        PendingModification pending = new PendingModification(event, -1L);
+        // Overwrites an entry left behind when coalescing just failed; the consumer clears it by identity.
+        pendingModifications.put(event.getPath(), pending);
+        return pending;
+    }
+
+    private void forgetPending(FileEvent event) {
+        if (backpressurePolicy != BackpressurePolicy.COALESCE || event.getPath() == null) {
+            return;
+        }
+        PendingModification pending = pendingModifications.get(event.getPath());
+        if (pending != null && pending.event == event) {
+            pendingModifications.remove(event.getPath(), pending);
+        }
+    }
+
+    private void consumeLoop() {
+        int attempts = 0;
+        while (running && !Thread.currentThread().isInterrupted()) {
+            FileEvent event = ringBuffer.poll();
+            if (event == null) {
+                await(attempts++, notEmpty, waitingConsumers, ringBuffer::isEmpty);
+                continue;
+            }
+
+            attempts = 0;
+            forgetPending(event);
+            signal(notFull, waitingProducers);
+            processSafely(event);
+        }
+    }
+
+    private void processSafely(FileEvent event) {
+        try {
+            eventPipelineService.process(event);
+        } catch (RuntimeException e) {
+            log.error("Failed to process event type={} path={}", event.getEventType(), event.getPath(), e);
+        }
+    }
+
+    private void await(int attempts, Condition condition, AtomicInteger waiters, BooleanSupplier stillWaiting) {
+        switch (waitStrategy) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELDING -> {
+                if (attempts < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            case SLEEPING -> {
+                if (attempts < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (attempts < SPIN_TRIES + YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+            case BLOCKING -> {
+                if (attempts < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                    return;
+                }
+                waiters.incrementAndGet();
+                waitLock.lock();
+                try {
+                    if (running && stillWaiting.getAsBoolean()) {
+                        condition.awaitNanos(BLOCKING_WAIT_NANOS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    waitLock.unlock();
+                    waiters.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void signal(Condition condition, AtomicInteger waiters) {
+        if (waitStrategy != WaitStrategy.BLOCKING || waiters.get() == 0) {
+            return;
+        }
+        waitLock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    private static final class PendingModification {
+
+        private final FileEvent event;
+        private volatile long position;
+
+        private PendingModification(FileEvent event, long position) {
+            this.event = event;
+            this.position = position;
+        }
+    }
+}
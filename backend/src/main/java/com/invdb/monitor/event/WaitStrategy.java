@@ -0,0 +1,8 @@
+package com.invdb.monitor.event;
+
+public enum WaitStrategy {
+    BLOCKING,
+    SLEEPING,
+    YIELDING,
+    BUSY_SPIN
+}
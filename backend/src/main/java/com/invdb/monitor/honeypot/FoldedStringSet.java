@@ -0,0 +1,106 @@
+package com.invdb.monitor.honeypot;
+
+import java.util.Collection;
+
+/**
+ * Open-addressing set of strings that is queried with a character range of another string, so a
+ * lookup allocates nothing. Comparison ignores case and treats {@code '\'} as {@code '/'}; callers
+ * that walk a string can feed {@link #step} as they go and pass the running hash.
+ */
+final class FoldedStringSet {
+
+    private static final int EMPTY_HASH = 0;
+
+    private final String[] entries;
+    private final int[] hashes;
+    private final int mask;
+    private final int size;
+
+    FoldedStringSet(Collection<String> values) {
+        int capacity = Integer.highestOneBit(Math.max(4, values.size() * 2 - 1)) << 1;
+        this.entries = new String[capacity];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+        int count = 0;
+        for (String value : values) {
+            if (value != null && !value.isEmpty() && add(value)) {
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c == '\\' ? '/' : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    static int step(int hash, char c) {
+        return 31 * hash + fold(c);
+    }
+
+    /**
+     * Like {@link #step} for a character that is already folded.
+     */
+    static int stepFolded(int hash, char folded) {
+        return 31 * hash + folded;
+    }
+
+    boolean contains(CharSequence text, int from, int to) {
+        int hash = EMPTY_HASH;
+        for (int i = from; i < to; i++) {
+            hash = step(hash, text.charAt(i));
+        }
+        return contains(text, from, to, hash);
+    }
+
+    boolean contains(CharSequence text, int from, int to, int hash) {
+        if (size == 0) {
+            return false;
+        }
+        for (int slot = spread(hash) & mask; entries[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && regionEquals(entries[slot], text, from, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean add(String value) {
+        int hash = EMPTY_HASH;
+        for (int i = 0; i < value.length(); i++) {
+            hash = step(hash, value.charAt(i));
+        }
+        int slot = spread(hash) & mask;
+        for (; entries[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && regionEquals(entries[slot], value, 0, value.length())) {
+                return false;
+            }
+        }
+        entries[slot] = value;
+        hashes[slot] = hash;
+        return true;
+    }
+
+    private static boolean regionEquals(String entry, CharSequence text, int from, int to) {
+        if (entry.length() != to - from) {
+            return false;
+        }
+        for (int i = 0; i < entry.length(); i++) {
+            if (fold(entry.charAt(i)) != fold(text.charAt(from + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
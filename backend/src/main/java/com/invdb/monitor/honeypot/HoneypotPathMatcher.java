@@ -0,0 +1,194 @@
+package com.invdb.monitor.honeypot;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Decides whether a raw path string points at a honeypot in one pass over its characters, without
+ * allocating. Honeypot file names, trap directory names and exact honeypot paths are hash-set
+ * lookups at separator boundaries, so their number does not affect the cost per event. Glob
+ * patterns of the common shapes {@code **}{@code /name}, {@code **}{@code /dir/**} and
+ * {@code **}{@code /*.ext} are folded into those sets; only other globs are matched one by one.
+ * Matching ignores case and accepts both separators.
+ */
+final class HoneypotPathMatcher {
+
+    private static final char ANY_PATH = '\uFFFF';
+    private static final char ANY_NAME = '\uFFFE';
+    private static final char ANY_CHAR = '\uFFFD';
+
+    private final FoldedStringSet fileNames;
+    private final FoldedStringSet directoryNames;
+    private final FoldedStringSet extensions;
+    private final FoldedStringSet paths;
+    private final char[][] globs;
+
+    HoneypotPathMatcher(
+            Collection<String> fileNames,
+            Collection<String> directoryNames,
+            Collection<String> paths,
+            Collection<String> patterns) {
+        List<String> names = new ArrayList<>(fileNames);
+        List<String> directories = new ArrayList<>(directoryNames);
+        List<String> extensionList = new ArrayList<>();
+        List<char[]> globList = new ArrayList<>();
+        for (String pattern : patterns) {
+            String normalized = pattern.replace('\\', '/');
+            if (normalized.startsWith("**/*.") && isLiteral(normalized, 5, normalized.length())) {
+                extensionList.add(normalized.substring(5));
+            } else if (normalized.startsWith("**/") && normalized.endsWith("/**")
+                    && normalized.length() > 6
+                    && isLiteral(normalized, 3, normalized.length() - 3)) {
+                directories.add(normalized.substring(3, normalized.length() - 3));
+            } else if (normalized.startsWith("**/") && isLiteral(normalized, 3, normalized.length())) {
+                names.add(normalized.substring(3));
+            } else if (!normalized.isEmpty()) {
+                globList.add(compile(normalized));
+            }
+        }
+
+        List<String> normalizedPaths = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            String normalized = Path.of(path).toAbsolutePath().normalize().toString();
+            normalizedPaths.add(stripTrailingSeparator(normalized));
+        }
+
+        this.fileNames = new FoldedStringSet(names);
+        this.directoryNames = new FoldedStringSet(directories);
+        this.extensions = new FoldedStringSet(extensionList);
+        this.paths = new FoldedStringSet(normalizedPaths);
+        this.globs = globList.toArray(new char[0][]);
+    }
+
+    boolean matches(String path) {
+        if (path == null || path.isEmpty()) {
+            return false;
+        }
+
+        int end = path.length();
+        while (end > 1 && isSeparator(path.charAt(end - 1))) {
+            end--;
+        }
+
+        // One walk: a running hash of the whole prefix for exact paths (a honeypot directory covers
+        // everything under it) and a hash of the current segment for trap directory names.
+        int prefixHash = 0;
+        int segmentHash = 0;
+        int segmentStart = 0;
+        int lastDot = -1;
+        boolean checkPaths = !paths.isEmpty();
+        boolean checkDirectories = !directoryNames.isEmpty();
+        for (int i = 0; i < end; i++) {
+            char c = FoldedStringSet.fold(path.charAt(i));
+            if (c == '/') {
+                if (checkPaths && i > 0 && paths.contains(path, 0, i, prefixHash)) {
+                    return true;
+                }
+                if (checkDirectories && i > segmentStart && directoryNames.contains(path, segmentStart, i, segmentHash)) {
+                    return true;
+                }
+                segmentStart = i + 1;
+                segmentHash = 0;
+                lastDot = -1;
+            } else {
+                segmentHash = FoldedStringSet.stepFolded(segmentHash, c);
+                if (c == '.') {
+                    lastDot = i;
+                }
+            }
+            prefixHash = FoldedStringSet.stepFolded(prefixHash, c);
+        }
+
+        if (paths.contains(path, 0, end, prefixHash)
+                || (end > segmentStart && fileNames.contains(path, segmentStart, end, segmentHash))
+                || (lastDot >= 0 && lastDot < end - 1 && extensions.contains(path, lastDot + 1, end))) {
+            return true;
+        }
+
+        for (char[] glob : globs) {
+            if (matchGlob(glob, 0, path, 0, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchGlob(char[] glob, int g, String path, int p, int end) {
+        while (g < glob.length) {
+            char token = glob[g];
+            if (token == ANY_PATH) {
+                for (int k = p; k <= end; k++) {
+                    if (matchGlob(glob, g + 1, path, k, end)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (token == ANY_NAME) {
+                for (int k = p; ; k++) {
+                    if (matchGlob(glob, g + 1, path, k, end)) {
+                        return true;
+                    }
+                    if (k == end || isSeparator(path.charAt(k))) {
+                        return false;
+                    }
+                }
+            }
+            if (p == end) {
+                return false;
+            }
+            char c = path.charAt(p);
+            if (token == ANY_CHAR ? isSeparator(c) : FoldedStringSet.fold(c) != token) {
+                return false;
+            }
+            g++;
+            p++;
+        }
+        return p == end;
+    }
+
+    private static char[] compile(String pattern) {
+        StringBuilder tokens = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' && i + 1 < pattern.length() && pattern.charAt(i + 1) == '*') {
+                tokens.append(ANY_PATH);
+                i++;
+            } else if (c == '*') {
+                tokens.append(ANY_NAME);
+            } else if (c == '?') {
+                tokens.append(ANY_CHAR);
+            } else {
+                tokens.append(FoldedStringSet.fold(c));
+            }
+        }
+        return tokens.toString().toCharArray();
+    }
+
+    private static boolean isLiteral(String pattern, int from, int to) {
+        if (from >= to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '/' || c == '[' || c == '{') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String stripTrailingSeparator(String path) {
+        int end = path.length();
+        while (end > 1 && isSeparator(path.charAt(end - 1))) {
+            end--;
+        }
+        return path.substring(0, end);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '/' || c == '\\';
+    }
+}
@@ -4,5 +4,9 @@ import java.nio.file.Path;
 
 public interface HoneypotService {
 
-    boolean isHoneypot(Path file);
+    boolean isHoneypot(String path);
+
+    default boolean isHoneypot(Path file) {
+        return file != null && isHoneypot(file.toString());
+    }
 }
@@ -0,0 +1,31 @@
+package com.invdb.monitor.honeypot;
+
+import com.invdb.monitor.config.AppProperties;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+
+@Service
+public class HoneypotServiceImpl implements HoneypotService {
+
+    private final HoneypotPathMatcher matcher;
+
+    public HoneypotServiceImpl(AppProperties appProperties) {
+        AppProperties.HoneypotProperties honeypot = appProperties.getHoneypot();
+        if (!honeypot.isEnabled()) {
+            this.matcher = new HoneypotPathMatcher(List.of(), List.of(), List.of(), List.of());
+            return;
+        }
+
+        Set<String> fileNames = new LinkedHashSet<>(appProperties.getHoneypotFiles());
+        fileNames.addAll(honeypot.getFiles());
+        this.matcher = new HoneypotPathMatcher(
+                fileNames, List.of(honeypot.getTrapFolderName()), honeypot.getPaths(), honeypot.getPatterns());
+    }
+
+    @Override
+    public boolean isHoneypot(String path) {
+        return matcher.matches(path);
+    }
+}
@@ -0,0 +1,445 @@
+package com.invdb.monitor.journal;
+
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.FileEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Append-only, segmented on-disk log of processed events. Appenders only enqueue; a single writer
+ * thread drains whatever has queued up, encodes it into one direct buffer and writes it with a
+ * single call, so fsync cost is shared by every event in the batch. The writer indexes each segment
+ * as it goes and saves the {@link SegmentIndex} beside it when the segment is closed.
+ */
+@Slf4j
+@Service
+public class EventJournal {
+
+    private static final long POLL_MILLIS = 100;
+    private static final long RETENTION_CHECK_MILLIS = 60_000;
+    private static final long SHUTDOWN_JOIN_MS = 5000;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final int batchSize;
+    private final long segmentBytes;
+    private final long segmentMaxAgeMillis;
+    private final long retentionMillis;
+    private final long maxTotalBytes;
+
+    private final BlockingQueue<JournalEntry> queue;
+    private long nextSequence;
+
+    // Writer thread state.
+    private final JournalRecordCodec codec = new JournalRecordCodec();
+    private final ByteBuffer writeBuffer;
+    private FileChannel activeChannel;
+    private SegmentIndex activeIndex;
+    private volatile Path activeFile;
+    private long activeSize;
+    private long activeOpenedAt;
+    private boolean unsynced;
+    private long lastFsyncAt;
+    private long lastRetentionCheckAt;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private volatile long lastWrittenSequence = -1L;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public EventJournal(AppProperties appProperties) {
+        AppProperties.JournalProperties properties = appProperties.getJournal();
+        this.enabled = properties.isEnabled();
+        this.directory = Path.of(properties.getDirectory()).toAbsolutePath().normalize();
+        this.fsyncPolicy = properties.getFsyncPolicy() == null ? FsyncPolicy.INTERVAL : properties.getFsyncPolicy();
+        this.fsyncIntervalMillis = Math.max(1L, properties.getFsyncIntervalMs());
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.segmentBytes = Math.max(1024L * 1024, properties.getSegmentSizeBytes());
+        this.segmentMaxAgeMillis = TimeUnit.MINUTES.toMillis(Math.max(1L, properties.getSegmentMaxAgeMinutes()));
+        this.retentionMillis = TimeUnit.DAYS.toMillis(Math.max(1L, properties.getRetentionDays()));
+        this.maxTotalBytes = Math.max(0L, properties.getMaxTotalBytes());
+        this.queue = new ArrayBlockingQueue<>(Math.max(batchSize, properties.getQueueCapacity()));
+        this.writeBuffer = ByteBuffer.allocateDirect(
+                Math.max(JournalRecordCodec.HEADER_SIZE + JournalRecordCodec.MAX_BODY_SIZE, properties.getWriteBufferSize()));
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        nextSequence = recover();
+
+        running = true;
+        writer = new Thread(this::writeLoop, "event-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info(
+                "Event journal at {} starting at sequence {} (fsync={}, segment={} bytes)",
+                directory,
+                nextSequence,
+                fsyncPolicy,
+                segmentBytes);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(SHUTDOWN_JOIN_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            log.warn("Event journal writer did not drain within {}ms; {} events not written", SHUTDOWN_JOIN_MS, queue.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    /**
+     * Whether the writer may still append to the segment file.
+     */
+    boolean isActive(Path segmentFile) {
+        return segmentFile.equals(activeFile);
+    }
+
+    /**
+     * The sequence following the last record recovered at startup; callers continue numbering from
+     * here so sequences stay unique across restarts.
+     */
+    public long nextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Queues an event for writing under its {@link FileEvent#getSequence() sequence}. Callers must
+     * append in sequence order. Blocks while the queue is full, so a stalled disk slows the pipeline
+     * instead of silently losing history.
+     */
+    public void append(FileEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            queue.put(new JournalEntry(event.getSequence(), event));
+            appended.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Visits journaled events in append order starting at the given sequence, until the visitor
+     * returns false.
+     */
+    public void forEach(long fromSequence, Predicate<JournalEntry> visitor) throws IOException {
+        List<JournalSegment> segments = JournalSegment.list(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && segments.get(i + 1).firstSequence() <= fromSequence) {
+                continue;
+            }
+            boolean[] stopped = new boolean[1];
+            try {
+                segments.get(i).read(entry -> {
+                    if (entry.sequence() < fromSequence) {
+                        return true;
+                    }
+                    stopped[0] = !visitor.test(entry);
+                    return !stopped[0];
+                });
+            } catch (NoSuchFileException e) {
+                // Removed by retention while we were reading.
+            }
+            if (stopped[0]) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} of the most recent journaled events, oldest first. Only the newest
+     * segments are read.
+     */
+    public List<JournalEntry> readLatest(int limit) throws IOException {
+        Deque<JournalEntry> latest = new ArrayDeque<>();
+        if (!enabled || limit <= 0) {
+            return new ArrayList<>(latest);
+        }
+
+        List<JournalSegment> segments = JournalSegment.list(directory);
+        for (int i = segments.size() - 1; i >= 0 && latest.size() < limit; i--) {
+            int wanted = limit - latest.size();
+            Deque<JournalEntry> segmentTail = new ArrayDeque<>(Math.min(wanted, 1024));
+            try {
+                segments.get(i).read(entry -> {
+                    if (segmentTail.size() == wanted) {
+                        segmentTail.pollFirst();
+                    }
+                    segmentTail.addLast(entry);
+                    return true;
+                });
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            while (!segmentTail.isEmpty()) {
+                latest.addFirst(segmentTail.pollLast());
+            }
+        }
+        return new ArrayList<>(latest);
+    }
+
+    public JournalStats getStats() {
+        return new JournalStats(
+                appended.get(),
+                written.get(),
+                dropped.get(),
+                fsyncs.get(),
+                bytesWritten.get(),
+                queue.size(),
+                lastWrittenSequence);
+    }
+
+    private long recover() throws IOException {
+        List<JournalSegment> segments = JournalSegment.list(directory);
+        if (segments.isEmpty()) {
+            return 0L;
+        }
+
+        JournalSegment last = segments.get(segments.size() - 1);
+        long[] lastSequence = {last.firstSequence() - 1};
+        long validEnd = last.read(entry -> {
+            lastSequence[0] = entry.sequence();
+            return true;
+        });
+
+        long size = Files.size(last.file());
+        if (validEnd < size) {
+            Files.deleteIfExists(SegmentIndex.sidecarFor(last.file()));
+        }
+        if (validEnd <= JournalSegment.HEADER_SIZE) {
+            // Unreadable header or no complete record; the next segment reuses its first sequence.
+            log.warn("Removing empty journal segment {}", last.file());
+            Files.delete(last.file());
+        } else if (validEnd < size) {
+            log.warn("Truncating torn tail of journal segment {} from {} to {} bytes", last.file(), size, validEnd);
+            try (FileChannel channel = FileChannel.open(last.file(), StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd);
+                channel.force(true);
+            }
+        }
+        lastWrittenSequence = lastSequence[0];
+        // New appends always go to a fresh segment; the recovered one is left closed.
+        return lastSequence[0] + 1;
+    }
+
+    private void writeLoop() {
+        List<JournalEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                JournalEntry first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    writeBatch(batch);
+                }
+                maintain(System.currentTimeMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                dropped.addAndGet(batch.size());
+                log.error("Event journal write failed; {} events lost, switching to a new segment", batch.size(), e);
+                writeBuffer.clear();
+                // The index may list records that never reached the file; queries rebuild it.
+                activeIndex = null;
+                closeActive();
+            } finally {
+                batch.clear();
+            }
+        }
+        closeActive();
+    }
+
+    private void writeBatch(List<JournalEntry> batch) throws IOException {
+        int encoded = 0;
+        for (JournalEntry entry : batch) {
+            if (activeChannel == null || activeSize + writeBuffer.position() >= segmentBytes) {
+                flushBuffer();
+                closeActive();
+                openSegment(entry.sequence());
+            }
+            long offset = activeSize + writeBuffer.position();
+            if (!codec.encode(entry.sequence(), entry.event(), writeBuffer)) {
+                flushBuffer();
+                offset = activeSize;
+                if (!codec.encode(entry.sequence(), entry.event(), writeBuffer)) {
+                    dropped.incrementAndGet();
+                    log.warn("Skipping journal record {} larger than {} bytes", entry.sequence(), JournalRecordCodec.MAX_BODY_SIZE);
+                    continue;
+                }
+            }
+            activeIndex.add(offset, entry);
+            lastWrittenSequence = entry.sequence();
+            encoded++;
+        }
+        flushBuffer();
+        written.addAndGet(encoded);
+        if (fsyncPolicy == FsyncPolicy.EVERY_BATCH) {
+            fsync(System.currentTimeMillis());
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        int bytes = writeBuffer.remaining();
+        while (writeBuffer.hasRemaining()) {
+            activeChannel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+        if (bytes > 0) {
+            activeSize += bytes;
+            bytesWritten.addAndGet(bytes);
+            unsynced = true;
+        }
+    }
+
+    private void maintain(long nowMillis) throws IOException {
+        if (fsyncPolicy == FsyncPolicy.INTERVAL && nowMillis - lastFsyncAt >= fsyncIntervalMillis) {
+            fsync(nowMillis);
+        }
+        if (activeChannel != null
+                && activeSize > JournalSegment.HEADER_SIZE
+                && nowMillis - activeOpenedAt >= segmentMaxAgeMillis) {
+            closeActive();
+        }
+        if (nowMillis - lastRetentionCheckAt >= RETENTION_CHECK_MILLIS) {
+            lastRetentionCheckAt = nowMillis;
+            applyRetention(nowMillis);
+        }
+    }
+
+    private void fsync(long nowMillis) throws IOException {
+        lastFsyncAt = nowMillis;
+        if (activeChannel != null && unsynced) {
+            activeChannel.force(false);
+            unsynced = false;
+            fsyncs.incrementAndGet();
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        JournalSegment segment = JournalSegment.create(directory, firstSequence);
+        Path file = segment.file();
+        // Marked active before it exists so no query seals its index early.
+        activeFile = file;
+        activeIndex = new SegmentIndex(segment);
+        activeChannel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = JournalSegment.header(firstSequence);
+        while (header.hasRemaining()) {
+            activeChannel.write(header);
+        }
+        activeSize = JournalSegment.HEADER_SIZE;
+        activeOpenedAt = System.currentTimeMillis();
+        unsynced = true;
+    }
+
+    private void closeActive() {
+        if (activeChannel == null) {
+            return;
+        }
+        try {
+            if (fsyncPolicy != FsyncPolicy.NONE && unsynced) {
+                activeChannel.force(false);
+                fsyncs.incrementAndGet();
+            }
+            activeChannel.close();
+            if (activeIndex != null) {
+                activeIndex.seal(activeSize);
+                activeIndex.write();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close journal segment", e);
+        }
+        activeChannel = null;
+        activeIndex = null;
+        activeFile = null;
+        unsynced = false;
+    }
+
+    private void applyRetention(long nowMillis) {
+        List<JournalSegment> segments;
+        try {
+            segments = JournalSegment.list(directory);
+        } catch (IOException e) {
+            log.warn("Could not list journal directory {}", directory, e);
+            return;
+        }
+
+        long totalBytes = 0;
+        long[] sizes = new long[segments.size()];
+        for (int i = 0; i < segments.size(); i++) {
+            try {
+                sizes[i] = Files.size(segments.get(i).file());
+            } catch (IOException e) {
+                sizes[i] = 0L;
+            }
+            totalBytes += sizes[i];
+        }
+
+        // The newest segment is the one being written, or the next to be read back on restart.
+        for (int i = 0; i < segments.size() - 1; i++) {
+            Path file = segments.get(i).file();
+            try {
+                boolean expired = nowMillis - Files.getLastModifiedTime(file).toMillis() > retentionMillis;
+                boolean overBudget = maxTotalBytes > 0 && totalBytes > maxTotalBytes;
+                if (!expired && !overBudget) {
+                    break;
+                }
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(SegmentIndex.sidecarFor(file));
+                totalBytes -= sizes[i];
+                log.info("Deleted journal segment {} ({})", file.getFileName(), expired ? "expired" : "over size budget");
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.invdb.monitor.journal;
+
+import com.invdb.monitor.event.FileEvent;
+import java.util.List;
+
+public record EventPage(List<FileEvent> events, Long nextCursor, long recordsRead, long elapsedMillis) {}
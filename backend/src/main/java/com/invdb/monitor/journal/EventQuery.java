@@ -0,0 +1,20 @@
+package com.invdb.monitor.journal;
+
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.risk.RiskLevel;
+import java.time.Instant;
+
+/**
+ * Search criteria; null fields match everything. {@code cursor} is the {@code nextCursor} of the
+ * previous page, or null for the newest events.
+ */
+public record EventQuery(
+        Instant from,
+        Instant to,
+        String pathPrefix,
+        FileEventType eventType,
+        RiskLevel riskLevel,
+        Boolean honeypot,
+        String note,
+        int limit,
+        Long cursor) {}
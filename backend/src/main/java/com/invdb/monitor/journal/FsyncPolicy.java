@@ -0,0 +1,7 @@
+package com.invdb.monitor.journal;
+
+public enum FsyncPolicy {
+    NONE,
+    INTERVAL,
+    EVERY_BATCH
+}
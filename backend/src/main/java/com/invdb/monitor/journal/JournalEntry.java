@@ -0,0 +1,5 @@
+package com.invdb.monitor.journal;
+
+import com.invdb.monitor.event.FileEvent;
+
+public record JournalEntry(long sequence, FileEvent event) {}
@@ -0,0 +1,243 @@
+package com.invdb.monitor.journal;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.FileEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Answers event searches from the journal, newest first. Segments whose time range falls outside
+ * the query are skipped on their sparse index alone, and of the rest only the blocks that can hold
+ * a match are read from disk. Indexes are kept in a bounded LRU cache.
+ */
+@Slf4j
+@Service
+public class JournalQueryService {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final int SCRATCH_SIZE = 64 * 1024;
+
+    private final EventJournal eventJournal;
+    private final Map<Path, SegmentIndex> indexes;
+
+    public JournalQueryService(EventJournal eventJournal, AppProperties appProperties) {
+        this.eventJournal = eventJournal;
+        int maxIndexedSegments = Math.max(1, appProperties.getJournal().getMaxIndexedSegments());
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, SegmentIndex> eldest) {
+                return size() > maxIndexedSegments;
+            }
+        };
+    }
+
+    public EventPage search(EventQuery query) throws IOException {
+        if (!eventJournal.isEnabled()) {
+            throw new IllegalStateException("Event journal is disabled");
+        }
+
+        long startedAt = System.nanoTime();
+        int limit = query.limit() <= 0 ? DEFAULT_LIMIT : Math.min(query.limit(), MAX_LIMIT);
+        long before = query.cursor() == null ? Long.MAX_VALUE : query.cursor();
+        long fromNanos = query.from() == null ? Long.MIN_VALUE : SegmentIndex.toNanos(query.from());
+        long toNanos = query.to() == null ? Long.MAX_VALUE : SegmentIndex.toNanos(query.to());
+
+        List<JournalSegment> segments = JournalSegment.list(eventJournal.directory());
+        evictDeleted(segments);
+
+        List<FileEvent> events = new ArrayList<>(Math.min(limit, 64));
+        long lastSequence = -1L;
+        long recordsRead = 0;
+        Long nextCursor = null;
+        ByteBuffer scratch = ByteBuffer.allocate(SCRATCH_SIZE);
+        CRC32C crc = new CRC32C();
+
+        search:
+        for (int s = segments.size() - 1; s >= 0; s--) {
+            JournalSegment segment = segments.get(s);
+            if (segment.firstSequence() >= before) {
+                continue;
+            }
+            try {
+                SegmentIndex index = indexFor(segment);
+                long[] ranges;
+                synchronized (index) {
+                    index.refresh();
+                    ranges = index.candidateBlocks(query, fromNanos, toNanos, before);
+                }
+                if (ranges.length == 0) {
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(segment.file(), StandardOpenOption.READ)) {
+                    for (int r = 0; r < ranges.length; r += 2) {
+                        List<JournalEntry> block = JournalSegment.readRange(channel, ranges[r], ranges[r + 1], scratch, crc);
+                        recordsRead += block.size();
+                        for (int i = block.size() - 1; i >= 0; i--) {
+                            JournalEntry entry = block.get(i);
+                            if (entry.sequence() >= before || !matches(entry.event(), query, fromNanos, toNanos)) {
+                                continue;
+                            }
+                            if (events.size() == limit) {
+                                nextCursor = lastSequence;
+                                break search;
+                            }
+                            events.add(entry.event());
+                            lastSequence = entry.sequence();
+                        }
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Deleted by retention since it was listed.
+                forget(segment);
+            }
+        }
+
+        return new EventPage(
+                events, nextCursor, recordsRead, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    public boolean isEnabled() {
+        return eventJournal.isEnabled();
+    }
+
+    /**
+     * Hands every event matching the query to the consumer, newest first, ignoring the limit and
+     * cursor. Events are decoded one block at a time and never collected, so exports of any size run
+     * in constant memory. A segment's index is only held while its candidate blocks are picked, so a
+     * slow consumer does not block searches. Returns the number of events visited.
+     */
+    public long scan(EventQuery query, Consumer<FileEvent> consumer) throws IOException {
+        if (!eventJournal.isEnabled()) {
+            throw new IllegalStateException("Event journal is disabled");
+        }
+
+        long fromNanos = query.from() == null ? Long.MIN_VALUE : SegmentIndex.toNanos(query.from());
+        long toNanos = query.to() == null ? Long.MAX_VALUE : SegmentIndex.toNanos(query.to());
+        List<JournalSegment> segments = JournalSegment.list(eventJournal.directory());
+        evictDeleted(segments);
+
+        long visited = 0;
+        ByteBuffer scratch = ByteBuffer.allocate(SCRATCH_SIZE);
+        CRC32C crc = new CRC32C();
+        for (int s = segments.size() - 1; s >= 0; s--) {
+            JournalSegment segment = segments.get(s);
+            try {
+                SegmentIndex index = indexFor(segment);
+                long[] ranges;
+                synchronized (index) {
+                    index.refresh();
+                    ranges = index.candidateBlocks(query, fromNanos, toNanos, Long.MAX_VALUE);
+                }
+                if (ranges.length == 0) {
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(segment.file(), StandardOpenOption.READ)) {
+                    for (int r = 0; r < ranges.length; r += 2) {
+                        List<JournalEntry> block = JournalSegment.readRange(channel, ranges[r], ranges[r + 1], scratch, crc);
+                        for (int i = block.size() - 1; i >= 0; i--) {
+                            FileEvent event = block.get(i).event();
+                            if (matches(event, query, fromNanos, toNanos)) {
+                                consumer.accept(event);
+                                visited++;
+                            }
+                        }
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Deleted by retention since it was listed.
+                forget(segment);
+            }
+        }
+        return visited;
+    }
+
+    private static boolean matches(FileEvent event, EventQuery query, long fromNanos, long toNanos) {
+        if (query.pathPrefix() != null && (event.getPath() == null || !event.getPath().startsWith(query.pathPrefix()))) {
+            return false;
+        }
+        if (query.eventType() != null && event.getEventType() != query.eventType()) {
+            return false;
+        }
+        if (query.riskLevel() != null && event.getRiskLevel() != query.riskLevel()) {
+            return false;
+        }
+        if (query.honeypot() != null && event.isHoneypotTriggered() != query.honeypot()) {
+            return false;
+        }
+        if (query.note() != null && (event.getNoteFlags() & BehaviorNote.maskOf(query.note())) == 0) {
+            return false;
+        }
+        if (query.from() != null || query.to() != null) {
+            if (event.getTimestamp() == null) {
+                return false;
+            }
+            long time = SegmentIndex.toNanos(event.getTimestamp());
+            return time >= fromNanos && time <= toNanos;
+        }
+        return true;
+    }
+
+    /**
+     * The cached index of a segment. A sealed segment's index is loaded from its sidecar, or built
+     * once by reading the segment and saved for next time; the segment being written is indexed in
+     * memory as it grows.
+     */
+    private SegmentIndex indexFor(JournalSegment segment) throws IOException {
+        synchronized (indexes) {
+            SegmentIndex index = indexes.get(segment.file());
+            if (index != null) {
+                return index;
+            }
+        }
+        SegmentIndex index = SegmentIndex.load(segment);
+        if (index == null) {
+            index = new SegmentIndex(segment);
+            if (!eventJournal.isActive(segment.file())) {
+                index.refresh();
+                index.seal(index.indexedEnd());
+                try {
+                    index.write();
+                } catch (IOException e) {
+                    log.debug("Could not save the index of journal segment {}", segment.file(), e);
+                }
+            }
+        }
+        synchronized (indexes) {
+            SegmentIndex existing = indexes.putIfAbsent(segment.file(), index);
+            return existing == null ? index : existing;
+        }
+    }
+
+    private void forget(JournalSegment segment) {
+        synchronized (indexes) {
+            indexes.remove(segment.file());
+        }
+    }
+
+    private void evictDeleted(List<JournalSegment> segments) {
+        Set<Path> live = new HashSet<>();
+        for (JournalSegment segment : segments) {
+            live.add(segment.file());
+        }
+        synchronized (indexes) {
+            indexes.keySet().retainAll(live);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.invdb.monitor.journal;
+
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.risk.RiskLevel;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary journal record, big-endian:
+ * <pre>
+ *   int32 body length, int32 CRC32C of the body
+ *   body: int64 sequence, int64 timestamp (epoch nanos), int8 event type, int8 flags,
+ *         int32 risk score, int8 risk level, string path, int32 note flags,
+ *         int32 event count, int64 first timestamp (epoch nanos), string previous path
+ * </pre>
+ * Strings are an int32 byte length (-1 for null) followed by UTF-8. Encoding writes straight into
+ * the caller's buffer, so an instance belongs to a single writer thread.
+ */
+final class JournalRecordCodec {
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    static final int MAX_BODY_SIZE = 1 << 20;
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final byte NONE = -1;
+    private static final int HONEYPOT_FLAG = 1;
+    private static final FileEventType[] EVENT_TYPES = FileEventType.values();
+    private static final RiskLevel[] RISK_LEVELS = RiskLevel.values();
+
+    private final CRC32C crc = new CRC32C();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8
+            .newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * Appends one record. Returns false, leaving the buffer position unchanged, when the record does
+     * not fit in the remaining space.
+     */
+    boolean encode(long sequence, FileEvent event, ByteBuffer buffer) {
+        int start = buffer.position();
+        try {
+            buffer.position(start + HEADER_SIZE);
+            buffer.putLong(sequence);
+            buffer.putLong(toNanos(event.getTimestamp()));
+            buffer.put(event.getEventType() == null ? NONE : (byte) event.getEventType().ordinal());
+            buffer.put((byte) (event.isHoneypotTriggered() ? HONEYPOT_FLAG : 0));
+            buffer.putInt(event.getRiskScore());
+            buffer.put(event.getRiskLevel() == null ? NONE : (byte) event.getRiskLevel().ordinal());
+            putString(buffer, event.getPath());
+            buffer.putInt(event.getNoteFlags());
+            buffer.putInt(event.getEventCount());
+            buffer.putLong(toNanos(event.getFirstTimestamp()));
+            putString(buffer, event.getPreviousPath());
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            buffer.position(start);
+            return false;
+        }
+
+        int end = buffer.position();
+        int bodyLength = end - start - HEADER_SIZE;
+        if (bodyLength > MAX_BODY_SIZE) {
+            buffer.position(start);
+            return false;
+        }
+
+        int limit = buffer.limit();
+        crc.reset();
+        buffer.position(start + HEADER_SIZE).limit(end);
+        crc.update(buffer);
+        buffer.limit(limit);
+        buffer.putInt(start, bodyLength);
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        return true;
+    }
+
+    /**
+     * Decodes the body the buffer is positioned on, or returns null when the checksum does not match.
+     */
+    static JournalEntry decode(ByteBuffer body, int expectedCrc, CRC32C crc) {
+        int start = body.position();
+        crc.reset();
+        crc.update(body);
+        if ((int) crc.getValue() != expectedCrc) {
+            return null;
+        }
+        body.position(start);
+
+        long sequence = body.getLong();
+        long timestamp = body.getLong();
+        byte eventType = body.get();
+        byte flags = body.get();
+        int riskScore = body.getInt();
+        byte riskLevel = body.get();
+        String path = getString(body);
+        int noteFlags = body.getInt();
+        int eventCount = body.getInt();
+        long firstTimestamp = body.getLong();
+        String previousPath = getString(body);
+
+        FileEvent event = FileEvent.builder()
+                .sequence(sequence)
+                .path(path)
+                .previousPath(previousPath)
+                .timestamp(toInstant(timestamp))
+                .firstTimestamp(toInstant(firstTimestamp))
+                .eventCount(eventCount)
+                .eventType(eventType == NONE ? null : EVENT_TYPES[eventType])
+                .isHoneypotTriggered((flags & HONEYPOT_FLAG) != 0)
+                .riskScore(riskScore)
+                .riskLevel(riskLevel == NONE ? null : RISK_LEVELS[riskLevel])
+                .noteFlags(noteFlags)
+                .build();
+        return new JournalEntry(sequence, event);
+    }
+
+    private void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        int lengthPosition = buffer.position();
+        buffer.position(lengthPosition + Integer.BYTES);
+        encoder.reset();
+        if (encoder.encode(CharBuffer.wrap(value), buffer, true).isOverflow()
+                || encoder.flush(buffer).isOverflow()) {
+            throw new BufferOverflowException();
+        }
+        buffer.putInt(lengthPosition, buffer.position() - lengthPosition - Integer.BYTES);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static Instant toInstant(long nanos) {
+        if (nanos == NO_TIMESTAMP) {
+            return null;
+        }
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    private static long toNanos(Instant instant) {
+        if (instant == null) {
+            return NO_TIMESTAMP;
+        }
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+}
@@ -0,0 +1,210 @@
+package com.invdb.monitor.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+/**
+ * One journal file, named after the sequence of its first record so a directory listing sorts
+ * segments in append order. A segment starts with a 16-byte header (magic, version, first sequence)
+ * followed by {@link JournalRecordCodec} records.
+ */
+final class JournalSegment {
+
+    static final int MAGIC = 0x45564A4C;
+    static final int VERSION = 1;
+    static final int MIN_VERSION = 1;
+    static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+
+    private static final String EXTENSION = ".journal";
+    private static final int READ_BUFFER_SIZE = 256 * 1024;
+
+    private final Path file;
+    private final long firstSequence;
+
+    private JournalSegment(Path file, long firstSequence) {
+        this.file = file;
+        this.firstSequence = firstSequence;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence) {
+        return new JournalSegment(fileFor(directory, firstSequence), firstSequence);
+    }
+
+    static Path fileFor(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%020d%s", firstSequence, EXTENSION));
+    }
+
+    static ByteBuffer header(long firstSequence) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(firstSequence);
+        return header.flip();
+    }
+
+    /**
+     * Lists the segments in a directory, oldest first.
+     */
+    static List<JournalSegment> list(Path directory) throws IOException {
+        List<JournalSegment> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.add(new JournalSegment(file, Long.parseLong(name.substring(0, name.length() - EXTENSION.length()))));
+                } catch (NumberFormatException e) {
+                    // Not a segment written by this journal.
+                }
+            }
+        }
+        segments.sort((left, right) -> Long.compare(left.firstSequence, right.firstSequence));
+        return segments;
+    }
+
+    long read(Predicate<JournalEntry> visitor) throws IOException {
+        return read(HEADER_SIZE, (offset, entry) -> visitor.test(entry));
+    }
+
+    /**
+     * Reads records in order, starting at a record boundary, until the visitor returns false or the
+     * first torn or corrupt record, and returns the file offset just past the last valid record.
+     */
+    long read(long fromOffset, RecordVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.read(header, 0L) < HEADER_SIZE
+                    || header.getInt(0) != MAGIC
+                    || header.getInt(4) < MIN_VERSION
+                    || header.getInt(4) > VERSION) {
+                return 0L;
+            }
+            long validEnd = Math.max(HEADER_SIZE, fromOffset);
+            channel.position(validEnd);
+
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            buffer.limit(0);
+            CRC32C crc = new CRC32C();
+            while (true) {
+                if (!fill(channel, buffer, JournalRecordCodec.HEADER_SIZE)) {
+                    return validEnd;
+                }
+                int bodyLength = buffer.getInt(buffer.position());
+                int expectedCrc = buffer.getInt(buffer.position() + Integer.BYTES);
+                if (bodyLength <= 0 || bodyLength > JournalRecordCodec.MAX_BODY_SIZE) {
+                    return validEnd;
+                }
+                if (buffer.capacity() < JournalRecordCodec.HEADER_SIZE + bodyLength) {
+                    buffer = ByteBuffer.allocate(JournalRecordCodec.HEADER_SIZE + bodyLength).put(buffer).flip();
+                }
+                if (!fill(channel, buffer, JournalRecordCodec.HEADER_SIZE + bodyLength)) {
+                    return validEnd;
+                }
+
+                int bodyStart = buffer.position() + JournalRecordCodec.HEADER_SIZE;
+                int limit = buffer.limit();
+                buffer.position(bodyStart).limit(bodyStart + bodyLength);
+                JournalEntry entry;
+                try {
+                    entry = JournalRecordCodec.decode(buffer, expectedCrc, crc);
+                } catch (RuntimeException e) {
+                    entry = null;
+                }
+                if (entry == null) {
+                    return validEnd;
+                }
+                buffer.limit(limit).position(bodyStart + bodyLength);
+                long recordOffset = validEnd;
+                validEnd += JournalRecordCodec.HEADER_SIZE + bodyLength;
+                if (!visitor.visit(recordOffset, entry)) {
+                    return validEnd;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the records between two record boundaries, such as a {@link SegmentIndex} block, in one
+     * sequential read, stopping at the first record that is not valid.
+     */
+    static List<JournalEntry> readRange(FileChannel channel, long start, long end, ByteBuffer scratch, CRC32C crc)
+            throws IOException {
+        int length = (int) (end - start);
+        ByteBuffer buffer = length <= scratch.capacity() ? scratch.clear().limit(length) : ByteBuffer.allocate(length);
+        int read = readFully(channel, buffer, start);
+        buffer.flip();
+        List<JournalEntry> entries = new ArrayList<>(SegmentIndex.BLOCK_SIZE);
+        while (buffer.remaining() >= JournalRecordCodec.HEADER_SIZE) {
+            int recordStart = buffer.position();
+            int bodyLength = buffer.getInt(recordStart);
+            int expectedCrc = buffer.getInt(recordStart + Integer.BYTES);
+            int bodyStart = recordStart + JournalRecordCodec.HEADER_SIZE;
+            if (bodyLength <= 0 || bodyLength > read - bodyStart) {
+                break;
+            }
+            buffer.position(bodyStart).limit(bodyStart + bodyLength);
+            JournalEntry entry;
+            try {
+                entry = JournalRecordCodec.decode(buffer, expectedCrc, crc);
+            } catch (RuntimeException e) {
+                entry = null;
+            }
+            if (entry == null) {
+                break;
+            }
+            entries.add(entry);
+            buffer.limit(read).position(bodyStart + bodyLength);
+        }
+        return entries;
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, int required) throws IOException {
+        if (buffer.remaining() >= required) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < required) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+
+        boolean visit(long offset, JournalEntry entry);
+    }
+}
@@ -0,0 +1,10 @@
+package com.invdb.monitor.journal;
+
+public record JournalStats(
+        long appended,
+        long written,
+        long dropped,
+        long fsyncs,
+        long bytesWritten,
+        int pending,
+        long lastWrittenSequence) {}
@@ -0,0 +1,296 @@
+package com.invdb.monitor.journal;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.event.FileEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Sparse index over one journal segment: one entry per block of {@link #BLOCK_SIZE} records holding
+ * the block's file offset, first sequence, min/max timestamp and the union of its event types, risk
+ * levels, notes and honeypot flags. Queries drop whole segments and blocks that cannot match and
+ * decode the remaining blocks sequentially.
+ * <p>
+ * A sealed segment's index is kept next to it in a sidecar file, so its time bounds are known
+ * without reading the segment. Only the active segment grows, and {@link #refresh()} indexes just
+ * the records appended since the previous call.
+ * <p>
+ * Sidecar layout, big-endian: int32 magic, int32 segment version, int64 indexed end, int32 record
+ * count, int32 block count, then per block int64 offset, int64 first sequence, int64 min and max
+ * timestamp (epoch nanos), int32 event type mask, int32 risk level mask, int32 note mask, int32
+ * flags; followed by the CRC32C of everything before it.
+ */
+final class SegmentIndex {
+
+    static final int BLOCK_SIZE = 256;
+
+    private static final int MAGIC = 0x45564A49;
+    private static final String SIDECAR_EXTENSION = ".idx";
+    private static final int FIXED_SIZE = 2 * Integer.BYTES + Long.BYTES + 2 * Integer.BYTES;
+    private static final int BLOCK_ENTRY_SIZE = 4 * Long.BYTES + 4 * Integer.BYTES;
+    private static final int HONEYPOT = 1;
+    private static final int NOT_HONEYPOT = 2;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final JournalSegment segment;
+    private boolean sealed;
+    private long indexedEnd = JournalSegment.HEADER_SIZE;
+    private int count;
+    private int blocks;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+
+    private long[] blockOffsets = new long[16];
+    private long[] blockSequences = new long[16];
+    private long[] blockMinTime = new long[16];
+    private long[] blockMaxTime = new long[16];
+    private int[] blockTypes = new int[16];
+    private int[] blockRisks = new int[16];
+    private int[] blockNotes = new int[16];
+    private int[] blockFlags = new int[16];
+
+    SegmentIndex(JournalSegment segment) {
+        this.segment = segment;
+    }
+
+    JournalSegment segment() {
+        return segment;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int blocks() {
+        return blocks;
+    }
+
+    long indexedEnd() {
+        return indexedEnd;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    /**
+     * Indexes the records appended since the previous call. A sealed index never changes.
+     */
+    void refresh() throws IOException {
+        if (sealed) {
+            return;
+        }
+        long end = segment.read(indexedEnd, (offset, entry) -> {
+            add(offset, entry);
+            return true;
+        });
+        if (end > 0) {
+            indexedEnd = end;
+        }
+    }
+
+    /**
+     * Whether any record in the segment can fall between the bounds, in epoch nanos.
+     */
+    boolean overlaps(long fromNanos, long toNanos) {
+        return count > 0 && maxTime >= fromNanos && minTime <= toNanos;
+    }
+
+    /**
+     * Returns the byte ranges of the blocks that can hold a match with a sequence below
+     * {@code before}, newest first, as {@code [start, end]} pairs. Path prefix, the exact time
+     * bounds and every indexed criterion still have to be checked on the decoded records.
+     */
+    long[] candidateBlocks(EventQuery query, long fromNanos, long toNanos, long before) {
+        if (!overlaps(fromNanos, toNanos)) {
+            return new long[0];
+        }
+        int typeMask = query.eventType() == null ? -1 : 1 << query.eventType().ordinal();
+        int riskMask = query.riskLevel() == null ? -1 : 1 << query.riskLevel().ordinal();
+        int noteMask = query.note() == null ? -1 : BehaviorNote.maskOf(query.note());
+        int flagMask = query.honeypot() == null ? -1 : query.honeypot() ? HONEYPOT : NOT_HONEYPOT;
+        if (noteMask == 0) {
+            return new long[0];
+        }
+
+        long[] ranges = new long[2 * blocks];
+        int found = 0;
+        for (int block = blocks - 1; block >= 0; block--) {
+            if (blockSequences[block] >= before
+                    || blockMaxTime[block] < fromNanos
+                    || blockMinTime[block] > toNanos
+                    || excludes(blockTypes[block], typeMask)
+                    || excludes(blockRisks[block], riskMask)
+                    || excludes(blockNotes[block], noteMask)
+                    || excludes(blockFlags[block], flagMask)) {
+                continue;
+            }
+            ranges[found++] = blockOffsets[block];
+            ranges[found++] = block + 1 < blocks ? blockOffsets[block + 1] : indexedEnd;
+        }
+        return found == ranges.length ? ranges : Arrays.copyOf(ranges, found);
+    }
+
+    void add(long offset, JournalEntry entry) {
+        int block = count / BLOCK_SIZE;
+        FileEvent event = entry.event();
+        long time = event.getTimestamp() == null ? NO_TIMESTAMP : toNanos(event.getTimestamp());
+        if (count % BLOCK_SIZE == 0) {
+            if (block == blockOffsets.length) {
+                grow(block * 2);
+            }
+            blockOffsets[block] = offset;
+            blockSequences[block] = entry.sequence();
+            blockMinTime[block] = time;
+            blockMaxTime[block] = time;
+            blockTypes[block] = 0;
+            blockRisks[block] = 0;
+            blockNotes[block] = 0;
+            blockFlags[block] = 0;
+            blocks = block + 1;
+        } else {
+            blockMinTime[block] = Math.min(blockMinTime[block], time);
+            blockMaxTime[block] = Math.max(blockMaxTime[block], time);
+        }
+        if (event.getEventType() != null) {
+            blockTypes[block] |= 1 << event.getEventType().ordinal();
+        }
+        if (event.getRiskLevel() != null) {
+            blockRisks[block] |= 1 << event.getRiskLevel().ordinal();
+        }
+        blockNotes[block] |= event.getNoteFlags();
+        blockFlags[block] |= event.isHoneypotTriggered() ? HONEYPOT : NOT_HONEYPOT;
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+        count++;
+    }
+
+    /**
+     * Marks the index complete for a segment that ends at {@code end} and will not be appended to
+     * again.
+     */
+    void seal(long end) {
+        indexedEnd = end;
+        sealed = true;
+    }
+
+    static Path sidecarFor(Path segmentFile) {
+        return segmentFile.resolveSibling(segmentFile.getFileName() + SIDECAR_EXTENSION);
+    }
+
+    /**
+     * Writes the index to the segment's sidecar, replacing any previous one atomically.
+     */
+    void write() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + blocks * BLOCK_ENTRY_SIZE + Integer.BYTES);
+        buffer.putInt(MAGIC).putInt(JournalSegment.VERSION).putLong(indexedEnd).putInt(count).putInt(blocks);
+        for (int block = 0; block < blocks; block++) {
+            buffer.putLong(blockOffsets[block])
+                    .putLong(blockSequences[block])
+                    .putLong(blockMinTime[block])
+                    .putLong(blockMaxTime[block])
+                    .putInt(blockTypes[block])
+                    .putInt(blockRisks[block])
+                    .putInt(blockNotes[block])
+                    .putInt(blockFlags[block]);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue()).flip();
+
+        Path sidecar = sidecarFor(segment.file());
+        Path temp = Files.createTempFile(sidecar.getParent(), sidecar.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, sidecar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads the segment's sidecar, or returns null when there is none or it does not describe the
+     * segment as it is on disk.
+     */
+    static SegmentIndex load(JournalSegment segment) throws IOException {
+        byte[] bytes;
+        long segmentSize;
+        try {
+            bytes = Files.readAllBytes(sidecarFor(segment.file()));
+            segmentSize = Files.size(segment.file());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (bytes.length < FIXED_SIZE + Integer.BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length - Integer.BYTES);
+        if (buffer.getInt(bytes.length - Integer.BYTES) != (int) crc.getValue() || buffer.getInt() != MAGIC) {
+            return null;
+        }
+        int version = buffer.getInt();
+        long indexedEnd = buffer.getLong();
+        int count = buffer.getInt();
+        int blocks = buffer.getInt();
+        if (version != JournalSegment.VERSION
+                || indexedEnd != segmentSize
+                || blocks < 0
+                || bytes.length != FIXED_SIZE + blocks * BLOCK_ENTRY_SIZE + Integer.BYTES) {
+            return null;
+        }
+
+        SegmentIndex index = new SegmentIndex(segment);
+        index.grow(Math.max(1, blocks));
+        for (int block = 0; block < blocks; block++) {
+            index.blockOffsets[block] = buffer.getLong();
+            index.blockSequences[block] = buffer.getLong();
+            index.blockMinTime[block] = buffer.getLong();
+            index.blockMaxTime[block] = buffer.getLong();
+            index.blockTypes[block] = buffer.getInt();
+            index.blockRisks[block] = buffer.getInt();
+            index.blockNotes[block] = buffer.getInt();
+            index.blockFlags[block] = buffer.getInt();
+            index.minTime = Math.min(index.minTime, index.blockMinTime[block]);
+            index.maxTime = Math.max(index.maxTime, index.blockMaxTime[block]);
+        }
+        index.count = count;
+        index.blocks = blocks;
+        index.seal(indexedEnd);
+        return index;
+    }
+
+    private void grow(int capacity) {
+        blockOffsets = Arrays.copyOf(blockOffsets, capacity);
+        blockSequences = Arrays.copyOf(blockSequences, capacity);
+        blockMinTime = Arrays.copyOf(blockMinTime, capacity);
+        blockMaxTime = Arrays.copyOf(blockMaxTime, capacity);
+        blockTypes = Arrays.copyOf(blockTypes, capacity);
+        blockRisks = Arrays.copyOf(blockRisks, capacity);
+        blockNotes = Arrays.copyOf(blockNotes, capacity);
+        blockFlags = Arrays.copyOf(blockFlags, capacity);
+    }
+
+    private static boolean excludes(int blockMask, int queryMask) {
+        return queryMask != -1 && (blockMask & queryMask) == 0;
+    }
+
+    static long toNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+}
@@ -0,0 +1,103 @@
+package com.invdb.monitor.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size log-linear histogram of nanosecond durations in the style of HdrHistogram. Values
+ * below {@code 2 * SUB_BUCKETS} are counted exactly; above that every power of two is split into
+ * {@link #SUB_BUCKETS} buckets, so a reported percentile is never more than about 3% above the
+ * true value. Recording is one array increment with no allocation or locking, and values past
+ * {@code 2^(MAX_MAGNITUDE + 1)} ns, about half an hour, land in the last bucket.
+ */
+final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MAX_MAGNITUDE = 40;
+    static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts.incrementAndGet(indexOf(value));
+        sum.add(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Lost a race with a larger or concurrent update; re-read.
+        }
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        sum.reset();
+        max.set(0L);
+    }
+
+    StageLatency snapshot(PipelineStage stage) {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        if (total == 0) {
+            return new StageLatency(stage, 0, 0, 0, 0, 0, 0, 0);
+        }
+        long maxValue = max.get();
+        return new StageLatency(
+                stage,
+                total,
+                micros(sum.sum() / (double) total),
+                micros(percentile(copy, total, 0.50, maxValue)),
+                micros(percentile(copy, total, 0.90, maxValue)),
+                micros(percentile(copy, total, 0.99, maxValue)),
+                micros(percentile(copy, total, 0.999, maxValue)),
+                micros(maxValue));
+    }
+
+    static int indexOf(long value) {
+        if (value < 2L * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        if (shift > MAX_MAGNITUDE - SUB_BUCKET_BITS) {
+            return BUCKETS - 1;
+        }
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * The largest value that falls into the bucket.
+     */
+    static long upperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index - (long) shift * SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long maxValue) {
+        long target = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(upperBound(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    private static double micros(double nanos) {
+        return Math.round(nanos / 10.0) / 100.0;
+    }
+}
@@ -0,0 +1,161 @@
+package com.invdb.monitor.metrics;
+
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.PublisherStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timing and throughput of the event pipeline. Each stage an event passes through records its
+ * duration in a {@link LatencyHistogram}; callers take a start time from {@link #now()} and hand
+ * it to {@link #record}, which returns the end time so consecutive stages can be chained with one
+ * clock read each. With {@code metrics.timingEnabled} off no clock is read at all and only the
+ * counters are kept.
+ * <p>
+ * Throughput is sampled once a second from the stored-event counter, giving the rate over the
+ * last second and over the last minute.
+ */
+@Component
+public class PipelineMetrics {
+
+    private static final long SAMPLE_INTERVAL_MS = 1000;
+    private static final int SAMPLES = 61;
+    private static final PipelineStage[] STAGES = PipelineStage.values();
+
+    private final boolean timingEnabled;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private final LongAdder received = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    private final long[] sampleCounts = new long[SAMPLES];
+    private final long[] sampleTimes = new long[SAMPLES];
+    private int samples;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pipeline-metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PipelineMetrics(AppProperties appProperties) {
+        this.timingEnabled = appProperties.getMetrics().isTimingEnabled();
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        sample();
+        scheduler.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL_MS, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * A start time for {@link #record}, or 0 when timing is disabled.
+     */
+    public long now() {
+        return timingEnabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records the time since {@code startNanos} against the stage and returns the current time, or
+     * does nothing and returns 0 when there is no start time.
+     */
+    public long record(PipelineStage stage, long startNanos) {
+        if (startNanos == 0L) {
+            return 0L;
+        }
+        long end = System.nanoTime();
+        histograms[stage.ordinal()].record(end - startNanos);
+        return end;
+    }
+
+    public void eventReceived() {
+        received.increment();
+    }
+
+    public void eventStored() {
+        stored.increment();
+    }
+
+    public void eventDeduplicated() {
+        deduplicated.increment();
+    }
+
+    public synchronized void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        received.reset();
+        stored.reset();
+        deduplicated.reset();
+        samples = 0;
+        sample();
+    }
+
+    /**
+     * Current figures, with the drop and coalesce counts taken from the publisher in front of the
+     * pipeline.
+     */
+    public PipelineStats getStats(PublisherStats publisherStats) {
+        List<StageLatency> stages = new ArrayList<>(STAGES.length);
+        for (PipelineStage stage : STAGES) {
+            stages.add(histograms[stage.ordinal()].snapshot(stage));
+        }
+        double lastSecond;
+        double lastMinute;
+        synchronized (this) {
+            lastSecond = rate(1);
+            lastMinute = rate(SAMPLES - 1);
+        }
+        return new PipelineStats(
+                timingEnabled,
+                received.sum(),
+                stored.sum(),
+                deduplicated.sum(),
+                publisherStats.dropped(),
+                publisherStats.coalesced(),
+                lastSecond,
+                lastMinute,
+                stages);
+    }
+
+    private synchronized void sample() {
+        int slot = samples % SAMPLES;
+        sampleCounts[slot] = stored.sum();
+        sampleTimes[slot] = System.nanoTime();
+        samples++;
+    }
+
+    /**
+     * Stored events per second between the latest sample and the one {@code span} samples before
+     * it, or the oldest one still held.
+     */
+    private double rate(int span) {
+        int back = Math.min(span, samples - 1);
+        if (back <= 0) {
+            return 0.0;
+        }
+        int latest = (samples - 1) % SAMPLES;
+        int earlier = (samples - 1 - back) % SAMPLES;
+        long elapsed = sampleTimes[latest] - sampleTimes[earlier];
+        if (elapsed <= 0) {
+            return 0.0;
+        }
+        double perSecond = (sampleCounts[latest] - sampleCounts[earlier]) * 1e9 / elapsed;
+        return Math.round(perSecond * 10.0) / 10.0;
+    }
+}
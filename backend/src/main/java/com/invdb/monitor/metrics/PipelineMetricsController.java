@@ -0,0 +1,35 @@
+package com.invdb.monitor.metrics;
+
+import com.invdb.monitor.event.EventPublisher;
+import java.util.Map;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/metrics")
+public class PipelineMetricsController {
+
+    private final PipelineMetrics pipelineMetrics;
+    private final EventPublisher eventPublisher;
+
+    public PipelineMetricsController(PipelineMetrics pipelineMetrics, EventPublisher eventPublisher) {
+        this.pipelineMetrics = pipelineMetrics;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @GetMapping("/pipeline")
+    public PipelineStats getPipelineStats() {
+        return pipelineMetrics.getStats(eventPublisher.getStats());
+    }
+
+    /**
+     * Starts the histograms and counters over, e.g. after a load test.
+     */
+    @DeleteMapping("/pipeline")
+    public Map<String, Boolean> resetPipelineStats() {
+        pipelineMetrics.reset();
+        return Map.of("reset", true);
+    }
+}
@@ -0,0 +1,12 @@
+package com.invdb.monitor.metrics;
+
+public enum PipelineStage {
+    WATCH_TO_ENQUEUE,
+    DIRECTORY_REGISTRATION,
+    HONEYPOT,
+    DEDUP,
+    BEHAVIOR,
+    RISK,
+    STORAGE,
+    END_TO_END
+}
@@ -0,0 +1,35 @@
+package com.invdb.monitor.metrics;
+
+import java.util.List;
+
+public record PipelineStats(
+        boolean timingEnabled,
+        long eventsReceived,
+        long eventsStored,
+        long eventsDeduplicated,
+        long eventsDropped,
+        long eventsCoalesced,
+        double eventsPerSecond,
+        double eventsPerSecondLastMinute,
+        List<StageLatency> stages) {
+
+    public StageLatency stage(PipelineStage stage) {
+        return stages.get(stage.ordinal());
+    }
+
+    /**
+     * The stage with the highest 99th percentile, leaving out the end-to-end total, or null before
+     * any event has been timed.
+     */
+    public PipelineStage slowestStage() {
+        StageLatency slowest = null;
+        for (StageLatency latency : stages) {
+            if (latency.stage() != PipelineStage.END_TO_END
+                    && latency.count() > 0
+                    && (slowest == null || latency.p99Micros() > slowest.p99Micros())) {
+                slowest = latency;
+            }
+        }
+        return slowest == null ? null : slowest.stage();
+    }
+}
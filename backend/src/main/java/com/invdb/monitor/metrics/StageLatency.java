@@ -0,0 +1,11 @@
+package com.invdb.monitor.metrics;
+
+public record StageLatency(
+        PipelineStage stage,
+        long count,
+        double meanMicros,
+        double p50Micros,
+        double p90Micros,
+        double p99Micros,
+        double p999Micros,
+        double maxMicros) {}
@@ -0,0 +1,19 @@
+package com.invdb.monitor.report;
+
+import com.invdb.monitor.event.FileEvent;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The events of an export, handed out one at a time so exporters never need the whole list.
+ */
+@FunctionalInterface
+public interface EventSource {
+
+    void forEach(Consumer<FileEvent> consumer) throws IOException;
+
+    static EventSource of(List<FileEvent> events) {
+        return events == null ? consumer -> {} : events::forEach;
+    }
+}
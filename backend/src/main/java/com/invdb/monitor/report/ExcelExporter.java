@@ -1,65 +1,118 @@
 package com.invdb.monitor.report;
 
 import com.invdb.monitor.event.FileEvent;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Component;
 
+/**
+ * Writes events through a streaming workbook that keeps only the last {@link #ROW_WINDOW} rows in
+ * memory and flushes the rest to a compressed temp file, so the export size is bounded by disk
+ * rather than heap. Column widths come from the header and the first {@link #SAMPLE_ROWS} rows of
+ * each sheet instead of measuring every cell. A sheet is full at Excel's row limit; further rows go
+ * to the next sheet.
+ */
 @Component
 public class ExcelExporter {
 
     private static final DateTimeFormatter TIME_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
 
-    public byte[] export(ReportSummary report) {
-        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Events");
+    private static final String[] COLUMNS = {
+        "Timestamp", "File", "Previous Path", "Event", "Count", "RiskScore", "RiskLevel", "Honeypot", "Notes"
+    };
+    private static final int ROW_WINDOW = 100;
+    private static final int SAMPLE_ROWS = 500;
+    private static final int MAX_COLUMN_CHARS = 80;
+    private static final int MAX_SHEET_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
 
-            Row header = sheet.createRow(0);
-            String[] columns = {"Timestamp", "File", "Event", "RiskScore", "RiskLevel", "Honeypot", "Notes"};
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = header.createCell(i);
-                cell.setCellValue(columns[i]);
-            }
+    public void export(EventSource events, OutputStream output) throws IOException {
+        // close() also deletes the workbook's temp files.
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW)) {
+            workbook.setCompressTempFiles(true);
+            SheetWriter writer = new SheetWriter(workbook);
+            events.forEach(writer::append);
+            writer.finishSheet();
+            workbook.write(output);
+            output.flush();
+        }
+    }
+
+    private static String formatInstant(Instant instant) {
+        return instant == null ? "-" : TIME_FORMATTER.format(instant);
+    }
+
+    private static String defaultString(String value) {
+        return value == null ? "-" : value;
+    }
+
+    private static final class SheetWriter {
+
+        private final SXSSFWorkbook workbook;
+        private final int[] widths = new int[COLUMNS.length];
+        private SXSSFSheet sheet;
+        private int rowIndex;
+
+        private SheetWriter(SXSSFWorkbook workbook) {
+            this.workbook = workbook;
+            startSheet();
+        }
 
-            List<FileEvent> events = report.getEvents() == null ? List.of() : report.getEvents();
-            int rowIndex = 1;
-            for (FileEvent event : events) {
-                Row row = sheet.createRow(rowIndex++);
-                row.createCell(0).setCellValue(formatInstant(event.getTimestamp()));
-                row.createCell(1).setCellValue(defaultString(event.getPath()));
-                row.createCell(2).setCellValue(event.getEventType() == null ? "-" : event.getEventType().name());
-                row.createCell(3).setCellValue(event.getRiskScore());
-                row.createCell(4)
-                        .setCellValue(event.getRiskLevel() == null ? "-" : event.getRiskLevel().name());
-                row.createCell(5).setCellValue(event.isHoneypotTriggered());
-                row.createCell(6)
-                        .setCellValue(event.getNotes() == null ? "" : String.join(", ", event.getNotes()));
+        private void append(FileEvent event) {
+            if (rowIndex == MAX_SHEET_ROWS) {
+                finishSheet();
+                startSheet();
             }
+            Row row = sheet.createRow(rowIndex++);
+            text(row, 0, formatInstant(event.getTimestamp()));
+            text(row, 1, defaultString(event.getPath()));
+            text(row, 2, event.getPreviousPath() == null ? "" : event.getPreviousPath());
+            text(row, 3, event.getEventType() == null ? "-" : event.getEventType().name());
+            row.createCell(4).setCellValue(event.getEventCount());
+            row.createCell(5).setCellValue(event.getRiskScore());
+            text(row, 6, event.getRiskLevel() == null ? "-" : event.getRiskLevel().name());
+            row.createCell(7).setCellValue(event.isHoneypotTriggered());
+            text(row, 8, String.join(", ", event.getNotes()));
+            if (rowIndex == SAMPLE_ROWS + 1) {
+                applyWidths();
+            }
+        }
 
-            for (int i = 0; i < columns.length; i++) {
-                sheet.autoSizeColumn(i);
+        private void text(Row row, int column, String value) {
+            row.createCell(column).setCellValue(value);
+            if (rowIndex <= SAMPLE_ROWS + 1) {
+                widths[column] = Math.max(widths[column], value.length());
             }
+        }
 
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed to export Excel report", e);
+        private void startSheet() {
+            int number = workbook.getNumberOfSheets();
+            sheet = workbook.createSheet(number == 0 ? "Events" : "Events " + (number + 1));
+            rowIndex = 0;
+            Row header = sheet.createRow(rowIndex++);
+            for (int i = 0; i < COLUMNS.length; i++) {
+                widths[i] = 0;
+                text(header, i, COLUMNS[i]);
+            }
         }
-    }
 
-    private String formatInstant(java.time.Instant instant) {
-        return instant == null ? "-" : TIME_FORMATTER.format(instant);
-    }
+        private void finishSheet() {
+            if (rowIndex <= SAMPLE_ROWS + 1) {
+                applyWidths();
+            }
+        }
 
-    private String defaultString(String value) {
-        return value == null ? "-" : value;
+        private void applyWidths() {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                sheet.setColumnWidth(i, (Math.min(widths[i], MAX_COLUMN_CHARS) + 2) * 256);
+            }
+        }
     }
 }
@@ -1,117 +1,386 @@
 package com.invdb.monitor.report;
 
+import com.invdb.monitor.behavior.BehaviorNote;
 import com.invdb.monitor.event.FileEvent;
-import java.io.ByteArrayOutputStream;
+import com.invdb.monitor.risk.RiskLevel;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 import org.springframework.stereotype.Component;
 
+/**
+ * Renders a report of events as a paginated PDF in a single pass over the event source. Each
+ * page's content stream is spooled to a temp file as the page is finished, so the row text is not
+ * held on the heap, but the document is only serialized by {@link PDDocument#save} once every page
+ * exists: until then the page tree and each page's dictionaries stay in memory, so heap use still
+ * grows with the page count, only by a small constant per page rather than per row. Summary counts
+ * and the per-hour risk histogram are collected during the pass and their pages are inserted in
+ * front of the table afterwards. Each row is laid out once: cell text is clipped to its column with
+ * a precomputed glyph width table and drawn within one text object per page.
+ */
 @Component
 public class PdfExporter {
 
     private static final DateTimeFormatter TIME_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter HOUR_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00").withZone(ZoneOffset.UTC);
 
     private static final PDType1Font FONT_BOLD = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
     private static final PDType1Font FONT_REGULAR = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
 
-    public byte[] export(ReportSummary report) {
-        ReportSummary safeReport = report == null ? new ReportSummary() : report;
-        List<FileEvent> events = safeReport.getEvents() == null ? List.of() : safeReport.getEvents();
-        Set<String> patterns = safeReport.getDetectedPatterns() == null ? Set.of() : safeReport.getDetectedPatterns();
+    private static final PDRectangle PAGE_SIZE = PDRectangle.LETTER;
+    private static final float MARGIN = 40;
+    private static final float TOP = PAGE_SIZE.getHeight() - MARGIN;
+    private static final float TABLE_FONT_SIZE = 7;
+    private static final float ROW_HEIGHT = 10;
+    private static final long HOUR_MILLIS = 3_600_000L;
 
-        try (PDDocument document = new PDDocument(); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            PDPage page = new PDPage();
-            document.addPage(page);
+    private static final String[] COLUMNS = {"Timestamp", "File", "Event", "Count", "Score", "Level", "Honeypot", "Notes"};
+    private static final float[] COLUMN_WIDTHS = {72, 206, 46, 28, 26, 38, 36, 80};
+    private static final float ROW_OFFSET = rowOffset();
+    private static final float[] CHAR_WIDTHS = charWidths(FONT_REGULAR);
+    private static final String ELLIPSIS = "...";
+
+    /**
+     * Writes the report for the given events; only the directory and times are taken from
+     * {@code report}, the counts are computed from the events themselves.
+     */
+    public void export(ReportSummary report, EventSource events, OutputStream output) throws IOException {
+        try (PDDocument document = new PDDocument(IOUtils.createTempFileOnlyStreamCache())) {
+            ReportRenderer renderer = new ReportRenderer(document);
+            events.forEach(renderer::appendRow);
+            renderer.finishTable();
+            renderer.writeFrontPages(report);
+            document.save(output);
+            output.flush();
+        }
+    }
+
+    private static String formatInstant(Instant instant) {
+        return instant == null ? "-" : TIME_FORMATTER.format(instant);
+    }
+
+    private static String defaultString(String value) {
+        return value == null ? "-" : value;
+    }
 
-            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
-                float y = 750;
-                y = writeHeading(content, y, "File Behavior Monitoring Report");
-                y = writeSectionTitle(content, y - 10, "Summary");
-                y = writeLine(content, y, "Directory: " + defaultString(safeReport.getDirectory()));
-                y = writeLine(content, y, "Generated At: " + formatInstant(safeReport.getGeneratedAt()));
-                y = writeLine(content, y, "Monitoring Started At: " + formatInstant(safeReport.getMonitoringStartedAt()));
-                y = writeLine(content, y, "Total Events: " + safeReport.getTotalEvents());
-                y = writeLine(content, y, "Honeypot Triggers: " + safeReport.getHoneypotTriggers());
-                y = writeLine(content, y, "Detected Patterns: " + String.join(", ", patterns));
-
-                y = writeSectionTitle(content, y - 8, "Risk Distribution");
-                y = writeLine(content, y, "LOW: " + safeReport.getLowRiskCount());
-                y = writeLine(content, y, "MEDIUM: " + safeReport.getMediumRiskCount());
-                y = writeLine(content, y, "HIGH: " + safeReport.getHighRiskCount());
-
-                y = writeSectionTitle(content, y - 8, "Event Table (Top 100)");
-                y = writeLine(content, y, "Timestamp | File | Event | RiskScore | RiskLevel | Honeypot | Notes");
-                for (int i = 0; i < Math.min(100, events.size()) && y > 60; i++) {
-                    FileEvent event = events.get(i);
-                    String line = String.format(
-                            "%s | %s | %s | %d | %s | %s | %s",
-                            formatInstant(event.getTimestamp()),
-                            abbreviate(defaultString(event.getPath()), 35),
-                            event.getEventType(),
-                            event.getRiskScore(),
-                            event.getRiskLevel(),
-                            event.isHoneypotTriggered(),
-                            abbreviate(String.join(",", event.getNotes() == null ? List.of() : event.getNotes()), 30));
-                    y = writeLine(content, y, line);
+    /**
+     * Clips text to a width, keeping the end when {@code keepEnd} is set so file names survive
+     * long directory prefixes. Characters the standard fonts cannot encode become '?'.
+     */
+    private static String fit(String text, float maxWidth, float fontSize, boolean keepEnd) {
+        String safe = encodable(text);
+        float maxUnits = maxWidth / fontSize;
+        float width = 0;
+        for (int i = 0; i < safe.length(); i++) {
+            width += CHAR_WIDTHS[safe.charAt(i)];
+        }
+        if (width <= maxUnits) {
+            return safe;
+        }
+
+        float budget = maxUnits - 3 * CHAR_WIDTHS['.'];
+        int length = safe.length();
+        int kept = 0;
+        for (float used = 0; kept < length; kept++) {
+            char c = safe.charAt(keepEnd ? length - 1 - kept : kept);
+            if (used + CHAR_WIDTHS[c] > budget) {
+                break;
+            }
+            used += CHAR_WIDTHS[c];
+        }
+        return keepEnd
+                ? ELLIPSIS + safe.substring(length - kept)
+                : safe.substring(0, kept) + ELLIPSIS;
+    }
+
+    private static String encodable(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!isEncodable(text.charAt(i))) {
+                StringBuilder builder = new StringBuilder(text);
+                for (int j = i; j < builder.length(); j++) {
+                    if (!isEncodable(builder.charAt(j))) {
+                        builder.setCharAt(j, '?');
+                    }
                 }
+                return builder.toString();
             }
+        }
+        return text;
+    }
 
-            document.save(outputStream);
-            return outputStream.toByteArray();
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed to export PDF report", e);
+    private static boolean isEncodable(char c) {
+        return (c >= 0x20 && c < 0x7F) || (c >= 0xA0 && c <= 0xFF);
+    }
+
+    /**
+     * Glyph advances in points at a font size of 1, indexed by character.
+     */
+    private static float[] charWidths(PDType1Font font) {
+        float[] widths = new float[256];
+        for (char c = 0; c < widths.length; c++) {
+            try {
+                widths[c] = isEncodable(c) ? font.getStringWidth(String.valueOf(c)) / 1000 : 0;
+            } catch (IOException | IllegalArgumentException e) {
+                widths[c] = 0.5f;
+            }
         }
+        return widths;
     }
 
-    private float writeHeading(PDPageContentStream content, float y, String text) throws IOException {
+    private static float rowOffset() {
+        float offset = 0;
+        for (int i = 0; i < COLUMN_WIDTHS.length - 1; i++) {
+            offset += COLUMN_WIDTHS[i];
+        }
+        return offset;
+    }
+
+    private static float writeHeading(PDPageContentStream content, float y, String text) throws IOException {
         content.beginText();
         content.setFont(FONT_BOLD, 16);
-        content.newLineAtOffset(40, y);
+        content.newLineAtOffset(MARGIN, y);
         content.showText(text);
         content.endText();
         return y - 24;
     }
 
-    private float writeSectionTitle(PDPageContentStream content, float y, String text) throws IOException {
+    private static float writeSectionTitle(PDPageContentStream content, float y, String text) throws IOException {
         content.beginText();
         content.setFont(FONT_BOLD, 12);
-        content.newLineAtOffset(40, y);
+        content.newLineAtOffset(MARGIN, y);
         content.showText(text);
         content.endText();
         return y - 18;
     }
 
-    private float writeLine(PDPageContentStream content, float y, String text) throws IOException {
+    private static float writeLine(PDPageContentStream content, float y, String text) throws IOException {
         content.beginText();
         content.setFont(FONT_REGULAR, 9);
-        content.newLineAtOffset(40, y);
-        content.showText(abbreviate(defaultString(text), 150));
+        content.newLineAtOffset(MARGIN, y);
+        content.showText(fit(defaultString(text), PAGE_SIZE.getWidth() - 2 * MARGIN, 9, false));
         content.endText();
         return y - 13;
     }
 
-    private String formatInstant(Instant instant) {
-        return instant == null ? "-" : TIME_FORMATTER.format(instant);
-    }
+    private static final class ReportRenderer {
 
-    private String defaultString(String value) {
-        return value == null ? "-" : value;
-    }
+        private final PDDocument document;
+        private PDPage firstTablePage;
+        private PDPageContentStream content;
+        private float y;
+        private int rowsOnPage;
+        private int rowsPerPage;
+
+        private long totalEvents;
+        private long honeypotTriggers;
+        private final long[] byRiskLevel = new long[RiskLevel.values().length];
+        private int detectedPatterns;
+        private final Map<Long, long[]> byHour = new TreeMap<>();
+
+        private final String[] cells = new String[COLUMNS.length];
+
+        private ReportRenderer(PDDocument document) {
+            this.document = document;
+        }
+
+        private void appendRow(FileEvent event) {
+            count(event);
+            layout(event);
+            try {
+                if (content == null || rowsOnPage == rowsPerPage) {
+                    startTablePage();
+                }
+                drawRow();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to render PDF report", e);
+            }
+        }
 
-    private String abbreviate(String value, int maxLength) {
-        if (value == null || value.length() <= maxLength) {
-            return value;
+        private void count(FileEvent event) {
+            totalEvents++;
+            if (event.isHoneypotTriggered()) {
+                honeypotTriggers++;
+            }
+            detectedPatterns |= event.getNoteFlags();
+            if (event.getRiskLevel() == null) {
+                return;
+            }
+            byRiskLevel[event.getRiskLevel().ordinal()]++;
+            if (event.getTimestamp() != null) {
+                long hour = Math.floorDiv(event.getTimestamp().toEpochMilli(), HOUR_MILLIS);
+                byHour.computeIfAbsent(hour, key -> new long[RiskLevel.values().length])[event.getRiskLevel().ordinal()]++;
+            }
+        }
+
+        private void layout(FileEvent event) {
+            String file = event.getPreviousPath() == null
+                    ? defaultString(event.getPath())
+                    : event.getPreviousPath() + " -> " + defaultString(event.getPath());
+            cells[0] = formatInstant(event.getTimestamp());
+            cells[1] = fit(file, COLUMN_WIDTHS[1] - 4, TABLE_FONT_SIZE, true);
+            cells[2] = event.getEventType() == null ? "-" : event.getEventType().name();
+            cells[3] = Integer.toString(event.getEventCount());
+            cells[4] = Integer.toString(event.getRiskScore());
+            cells[5] = event.getRiskLevel() == null ? "-" : event.getRiskLevel().name();
+            cells[6] = event.isHoneypotTriggered() ? "yes" : "no";
+            cells[7] = fit(String.join(",", event.getNotes()), COLUMN_WIDTHS[7] - 4, TABLE_FONT_SIZE, false);
+        }
+
+        private void startTablePage() throws IOException {
+            closePage();
+            PDPage page = new PDPage(PAGE_SIZE);
+            document.addPage(page);
+            if (firstTablePage == null) {
+                firstTablePage = page;
+            }
+            content = new PDPageContentStream(document, page);
+            y = TOP;
+            if (page == firstTablePage) {
+                y = writeHeading(content, y, "Events");
+            }
+
+            content.beginText();
+            content.setFont(FONT_BOLD, TABLE_FONT_SIZE);
+            content.newLineAtOffset(MARGIN, y);
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    content.newLineAtOffset(COLUMN_WIDTHS[i - 1], 0);
+                }
+                content.showText(COLUMNS[i]);
+            }
+            content.newLineAtOffset(-ROW_OFFSET, -ROW_HEIGHT);
+            content.setFont(FONT_REGULAR, TABLE_FONT_SIZE);
+            rowsOnPage = 0;
+            rowsPerPage = (int) ((y - ROW_HEIGHT - MARGIN) / ROW_HEIGHT);
+        }
+
+        private void drawRow() throws IOException {
+            for (int i = 0; i < cells.length; i++) {
+                if (i > 0) {
+                    content.newLineAtOffset(COLUMN_WIDTHS[i - 1], 0);
+                }
+                content.showText(cells[i]);
+            }
+            content.newLineAtOffset(-ROW_OFFSET, -ROW_HEIGHT);
+            rowsOnPage++;
+        }
+
+        private void finishTable() throws IOException {
+            if (content == null) {
+                startTablePage();
+                content.showText("No events.");
+            }
+            closePage();
+        }
+
+        private void closePage() throws IOException {
+            if (content != null) {
+                content.endText();
+                content.close();
+                content = null;
+            }
+        }
+
+        /**
+         * Adds the summary and the histogram pages in front of the event table.
+         */
+        private void writeFrontPages(ReportSummary report) throws IOException {
+            List<PDPage> pages = new ArrayList<>();
+            PDPage page = new PDPage(PAGE_SIZE);
+            pages.add(page);
+            try (PDPageContentStream summary = new PDPageContentStream(document, page)) {
+                float top = writeHeading(summary, TOP, "File Behavior Monitoring Report");
+                top = writeSectionTitle(summary, top - 10, "Summary");
+                top = writeLine(summary, top, "Directory: " + defaultString(report.getDirectory()));
+                top = writeLine(summary, top, "Generated At: " + formatInstant(report.getGeneratedAt()));
+                top = writeLine(summary, top, "Monitoring Started At: " + formatInstant(report.getMonitoringStartedAt()));
+                top = writeLine(summary, top, "Total Events: " + totalEvents);
+                top = writeLine(summary, top, "Honeypot Triggers: " + honeypotTriggers);
+                top = writeLine(summary, top, "Detected Patterns: " + String.join(", ", BehaviorNote.names(detectedPatterns)));
+
+                top = writeSectionTitle(summary, top - 8, "Risk Distribution");
+                for (RiskLevel level : RiskLevel.values()) {
+                    top = writeLine(summary, top, level.name() + ": " + byRiskLevel[level.ordinal()]);
+                }
+                top = writeSectionTitle(summary, top - 8, "Risk by Hour (UTC)");
+                writeHistogram(summary, top, pages);
+            }
+            for (PDPage front : pages) {
+                document.getPages().insertBefore(front, firstTablePage);
+            }
+        }
+
+        /**
+         * Draws one stacked LOW/MEDIUM/HIGH bar per hour, continuing on new pages as needed.
+         */
+        private void writeHistogram(PDPageContentStream first, float top, List<PDPage> pages) throws IOException {
+            if (byHour.isEmpty()) {
+                writeLine(first, top, "No timestamped events.");
+                return;
+            }
+            long max = 1;
+            for (long[] counts : byHour.values()) {
+                max = Math.max(max, counts[0] + counts[1] + counts[2]);
+            }
+            float labelWidth = 80;
+            float countWidth = 40;
+            float barWidth = PAGE_SIZE.getWidth() - 2 * MARGIN - labelWidth - countWidth;
+            float[][] colors = {{0.53f, 0.8f, 0.53f}, {0.98f, 0.75f, 0.3f}, {0.9f, 0.3f, 0.3f}};
+
+            PDPageContentStream content = first;
+            float y = top;
+            try {
+                for (Map.Entry<Long, long[]> hour : byHour.entrySet()) {
+                    if (y - ROW_HEIGHT < MARGIN) {
+                        if (content != first) {
+                            content.close();
+                        }
+                        PDPage page = new PDPage(PAGE_SIZE);
+                        pages.add(page);
+                        content = new PDPageContentStream(document, page);
+                        y = writeSectionTitle(content, TOP, "Risk by Hour (UTC), continued");
+                    }
+                    long[] counts = hour.getValue();
+                    float x = MARGIN + labelWidth;
+                    for (int level = 0; level < counts.length; level++) {
+                        float width = barWidth * counts[level] / max;
+                        if (width > 0) {
+                            content.setNonStrokingColor(colors[level][0], colors[level][1], colors[level][2]);
+                            content.addRect(x, y - 1, width, ROW_HEIGHT - 3);
+                            content.fill();
+                            x += width;
+                        }
+                    }
+                    content.setNonStrokingColor(0f, 0f, 0f);
+                    content.beginText();
+                    content.setFont(FONT_REGULAR, TABLE_FONT_SIZE);
+                    content.newLineAtOffset(MARGIN, y);
+                    content.showText(HOUR_FORMATTER.format(Instant.ofEpochMilli(hour.getKey() * HOUR_MILLIS)));
+                    content.newLineAtOffset(labelWidth + barWidth + 4, 0);
+                    content.showText(Long.toString(counts[0] + counts[1] + counts[2]));
+                    content.endText();
+                    y -= ROW_HEIGHT;
+                }
+            } finally {
+                if (content != first) {
+                    content.close();
+                }
+            }
         }
-        return value.substring(0, maxLength - 3) + "...";
     }
 }
@@ -1,18 +1,30 @@
 package com.invdb.monitor.report;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.Map;
+import java.util.Optional;
 import org.springframework.http.ContentDisposition;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/report")
@@ -23,22 +35,42 @@ public class ReportController {
     private final ReportService reportService;
     private final PdfExporter pdfExporter;
     private final ExcelExporter excelExporter;
+    private final ReportJobService reportJobService;
 
-    public ReportController(ReportService reportService, PdfExporter pdfExporter, ExcelExporter excelExporter) {
+    public ReportController(
+            ReportService reportService,
+            PdfExporter pdfExporter,
+            ExcelExporter excelExporter,
+            ReportJobService reportJobService) {
         this.reportService = reportService;
         this.pdfExporter = pdfExporter;
         this.excelExporter = excelExporter;
+        this.reportJobService = reportJobService;
     }
 
     @GetMapping
-    public ReportSummary getReport() {
-        return reportService.generateReport();
+    public ReportSummary getReport(@RequestParam(defaultValue = "true") boolean includeEvents) {
+        return reportService.generateReport(includeEvents);
     }
 
+    /**
+     * Streams a paginated report over the stored events, or over the journaled events between
+     * {@code from} and {@code to} when either is given.
+     */
     @GetMapping("/pdf")
-    public ResponseEntity<byte[]> downloadPdf() {
-        ReportSummary report = reportService.generateReport();
-        byte[] payload = pdfExporter.export(report);
+    public ResponseEntity<?> downloadPdf(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        EventSource events;
+        try {
+            events = from == null && to == null
+                    ? reportService.storedEvents()
+                    : reportService.historyEvents(from, to);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+        ReportSummary report = reportService.generateReport(false);
+        StreamingResponseBody payload = output -> pdfExporter.export(report, events, output);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
@@ -48,34 +80,121 @@ public class ReportController {
         return ResponseEntity.ok().headers(headers).body(payload);
     }
 
+    /**
+     * Streams the stored events, or the journaled events between {@code from} and {@code to} when
+     * either is given, straight into the response.
+     */
     @GetMapping("/excel")
-    public ResponseEntity<byte[]> downloadExcel() {
-        ReportSummary report = reportService.generateReport();
-        byte[] payload = excelExporter.export(report);
+    public ResponseEntity<?> downloadExcel(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        EventSource events;
+        try {
+            events = from == null && to == null
+                    ? reportService.storedEvents()
+                    : reportService.historyEvents(from, to);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+        StreamingResponseBody payload = output -> excelExporter.export(events, output);
 
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(
-                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        headers.setContentType(MediaType.parseMediaType(ReportFormat.EXCEL.mediaType()));
         headers.setContentDisposition(
                 ContentDisposition.attachment().filename("file-behavior-monitoring-report.xlsx").build());
 
         return ResponseEntity.ok().headers(headers).body(payload);
     }
 
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(@RequestBody ReportJobRequest request) {
+        if (request == null || request.format() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "'format' is required"));
+        }
+        try {
+            ReportJobView job = reportJobService.submit(request.format(), request.from(), request.to());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getJob(@PathVariable String id) {
+        return reportJobService.find(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown report job")));
+    }
+
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<?> downloadJob(@PathVariable String id) {
+        Optional<ReportJobView> job = reportJobService.find(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown report job"));
+        }
+        if (job.get().state() != ReportJobState.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job.get());
+        }
+        Optional<Path> file = reportJobService.resultFile(id);
+        if (file.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.GONE).body(Map.of("error", "Report is no longer cached"));
+        }
+
+        ReportFormat format = job.get().format();
+        StreamingResponseBody payload = output -> {
+            try (InputStream input = Files.newInputStream(file.get())) {
+                input.transferTo(output);
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(format.mediaType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("file-behavior-monitoring-report." + format.extension())
+                .build());
+
+        return ResponseEntity.ok().headers(headers).body(payload);
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<?> cancelJob(@PathVariable String id) {
+        return reportJobService.cancel(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown report job")));
+    }
+
     @PostMapping("/snapshot")
     public ResponseEntity<?> createSnapshot() {
-        ReportSummary report = reportService.generateReport();
-        byte[] payload = pdfExporter.export(report);
+        ReportSummary report = reportService.generateReport(false);
+        EventSource events = reportService.storedEvents();
 
+        Path reportPath = null;
         try {
             Files.createDirectories(REPORTS_DIRECTORY);
             String filename = "report_" + Instant.now().toEpochMilli() + ".pdf";
-            Path reportPath = REPORTS_DIRECTORY.resolve(filename);
-            Files.write(reportPath, payload);
+            reportPath = REPORTS_DIRECTORY.resolve(filename);
+            try (OutputStream output = new BufferedOutputStream(
+                    Files.newOutputStream(reportPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))) {
+                pdfExporter.export(report, events, output);
+            }
             return ResponseEntity.ok(Map.of("path", reportPath.toString()));
         } catch (IOException e) {
+            deletePartial(reportPath);
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", "Failed to save report snapshot", "details", e.getMessage()));
         }
     }
+
+    private static void deletePartial(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // The original failure is what gets reported.
+        }
+    }
+
+    public record ReportJobRequest(ReportFormat format, Instant from, Instant to) {}
 }
@@ -0,0 +1,75 @@
+package com.invdb.monitor.report;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.Future;
+
+/**
+ * One submitted report. State only moves forward, from QUEUED through RUNNING to one of the
+ * finished states, and the first finishing transition wins, so a job cancelled while it is writing
+ * stays cancelled.
+ */
+final class ReportJob {
+
+    final String id;
+    final ReportFormat format;
+    final Instant from;
+    final Instant to;
+    final String cacheKey;
+    final Path file;
+    final Instant createdAt = Instant.now();
+
+    volatile Future<?> future;
+    volatile long lastAccessedAt = System.currentTimeMillis();
+
+    private ReportJobState state = ReportJobState.QUEUED;
+    private Instant finishedAt;
+    private boolean cached;
+    private long sizeBytes;
+    private String error;
+
+    ReportJob(String id, ReportFormat format, Instant from, Instant to, String cacheKey, Path file) {
+        this.id = id;
+        this.format = format;
+        this.from = from;
+        this.to = to;
+        this.cacheKey = cacheKey;
+        this.file = file;
+    }
+
+    void touch() {
+        lastAccessedAt = System.currentTimeMillis();
+    }
+
+    synchronized ReportJobState state() {
+        return state;
+    }
+
+    synchronized long finishedAtMillis() {
+        return finishedAt == null ? Long.MAX_VALUE : finishedAt.toEpochMilli();
+    }
+
+    synchronized boolean start() {
+        if (state != ReportJobState.QUEUED) {
+            return false;
+        }
+        state = ReportJobState.RUNNING;
+        return true;
+    }
+
+    synchronized boolean finish(ReportJobState next, long size, boolean fromCache, String message) {
+        if (state.isFinished()) {
+            return false;
+        }
+        state = next;
+        finishedAt = Instant.now();
+        sizeBytes = size;
+        cached = fromCache;
+        error = message;
+        return true;
+    }
+
+    synchronized ReportJobView view() {
+        return new ReportJobView(id, format, state, from, to, createdAt, finishedAt, cached, sizeBytes, error);
+    }
+}
@@ -0,0 +1,354 @@
+package com.invdb.monitor.report;
+
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.EventPipelineService;
+import com.invdb.monitor.watcher.FileWatcherService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Generates PDF and Excel reports in the background so large exports do not hold a request open.
+ * Jobs run on a small fixed pool with a bounded queue; submissions beyond it are refused.
+ * <p>
+ * Finished reports are kept in a cache directory under a key derived from the format, the time
+ * range and the pipeline's event version, so asking again for a report over the same events is
+ * answered from disk, and a second request for a report that is still being generated joins the
+ * running job. The cache holds at most {@code maxCachedReports} files, least recently used first
+ * out, and is emptied on startup since event versions restart with the process.
+ * <p>
+ * A job nobody has polled for {@code abandonAfterSeconds} is cancelled, and finished jobs are
+ * forgotten after {@code jobRetentionMinutes}.
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long SWEEP_INTERVAL_MS = 5_000L;
+
+    private final ReportService reportService;
+    private final PdfExporter pdfExporter;
+    private final ExcelExporter excelExporter;
+    private final EventPipelineService eventPipelineService;
+    private final FileWatcherService fileWatcherService;
+    private final Path cacheDirectory;
+    private final int maxCachedReports;
+    private final long abandonAfterMs;
+    private final long jobRetentionMs;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ReportJob> running = new ConcurrentHashMap<>();
+    private final AtomicInteger workerIds = new AtomicInteger();
+    private final ThreadPoolExecutor workers;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "report-job-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReportJobService(
+            ReportService reportService,
+            PdfExporter pdfExporter,
+            ExcelExporter excelExporter,
+            EventPipelineService eventPipelineService,
+            FileWatcherService fileWatcherService,
+            AppProperties appProperties) {
+        AppProperties.ReportProperties properties = appProperties.getReports();
+        this.reportService = reportService;
+        this.pdfExporter = pdfExporter;
+        this.excelExporter = excelExporter;
+        this.eventPipelineService = eventPipelineService;
+        this.fileWatcherService = fileWatcherService;
+        this.cacheDirectory = Path.of(properties.getCacheDirectory()).toAbsolutePath().normalize();
+        this.maxCachedReports = Math.max(1, properties.getMaxCachedReports());
+        this.abandonAfterMs = Math.max(1L, properties.getAbandonAfterSeconds()) * 1000L;
+        this.jobRetentionMs = Math.max(1L, properties.getJobRetentionMinutes()) * 60_000L;
+
+        int threads = Math.max(1, properties.getJobThreads());
+        this.workers = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getMaxQueuedJobs())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + workerIds.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            Files.createDirectories(cacheDirectory);
+            for (Path file : cachedFiles(true)) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clear report cache {}", cacheDirectory, e);
+        }
+        scheduler.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Submits a report over the stored events, or over the journaled events between {@code from}
+     * and {@code to} when either is given. Returns a finished job straight away when the same
+     * report is cached, and the running job when it is already being generated.
+     */
+    public ReportJobView submit(ReportFormat format, Instant from, Instant to) {
+        if (format == null) {
+            throw new IllegalArgumentException("'format' is required");
+        }
+        boolean history = from != null || to != null;
+        String key = cacheKey(format, history, from, to);
+        Path file = cacheDirectory.resolve(key + "." + format.extension());
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), format, from, to, key, file);
+
+        if (Files.isRegularFile(file)) {
+            long size = markUsed(file);
+            if (size >= 0) {
+                job.finish(ReportJobState.DONE, size, true, null);
+                jobs.put(job.id, job);
+                return job.view();
+            }
+        }
+
+        // Registered before it can be joined, so whoever joins it can always look it up.
+        jobs.put(job.id, job);
+        ReportJob existing = running.putIfAbsent(key, job);
+        if (existing != null) {
+            jobs.remove(job.id, job);
+            existing.touch();
+            return existing.view();
+        }
+
+        try {
+            // Taken now so the report matches the version in its cache key.
+            EventSource events = history ? reportService.historyEvents(from, to) : reportService.storedEvents();
+            ReportSummary report = format == ReportFormat.PDF ? reportService.generateReport(false) : null;
+            job.future = workers.submit(() -> run(job, report, events));
+            return job.view();
+        } catch (RejectedExecutionException e) {
+            // Kept as failed so anyone who joined it meanwhile sees why rather than a missing job.
+            job.finish(ReportJobState.FAILED, 0, false, "Too many report jobs queued");
+            throw new IllegalStateException("Too many report jobs queued");
+        } catch (RuntimeException e) {
+            job.finish(ReportJobState.FAILED, 0, false, e.getMessage());
+            throw e;
+        } finally {
+            if (job.future == null) {
+                running.remove(key, job);
+            }
+        }
+    }
+
+    /**
+     * Looks up a job; each lookup counts as the client still waiting for it.
+     */
+    public Optional<ReportJobView> find(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.touch();
+        return Optional.of(job.view());
+    }
+
+    /**
+     * The finished report of a job, if it is done and its file is still cached.
+     */
+    public Optional<Path> resultFile(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null || job.state() != ReportJobState.DONE) {
+            return Optional.empty();
+        }
+        job.touch();
+        return markUsed(job.file) < 0 ? Optional.empty() : Optional.of(job.file);
+    }
+
+    public Optional<ReportJobView> cancel(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        cancel(job);
+        return Optional.of(job.view());
+    }
+
+    private void cancel(ReportJob job) {
+        if (!job.finish(ReportJobState.CANCELLED, 0, false, null)) {
+            return;
+        }
+        Future<?> future = job.future;
+        if (future != null) {
+            future.cancel(true);
+        }
+        running.remove(job.cacheKey, job);
+    }
+
+    private void run(ReportJob job, ReportSummary report, EventSource events) {
+        if (!job.start()) {
+            return;
+        }
+        Path temp = cacheDirectory.resolve(job.cacheKey + "-" + job.id + TEMP_SUFFIX);
+        try {
+            Files.createDirectories(cacheDirectory);
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                write(job.format, report, interruptible(events), output);
+            }
+            Files.move(temp, job.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.finish(ReportJobState.DONE, Files.size(job.file), false, null);
+            evictCache();
+        } catch (CancellationException e) {
+            job.finish(ReportJobState.CANCELLED, 0, false, null);
+        } catch (IOException | RuntimeException e) {
+            if (job.finish(ReportJobState.FAILED, 0, false, e.getMessage())) {
+                log.warn("Report job {} failed", job.id, e);
+            }
+        } finally {
+            running.remove(job.cacheKey, job);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.debug("Failed to delete {}", temp, e);
+            }
+        }
+    }
+
+    private void write(ReportFormat format, ReportSummary report, EventSource events, OutputStream output)
+            throws IOException {
+        switch (format) {
+            case PDF -> pdfExporter.export(report, events, output);
+            case EXCEL -> excelExporter.export(events, output);
+        }
+    }
+
+    /**
+     * Stops the export at the next event once the job's thread has been interrupted.
+     */
+    private static EventSource interruptible(EventSource events) {
+        return consumer -> events.forEach(event -> {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Report job cancelled");
+            }
+            consumer.accept(event);
+        });
+    }
+
+    private void sweep() {
+        try {
+            long now = System.currentTimeMillis();
+            for (ReportJob job : jobs.values()) {
+                if (!job.state().isFinished()) {
+                    if (now - job.lastAccessedAt > abandonAfterMs) {
+                        log.info("Cancelling abandoned report job {}", job.id);
+                        cancel(job);
+                    }
+                } else if (now - job.finishedAtMillis() > jobRetentionMs) {
+                    jobs.remove(job.id, job);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to sweep report jobs", e);
+        }
+    }
+
+    private synchronized void evictCache() throws IOException {
+        List<Path> files = cachedFiles(false);
+        if (files.size() <= maxCachedReports) {
+            return;
+        }
+        files.sort(Comparator.comparing(ReportJobService::lastModified).reversed());
+        for (Path file : files.subList(maxCachedReports, files.size())) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private List<Path> cachedFiles(boolean includeTemp) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDirectory)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && (includeTemp || !file.getFileName().toString().endsWith(TEMP_SUFFIX))) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Bumps the file's modification time so eviction keeps recently served reports, and returns its
+     * size, or -1 if it has been evicted meanwhile.
+     */
+    private static long markUsed(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0L);
+        }
+    }
+
+    private String cacheKey(ReportFormat format, boolean history, Instant from, Instant to) {
+        String source = String.join("|",
+                format.name(),
+                history ? "history" : "stored",
+                String.valueOf(from),
+                String.valueOf(to),
+                String.valueOf(fileWatcherService.getStatus().getDirectory()),
+                eventPipelineService.getVersionTag());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
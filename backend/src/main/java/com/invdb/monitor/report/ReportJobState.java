@@ -0,0 +1,13 @@
+package com.invdb.monitor.report;
+
+public enum ReportJobState {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == DONE || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,15 @@
+package com.invdb.monitor.report;
+
+import java.time.Instant;
+
+public record ReportJobView(
+        String id,
+        ReportFormat format,
+        ReportJobState state,
+        Instant from,
+        Instant to,
+        Instant createdAt,
+        Instant finishedAt,
+        boolean cached,
+        long sizeBytes,
+        String error) {}
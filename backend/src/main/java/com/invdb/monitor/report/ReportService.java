@@ -1,16 +1,18 @@
 package com.invdb.monitor.report;
 
+import com.invdb.monitor.event.AggregateSnapshot;
 import com.invdb.monitor.event.EventPipelineService;
 import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.journal.EventQuery;
+import com.invdb.monitor.journal.JournalQueryService;
 import com.invdb.monitor.risk.RiskLevel;
 import com.invdb.monitor.watcher.FileWatcherService;
 import com.invdb.monitor.watcher.WatchStatus;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -18,39 +20,33 @@ public class ReportService {
 
     private final EventPipelineService eventPipelineService;
     private final FileWatcherService fileWatcherService;
+    private final JournalQueryService journalQueryService;
 
-    public ReportService(EventPipelineService eventPipelineService, FileWatcherService fileWatcherService) {
+    public ReportService(
+            EventPipelineService eventPipelineService,
+            FileWatcherService fileWatcherService,
+            JournalQueryService journalQueryService) {
         this.eventPipelineService = eventPipelineService;
         this.fileWatcherService = fileWatcherService;
+        this.journalQueryService = journalQueryService;
     }
 
     public ReportSummary generateReport() {
-        List<FileEvent> events = new ArrayList<>(eventPipelineService.getAllEvents());
-        events.sort(Comparator.comparing(FileEvent::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder())));
-
-        int honeypotTriggers = 0;
-        int lowRiskCount = 0;
-        int mediumRiskCount = 0;
-        int highRiskCount = 0;
-        Set<String> detectedPatterns = new LinkedHashSet<>();
+        return generateReport(true);
+    }
 
-        for (FileEvent event : events) {
-            if (event.isHoneypotTriggered()) {
-                honeypotTriggers++;
-            }
+    /**
+     * Builds the report from the pipeline's running counts, so the summary does not depend on how
+     * many events are retained. Only {@code includeEvents} copies the stored events, newest first.
+     */
+    public ReportSummary generateReport(boolean includeEvents) {
+        AggregateSnapshot aggregates = eventPipelineService.getAggregates();
+        List<FileEvent> events = includeEvents ? eventPipelineService.getAllEvents() : null;
 
-            if (event.getRiskLevel() == RiskLevel.LOW) {
-                lowRiskCount++;
-            } else if (event.getRiskLevel() == RiskLevel.MEDIUM) {
-                mediumRiskCount++;
-            } else if (event.getRiskLevel() == RiskLevel.HIGH) {
-                highRiskCount++;
-            }
-
-            if (event.getNotes() != null) {
-                detectedPatterns.addAll(event.getNotes());
-            }
-        }
+        Map<String, Long> eventTypeCounts = new LinkedHashMap<>();
+        aggregates.byEventType().forEach((type, count) -> eventTypeCounts.put(type.name(), count));
+        Map<String, Long> patternCounts = new LinkedHashMap<>();
+        aggregates.byNote().forEach((note, count) -> patternCounts.put(note.name(), count));
 
         WatchStatus watchStatus = fileWatcherService.getStatus();
 
@@ -58,13 +54,34 @@ public class ReportService {
                 .directory(watchStatus.getDirectory())
                 .generatedAt(Instant.now())
                 .monitoringStartedAt(watchStatus.getStartedAt())
-                .totalEvents(events.size())
-                .honeypotTriggers(honeypotTriggers)
-                .lowRiskCount(lowRiskCount)
-                .mediumRiskCount(mediumRiskCount)
-                .highRiskCount(highRiskCount)
-                .detectedPatterns(detectedPatterns)
+                .totalEvents((int) aggregates.totalEvents())
+                .honeypotTriggers((int) aggregates.honeypotTriggers())
+                .lowRiskCount((int) aggregates.riskCount(RiskLevel.LOW))
+                .mediumRiskCount((int) aggregates.riskCount(RiskLevel.MEDIUM))
+                .highRiskCount((int) aggregates.riskCount(RiskLevel.HIGH))
+                .detectedPatterns(new LinkedHashSet<>(patternCounts.keySet()))
+                .eventTypeCounts(eventTypeCounts)
+                .patternCounts(patternCounts)
+                .timeline(aggregates.timeline())
                 .events(events)
                 .build();
     }
+
+    /**
+     * The events currently held in memory, newest first.
+     */
+    public EventSource storedEvents() {
+        return EventSource.of(eventPipelineService.getAllEvents());
+    }
+
+    /**
+     * Journaled events in a time range, newest first, streamed from disk as they are consumed.
+     */
+    public EventSource historyEvents(Instant from, Instant to) {
+        if (!journalQueryService.isEnabled()) {
+            throw new IllegalStateException("Event journal is disabled");
+        }
+        EventQuery query = new EventQuery(from, to, null, null, null, null, null, 0, null);
+        return consumer -> journalQueryService.scan(query, consumer);
+    }
 }
@@ -1,8 +1,10 @@
 package com.invdb.monitor.report;
 
 import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.MinuteCount;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,5 +25,8 @@ public class ReportSummary {
     private int mediumRiskCount;
     private int highRiskCount;
     private Set<String> detectedPatterns;
+    private Map<String, Long> eventTypeCounts;
+    private Map<String, Long> patternCounts;
+    private List<MinuteCount> timeline;
     private List<FileEvent> events;
 }
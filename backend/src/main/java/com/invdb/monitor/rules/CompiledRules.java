@@ -0,0 +1,365 @@
+package com.invdb.monitor.rules;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.risk.RiskLevel;
+import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A rule set compiled into parallel arrays with one slot per rule, so evaluating an event is a loop
+ * of integer comparisons and bit tests. Extensions and path globs are interned at compile time: an
+ * event's extension is looked up once and each distinct glob is matched at most once per event.
+ * Instances are immutable and replaced whole on reload.
+ */
+public final class CompiledRules {
+
+    private static final int ANY_TYPE = -1;
+    private static final int UNTYPED = 1 << 31;
+    private static final byte EITHER = -1;
+    private static final long NO_THRESHOLD = Long.MIN_VALUE;
+    private static final int NO_SCORE = Integer.MIN_VALUE;
+    private static final int NO_EXTENSION = -1;
+    private static final byte GLOB_UNKNOWN = 0;
+    private static final byte GLOB_MATCH = 1;
+    private static final byte GLOB_NO_MATCH = 2;
+
+    private final int behaviorCount;
+    private final int ruleCount;
+    private final int mediumAbove;
+    private final int highAbove;
+
+    private final int[] typeMasks;
+    private final int[] requiredNotes;
+    private final byte[] honeypot;
+    private final long[] eventsAbove;
+    private final long[] deletesAbove;
+    private final long[] renamesAbove;
+    private final long[] shareEventsAbove;
+    private final long[][] extensionBits;
+    private final int[][] globIds;
+    private final int[] addNotes;
+    private final int[] setScores;
+    private final int[] addScores;
+    private final boolean[] stops;
+
+    private final Map<String, Integer> extensionIds = new HashMap<>();
+    private final List<PathMatcher> globs = new ArrayList<>();
+    private final Map<String, Integer> globIdsByPattern = new HashMap<>();
+    private final boolean behaviorUsesExtensions;
+    private final boolean riskUsesExtensions;
+
+    private CompiledRules(RuleSetDefinition definition) {
+        List<RuleDefinition> behavior = orEmpty(definition.getBehavior());
+        List<RuleDefinition> risk = orEmpty(definition.getRisk());
+        if (definition.getHighAbove() < definition.getMediumAbove()) {
+            throw new IllegalArgumentException("'highAbove' must not be below 'mediumAbove'");
+        }
+        this.mediumAbove = definition.getMediumAbove();
+        this.highAbove = definition.getHighAbove();
+        this.behaviorCount = behavior.size();
+        this.ruleCount = behaviorCount + risk.size();
+
+        typeMasks = new int[ruleCount];
+        requiredNotes = new int[ruleCount];
+        honeypot = new byte[ruleCount];
+        eventsAbove = new long[ruleCount];
+        deletesAbove = new long[ruleCount];
+        renamesAbove = new long[ruleCount];
+        shareEventsAbove = new long[ruleCount];
+        extensionBits = new long[ruleCount][];
+        globIds = new int[ruleCount][];
+        addNotes = new int[ruleCount];
+        setScores = new int[ruleCount];
+        addScores = new int[ruleCount];
+        stops = new boolean[ruleCount];
+
+        for (int i = 0; i < ruleCount; i++) {
+            boolean isBehavior = i < behaviorCount;
+            RuleDefinition rule = isBehavior ? behavior.get(i) : risk.get(i - behaviorCount);
+            if (rule == null) {
+                throw new IllegalArgumentException("Rule " + (i + 1) + " is empty");
+            }
+            validate(rule, isBehavior, i);
+            compile(rule, i);
+        }
+
+        this.behaviorUsesExtensions = usesExtensions(0, behaviorCount);
+        this.riskUsesExtensions = usesExtensions(behaviorCount, ruleCount);
+    }
+
+    public static CompiledRules compile(RuleSetDefinition definition) {
+        return new CompiledRules(definition);
+    }
+
+    public int behaviorRuleCount() {
+        return behaviorCount;
+    }
+
+    public int riskRuleCount() {
+        return ruleCount - behaviorCount;
+    }
+
+    /**
+     * Runs the behavior rules and returns the event's note flags with every matching rule's note
+     * added. Notes added by earlier rules are visible to later ones.
+     */
+    public int applyBehavior(
+            FileEvent event,
+            String extension,
+            long windowEvents,
+            long windowDeletes,
+            long windowRenames,
+            long shareEvents) {
+        int notes = event.getNoteFlags();
+        int typeBit = typeBit(event);
+        int extensionId = behaviorUsesExtensions ? extensionId(extension) : NO_EXTENSION;
+        GlobMatches globMatches = globs.isEmpty() ? null : new GlobMatches(event.getPath(), globs.size());
+        for (int i = 0; i < behaviorCount; i++) {
+            if (matches(i, typeBit, notes, event.isHoneypotTriggered(), extensionId,
+                    windowEvents, windowDeletes, windowRenames, shareEvents, globMatches)) {
+                notes |= addNotes[i];
+                if (stops[i]) {
+                    break;
+                }
+            }
+        }
+        return notes;
+    }
+
+    /**
+     * Runs the risk rules and returns the score, capped to 0..100.
+     */
+    public int score(FileEvent event) {
+        int score = 0;
+        int notes = event.getNoteFlags();
+        int typeBit = typeBit(event);
+        int extensionId = riskUsesExtensions ? extensionId(extensionOf(event.getPath())) : NO_EXTENSION;
+        GlobMatches globMatches = globs.isEmpty() ? null : new GlobMatches(event.getPath(), globs.size());
+        for (int i = behaviorCount; i < ruleCount; i++) {
+            if (matches(i, typeBit, notes, event.isHoneypotTriggered(), extensionId, 0L, 0L, 0L, 0L, globMatches)) {
+                if (setScores[i] != NO_SCORE) {
+                    score = setScores[i];
+                }
+                score += addScores[i];
+                if (stops[i]) {
+                    break;
+                }
+            }
+        }
+        return Math.max(0, Math.min(100, score));
+    }
+
+    public RiskLevel level(int score) {
+        if (score <= mediumAbove) {
+            return RiskLevel.LOW;
+        }
+        if (score <= highAbove) {
+            return RiskLevel.MEDIUM;
+        }
+        return RiskLevel.HIGH;
+    }
+
+    private boolean matches(
+            int i,
+            int typeBit,
+            int notes,
+            boolean isHoneypot,
+            int extensionId,
+            long windowEvents,
+            long windowDeletes,
+            long windowRenames,
+            long shareEvents,
+            GlobMatches globMatches) {
+        if ((typeMasks[i] & typeBit) == 0
+                || (notes & requiredNotes[i]) != requiredNotes[i]
+                || (honeypot[i] != EITHER && (honeypot[i] == 1) != isHoneypot)
+                || windowEvents <= eventsAbove[i]
+                || windowDeletes <= deletesAbove[i]
+                || windowRenames <= renamesAbove[i]
+                || shareEvents <= shareEventsAbove[i]) {
+            return false;
+        }
+
+        long[] bits = extensionBits[i];
+        if (bits != null
+                && (extensionId == NO_EXTENSION
+                        || (extensionId >>> 6) >= bits.length
+                        || (bits[extensionId >>> 6] & (1L << extensionId)) == 0)) {
+            return false;
+        }
+
+        int[] ids = globIds[i];
+        if (ids != null) {
+            for (int id : ids) {
+                if (globMatches.matches(id)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void validate(RuleDefinition rule, boolean isBehavior, int index) {
+        String label = "Rule '" + (rule.getName() == null ? String.valueOf(index + 1) : rule.getName()) + "'";
+        if (isBehavior) {
+            if (rule.getAddNote() == null) {
+                throw new IllegalArgumentException(label + ": behavior rules need 'addNote'");
+            }
+            if (rule.getSetScore() != null || rule.getAddScore() != null) {
+                throw new IllegalArgumentException(label + ": behavior rules cannot change the score");
+            }
+        } else {
+            if (rule.getSetScore() == null && rule.getAddScore() == null) {
+                throw new IllegalArgumentException(label + ": risk rules need 'setScore' or 'addScore'");
+            }
+            if (rule.getAddNote() != null) {
+                throw new IllegalArgumentException(label + ": risk rules cannot add notes");
+            }
+            if (rule.getWindowEventsAbove() != null
+                    || rule.getWindowDeletesAbove() != null
+                    || rule.getWindowRenamesAbove() != null
+                    || rule.getWindowShareEventsAbove() != null) {
+                throw new IllegalArgumentException(label + ": window conditions are only allowed on behavior rules");
+            }
+        }
+    }
+
+    private void compile(RuleDefinition rule, int i) {
+        typeMasks[i] = ANY_TYPE;
+        if (rule.getEventTypes() != null && !rule.getEventTypes().isEmpty()) {
+            int mask = 0;
+            for (FileEventType type : rule.getEventTypes()) {
+                mask |= 1 << type.ordinal();
+            }
+            typeMasks[i] = mask;
+        }
+
+        if (rule.getNotes() != null) {
+            for (BehaviorNote note : rule.getNotes()) {
+                requiredNotes[i] |= note.mask();
+            }
+        }
+        honeypot[i] = rule.getHoneypot() == null ? EITHER : (byte) (rule.getHoneypot() ? 1 : 0);
+        eventsAbove[i] = rule.getWindowEventsAbove() == null ? NO_THRESHOLD : rule.getWindowEventsAbove();
+        deletesAbove[i] = rule.getWindowDeletesAbove() == null ? NO_THRESHOLD : rule.getWindowDeletesAbove();
+        renamesAbove[i] = rule.getWindowRenamesAbove() == null ? NO_THRESHOLD : rule.getWindowRenamesAbove();
+        shareEventsAbove[i] = rule.getWindowShareEventsAbove() == null ? NO_THRESHOLD : rule.getWindowShareEventsAbove();
+
+        if (rule.getExtensions() != null && !rule.getExtensions().isEmpty()) {
+            long[] bits = new long[0];
+            for (String extension : rule.getExtensions()) {
+                int id = extensionIds.computeIfAbsent(normalizeExtension(extension), key -> extensionIds.size());
+                if ((id >>> 6) >= bits.length) {
+                    bits = Arrays.copyOf(bits, (id >>> 6) + 1);
+                }
+                bits[id >>> 6] |= 1L << id;
+            }
+            extensionBits[i] = bits;
+        }
+
+        if (rule.getPaths() != null && !rule.getPaths().isEmpty()) {
+            int[] ids = new int[rule.getPaths().size()];
+            for (int p = 0; p < ids.length; p++) {
+                ids[p] = globIdsByPattern.computeIfAbsent(rule.getPaths().get(p), pattern -> {
+                    globs.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+                    return globs.size() - 1;
+                });
+            }
+            globIds[i] = ids;
+        }
+
+        addNotes[i] = rule.getAddNote() == null ? 0 : rule.getAddNote().mask();
+        setScores[i] = rule.getSetScore() == null ? NO_SCORE : rule.getSetScore();
+        addScores[i] = rule.getAddScore() == null ? 0 : rule.getAddScore();
+        stops[i] = rule.isStop();
+    }
+
+    private boolean usesExtensions(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (extensionBits[i] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int extensionId(String extension) {
+        if (extension == null) {
+            return NO_EXTENSION;
+        }
+        Integer id = extensionIds.get(extension);
+        return id == null ? NO_EXTENSION : id;
+    }
+
+    private static int typeBit(FileEvent event) {
+        return event.getEventType() == null ? UNTYPED : 1 << event.getEventType().ordinal();
+    }
+
+    private static String normalizeExtension(String extension) {
+        String trimmed = extension.trim().toLowerCase(Locale.ROOT);
+        return trimmed.startsWith(".") ? trimmed.substring(1) : trimmed;
+    }
+
+    private static String extensionOf(String path) {
+        if (path == null) {
+            return null;
+        }
+        int nameStart = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1;
+        int dotIndex = path.lastIndexOf('.');
+        if (dotIndex < nameStart || dotIndex == path.length() - 1) {
+            return null;
+        }
+        return path.substring(dotIndex + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+
+    /**
+     * Per-event memo of glob results, so a glob shared by many rules is matched once.
+     */
+    private final class GlobMatches {
+
+        private final String rawPath;
+        private final byte[] results;
+        private Path path;
+
+        private GlobMatches(String rawPath, int globCount) {
+            this.rawPath = rawPath;
+            this.results = new byte[globCount];
+        }
+
+        private boolean matches(int id) {
+            if (results[id] == GLOB_UNKNOWN) {
+                results[id] = test(id) ? GLOB_MATCH : GLOB_NO_MATCH;
+            }
+            return results[id] == GLOB_MATCH;
+        }
+
+        private boolean test(int id) {
+            if (rawPath == null) {
+                return false;
+            }
+            if (path == null) {
+                try {
+                    path = Path.of(rawPath);
+                } catch (InvalidPathException e) {
+                    return false;
+                }
+            }
+            return globs.get(id).matches(path);
+        }
+    }
+}
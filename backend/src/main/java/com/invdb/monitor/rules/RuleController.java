@@ -0,0 +1,41 @@
+package com.invdb.monitor.rules;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.IOException;
+import java.util.Map;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/rules")
+public class RuleController {
+
+    private final RuleService ruleService;
+
+    public RuleController(RuleService ruleService) {
+        this.ruleService = ruleService;
+    }
+
+    @GetMapping
+    public RuleSetInfo getRules() {
+        return ruleService.getInfo();
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<?> reloadRules() {
+        try {
+            return ResponseEntity.ok(ruleService.reload());
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid rules file", "details", e.getOriginalMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to read rules file", "details", String.valueOf(e.getMessage())));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.invdb.monitor.rules;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.event.FileEventType;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One rule as written in a rules file. Every condition that is set must hold; list conditions
+ * match when any entry matches, except {@code notes}, which requires all of them. Behavior rules
+ * may only add a note, risk rules may only set or add to the score. Window conditions count the
+ * last 10 seconds in the event's directory or extension, whichever is busier, except
+ * {@code windowShareEventsAbove}, which counts every event in the watched share.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleDefinition {
+    private String name;
+    private List<FileEventType> eventTypes;
+    private List<String> paths;
+    private List<String> extensions;
+    private List<BehaviorNote> notes;
+    private Boolean honeypot;
+    private Long windowEventsAbove;
+    private Long windowDeletesAbove;
+    private Long windowRenamesAbove;
+    private Long windowShareEventsAbove;
+    private BehaviorNote addNote;
+    private Integer setScore;
+    private Integer addScore;
+    private boolean stop;
+}
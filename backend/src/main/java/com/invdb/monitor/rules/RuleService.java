@@ -0,0 +1,75 @@
+package com.invdb.monitor.rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.invdb.monitor.config.AppProperties;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Holds the compiled rule set. A reload parses and compiles the new rules on the caller's thread and
+ * then swaps a single reference, so event processing never waits on it; each event is evaluated
+ * entirely against whichever rule set it read first. A rules file that fails to load leaves the
+ * current rules in place.
+ */
+@Slf4j
+@Service
+public class RuleService {
+
+    private static final String BUILT_IN = "built-in";
+
+    private final ObjectMapper objectMapper;
+    private final AppProperties appProperties;
+    private final AtomicReference<CompiledRules> current = new AtomicReference<>();
+    private volatile RuleSetInfo info;
+
+    public RuleService(ObjectMapper objectMapper, AppProperties appProperties) {
+        this.objectMapper = objectMapper;
+        this.appProperties = appProperties;
+        try {
+            reload();
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Failed to load rules from " + source(), e);
+        }
+    }
+
+    public CompiledRules current() {
+        return current.get();
+    }
+
+    public RuleSetInfo getInfo() {
+        return info;
+    }
+
+    public synchronized RuleSetInfo reload() throws IOException {
+        String file = appProperties.getRules().getFile();
+        RuleSetDefinition definition;
+        if (file == null || file.isBlank()) {
+            definition = RuleSetDefinition.defaults(appProperties.getSuspiciousExtensions());
+        } else {
+            try (InputStream input = Files.newInputStream(Path.of(file))) {
+                definition = objectMapper.readValue(input, RuleSetDefinition.class);
+            }
+        }
+
+        CompiledRules compiled = CompiledRules.compile(definition);
+        current.set(compiled);
+        info = new RuleSetInfo(source(), Instant.now(), compiled.behaviorRuleCount(), compiled.riskRuleCount());
+        log.info(
+                "Loaded {} behavior and {} risk rules from {}",
+                compiled.behaviorRuleCount(),
+                compiled.riskRuleCount(),
+                info.source());
+        return info;
+    }
+
+    private String source() {
+        String file = appProperties.getRules().getFile();
+        return file == null || file.isBlank() ? BUILT_IN : Path.of(file).toAbsolutePath().normalize().toString();
+    }
+}
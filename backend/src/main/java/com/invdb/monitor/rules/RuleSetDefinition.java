@@ -0,0 +1,88 @@
+package com.invdb.monitor.rules;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.event.FileEventType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import lombok.Data;
+
+/**
+ * The contents of a rules file. Behavior rules run first and add notes; risk rules then compute the
+ * score, in file order, and the score is capped to 0..100 before it is mapped to a risk level.
+ */
+@Data
+public class RuleSetDefinition {
+    private int mediumAbove = 30;
+    private int highAbove = 70;
+    private List<RuleDefinition> behavior = new ArrayList<>();
+    private List<RuleDefinition> risk = new ArrayList<>();
+
+    /**
+     * The built-in rules used when no rules file is configured.
+     */
+    public static RuleSetDefinition defaults(List<String> suspiciousExtensions) {
+        RuleSetDefinition rules = new RuleSetDefinition();
+        rules.behavior.add(RuleDefinition.builder()
+                .name("mass-change")
+                .windowEventsAbove(30L)
+                .addNote(BehaviorNote.MASS_CHANGE_SUSPECTED)
+                .build());
+        rules.behavior.add(RuleDefinition.builder()
+                .name("rapid-delete")
+                .windowDeletesAbove(15L)
+                .addNote(BehaviorNote.RAPID_DELETE_SPIKE)
+                .build());
+        rules.behavior.add(RuleDefinition.builder()
+                .name("mass-rename")
+                .windowRenamesAbove(10L)
+                .addNote(BehaviorNote.MASS_RENAME_SUSPECTED)
+                .build());
+        rules.behavior.add(RuleDefinition.builder()
+                .name("suspicious-extension")
+                .eventTypes(List.of(FileEventType.CREATED, FileEventType.MODIFIED, FileEventType.RENAMED))
+                .extensions(new ArrayList<>(suspiciousExtensions))
+                .addNote(BehaviorNote.SUSPICIOUS_EXTENSION)
+                .build());
+        rules.behavior.add(RuleDefinition.builder()
+                .name("critical-intrusion")
+                .honeypot(true)
+                // Share-wide: honeypots sit in their own small folder, whose window never gets busy.
+                .windowShareEventsAbove(30L)
+                .addNote(BehaviorNote.CRITICAL_INTRUSION_PATTERN)
+                .build());
+
+        rules.risk.add(RuleDefinition.builder()
+                .name("critical-intrusion")
+                .notes(List.of(BehaviorNote.CRITICAL_INTRUSION_PATTERN))
+                .setScore(100)
+                .stop(true)
+                .build());
+        rules.risk.add(baseScore(FileEventType.CREATED, 15));
+        rules.risk.add(baseScore(FileEventType.MODIFIED, 25));
+        rules.risk.add(baseScore(FileEventType.DELETED, 20));
+        rules.risk.add(baseScore(FileEventType.RENAMED, 25));
+        rules.risk.add(RuleDefinition.builder().name("honeypot").honeypot(true).setScore(95).build());
+        rules.risk.add(noteBonus(BehaviorNote.MASS_CHANGE_SUSPECTED, 20));
+        rules.risk.add(noteBonus(BehaviorNote.RAPID_DELETE_SPIKE, 25));
+        rules.risk.add(noteBonus(BehaviorNote.SUSPICIOUS_EXTENSION, 30));
+        rules.risk.add(noteBonus(BehaviorNote.MASS_RENAME_SUSPECTED, 30));
+        return rules;
+    }
+
+    private static RuleDefinition baseScore(FileEventType eventType, int score) {
+        return RuleDefinition.builder()
+                .name("base-" + eventType.name().toLowerCase(Locale.ROOT))
+                .eventTypes(List.of(eventType))
+                .setScore(score)
+                .build();
+    }
+
+    private static RuleDefinition noteBonus(BehaviorNote note, int bonus) {
+        return RuleDefinition.builder()
+                .name("bonus-" + note.name().toLowerCase(Locale.ROOT))
+                .notes(List.of(note))
+                .addScore(bonus)
+                .build();
+    }
+}
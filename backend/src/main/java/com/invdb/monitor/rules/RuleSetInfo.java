@@ -0,0 +1,5 @@
+package com.invdb.monitor.rules;
+
+import java.time.Instant;
+
+public record RuleSetInfo(String source, Instant loadedAt, int behaviorRules, int riskRules) {}
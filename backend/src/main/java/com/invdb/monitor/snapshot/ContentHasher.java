@@ -0,0 +1,139 @@
+package com.invdb.monitor.snapshot;
+
+import com.invdb.monitor.config.AppProperties;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes file checksums through a direct buffer owned by the calling thread, so hashing allocates
+ * nothing per file beyond the resulting hex string. Direct reads are used instead of mapping each
+ * file because mappings are only released by the GC, which a million-file walk would outrun.
+ */
+@Component
+public class ContentHasher {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final HashMode mode;
+    private final HashAlgorithm algorithm;
+    private final int sampleBlockSize;
+    private final ThreadLocal<HashState> states;
+
+    public ContentHasher(AppProperties appProperties) {
+        AppProperties.SnapshotProperties properties = appProperties.getSnapshot();
+        this.mode = properties.getHashMode() == null ? HashMode.NONE : properties.getHashMode();
+        this.algorithm = properties.getHashAlgorithm() == null ? HashAlgorithm.SHA_256 : properties.getHashAlgorithm();
+        this.sampleBlockSize = Math.max(4096, properties.getSampleBlockSize());
+        int bufferSize = Math.max(sampleBlockSize, properties.getHashBufferSize());
+        this.states = ThreadLocal.withInitial(() -> new HashState(algorithm, bufferSize));
+    }
+
+    public boolean isEnabled() {
+        return mode != HashMode.NONE;
+    }
+
+    public String describe() {
+        return algorithm.name() + "/" + mode.name();
+    }
+
+    public String checksum(Path file, long size) throws IOException {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        HashState state = states.get();
+        state.reset();
+        state.updateLong(size);
+        state.updateLong(mode.ordinal());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (mode == HashMode.SAMPLED && size > 3L * sampleBlockSize) {
+                hashRange(channel, state, 0L, sampleBlockSize);
+                hashRange(channel, state, (size - sampleBlockSize) / 2, sampleBlockSize);
+                hashRange(channel, state, size - sampleBlockSize, sampleBlockSize);
+            } else {
+                hashRange(channel, state, 0L, size);
+            }
+        }
+
+        return state.finish();
+    }
+
+    private void hashRange(FileChannel channel, HashState state, long position, long length) throws IOException {
+        ByteBuffer buffer = state.buffer;
+        long end = position + length;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                // The file shrank while it was being read; hash what was there.
+                break;
+            }
+            buffer.flip();
+            state.update(buffer);
+            position += read;
+        }
+    }
+
+    private static final class HashState {
+
+        private final ByteBuffer buffer;
+        private final ByteBuffer scratch = ByteBuffer.allocate(Long.BYTES);
+        private final MessageDigest digest;
+        private final CRC32C crc;
+
+        private HashState(HashAlgorithm algorithm, int bufferSize) {
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+            if (algorithm == HashAlgorithm.CRC32C) {
+                this.digest = null;
+                this.crc = new CRC32C();
+            } else {
+                try {
+                    this.digest = MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException("SHA-256 is not available", e);
+                }
+                this.crc = null;
+            }
+        }
+
+        private void reset() {
+            if (digest != null) {
+                digest.reset();
+            } else {
+                crc.reset();
+            }
+        }
+
+        private void update(ByteBuffer data) {
+            if (digest != null) {
+                digest.update(data);
+            } else {
+                crc.update(data);
+            }
+        }
+
+        private void updateLong(long value) {
+            scratch.clear();
+            scratch.putLong(value);
+            scratch.flip();
+            update(scratch);
+        }
+
+        private String finish() {
+            if (digest != null) {
+                return HEX.formatHex(digest.digest());
+            }
+            return HEX.toHexDigits((int) crc.getValue());
+        }
+    }
+}
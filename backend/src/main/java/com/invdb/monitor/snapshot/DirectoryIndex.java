@@ -0,0 +1,26 @@
+package com.invdb.monitor.snapshot;
+
+/**
+ * Directories of a snapshot in pre-order, each with the digest of its whole subtree and the entry
+ * ranges it covers: {@code [firstFile, directFileEnd)} are its own files and
+ * {@code [firstFile, fileEnd)} its whole subtree; {@code subtreeEnd} is the index of the next
+ * directory outside the subtree.
+ */
+public interface DirectoryIndex {
+
+    int count();
+
+    String relativePath(int directory);
+
+    long digestHigh(int directory);
+
+    long digestLow(int directory);
+
+    int firstFile(int directory);
+
+    int directFileEnd(int directory);
+
+    int fileEnd(int directory);
+
+    int subtreeEnd(int directory);
+}
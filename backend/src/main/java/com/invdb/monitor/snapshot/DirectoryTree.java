@@ -0,0 +1,207 @@
+package com.invdb.monitor.snapshot;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Heap-backed {@link DirectoryIndex}. A directory's digest covers the name, size, mtime and
+ * checksum of each of its files plus the name and digest of each subdirectory, so two directories
+ * with equal digests have identical subtrees.
+ */
+public final class DirectoryTree implements DirectoryIndex {
+
+    private static final char SEPARATOR = File.separatorChar;
+
+    private final String[] paths;
+    private final long[] digestHigh;
+    private final long[] digestLow;
+    private final int[] firstFile;
+    private final int[] directFileEnd;
+    private final int[] fileEnd;
+    private final int[] subtreeEnd;
+
+    private DirectoryTree(Builder builder) {
+        int count = builder.paths.size();
+        this.paths = builder.paths.toArray(new String[0]);
+        this.digestHigh = Arrays.copyOf(builder.digestHigh, count);
+        this.digestLow = Arrays.copyOf(builder.digestLow, count);
+        this.firstFile = Arrays.copyOf(builder.firstFile, count);
+        this.directFileEnd = Arrays.copyOf(builder.directFileEnd, count);
+        this.fileEnd = Arrays.copyOf(builder.fileEnd, count);
+        this.subtreeEnd = Arrays.copyOf(builder.subtreeEnd, count);
+    }
+
+    /**
+     * Builds the tree in one pass over entries already sorted in {@link SnapshotOrder}, keeping only
+     * the chain of currently open directories on a stack.
+     */
+    public static DirectoryTree build(Path root, List<FileMetadata> entries) {
+        Builder builder = new Builder();
+        Deque<OpenDirectory> open = new ArrayDeque<>();
+        open.push(builder.open("", 0));
+
+        for (int index = 0; index < entries.size(); index++) {
+            FileMetadata entry = entries.get(index);
+            String relative = root.relativize(entry.getPath()).toString();
+            int nameStart = relative.lastIndexOf(SEPARATOR) + 1;
+            String parent = nameStart == 0 ? "" : relative.substring(0, nameStart - 1);
+
+            while (!isSelfOrAncestor(open.peek().path, parent)) {
+                builder.close(open.pop(), open.peek(), index);
+            }
+            while (!open.peek().path.equals(parent)) {
+                OpenDirectory current = open.peek();
+                int childEnd = parent.indexOf(SEPARATOR, current.path.isEmpty() ? 0 : current.path.length() + 1);
+                String child = childEnd < 0 ? parent : parent.substring(0, childEnd);
+                builder.markDirectFilesEnd(current, index);
+                open.push(builder.open(child, index));
+            }
+
+            OpenDirectory current = open.peek();
+            current.digest.update((byte) 1);
+            current.digest.update(relative.substring(nameStart).getBytes(StandardCharsets.UTF_8));
+            current.scratch.clear();
+            current.scratch.putLong(entry.getSize()).putLong(SnapshotFileFormat.toNanos(entry.getLastModified()));
+            current.digest.update(current.scratch.array(), 0, current.scratch.position());
+            if (entry.getChecksum() != null) {
+                current.digest.update(entry.getChecksum().getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+
+        while (!open.isEmpty()) {
+            OpenDirectory closing = open.pop();
+            builder.close(closing, open.peek(), entries.size());
+        }
+        return new DirectoryTree(builder);
+    }
+
+    @Override
+    public int count() {
+        return paths.length;
+    }
+
+    @Override
+    public String relativePath(int directory) {
+        return paths[directory];
+    }
+
+    @Override
+    public long digestHigh(int directory) {
+        return digestHigh[directory];
+    }
+
+    @Override
+    public long digestLow(int directory) {
+        return digestLow[directory];
+    }
+
+    @Override
+    public int firstFile(int directory) {
+        return firstFile[directory];
+    }
+
+    @Override
+    public int directFileEnd(int directory) {
+        return directFileEnd[directory];
+    }
+
+    @Override
+    public int fileEnd(int directory) {
+        return fileEnd[directory];
+    }
+
+    @Override
+    public int subtreeEnd(int directory) {
+        return subtreeEnd[directory];
+    }
+
+    private static boolean isSelfOrAncestor(String directory, String path) {
+        if (directory.isEmpty() || directory.equals(path)) {
+            return true;
+        }
+        return path.length() > directory.length()
+                && path.startsWith(directory)
+                && path.charAt(directory.length()) == SEPARATOR;
+    }
+
+    private static final class OpenDirectory {
+
+        private final String path;
+        private final int slot;
+        private final MessageDigest digest;
+        private final ByteBuffer scratch = ByteBuffer.allocate(2 * Long.BYTES);
+        private boolean directFilesClosed;
+
+        private OpenDirectory(String path, int slot) {
+            this.path = path;
+            this.slot = slot;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    private static final class Builder {
+
+        private final List<String> paths = new ArrayList<>();
+        private long[] digestHigh = new long[64];
+        private long[] digestLow = new long[64];
+        private int[] firstFile = new int[64];
+        private int[] directFileEnd = new int[64];
+        private int[] fileEnd = new int[64];
+        private int[] subtreeEnd = new int[64];
+
+        private OpenDirectory open(String path, int fileIndex) {
+            int slot = paths.size();
+            if (slot == firstFile.length) {
+                int capacity = slot * 2;
+                digestHigh = Arrays.copyOf(digestHigh, capacity);
+                digestLow = Arrays.copyOf(digestLow, capacity);
+                firstFile = Arrays.copyOf(firstFile, capacity);
+                directFileEnd = Arrays.copyOf(directFileEnd, capacity);
+                fileEnd = Arrays.copyOf(fileEnd, capacity);
+                subtreeEnd = Arrays.copyOf(subtreeEnd, capacity);
+            }
+            paths.add(path);
+            firstFile[slot] = fileIndex;
+            return new OpenDirectory(path, slot);
+        }
+
+        private void markDirectFilesEnd(OpenDirectory directory, int fileIndex) {
+            if (!directory.directFilesClosed) {
+                directFileEnd[directory.slot] = fileIndex;
+                directory.directFilesClosed = true;
+            }
+        }
+
+        private void close(OpenDirectory directory, OpenDirectory parent, int fileIndex) {
+            markDirectFilesEnd(directory, fileIndex);
+            fileEnd[directory.slot] = fileIndex;
+            subtreeEnd[directory.slot] = paths.size();
+
+            ByteBuffer digest = ByteBuffer.wrap(directory.digest.digest());
+            digestHigh[directory.slot] = digest.getLong();
+            digestLow[directory.slot] = digest.getLong();
+
+            if (parent != null) {
+                String name = directory.path.substring(directory.path.lastIndexOf(SEPARATOR) + 1);
+                parent.digest.update((byte) 0);
+                parent.digest.update(name.getBytes(StandardCharsets.UTF_8));
+                parent.scratch.clear();
+                parent.scratch.putLong(digestHigh[directory.slot]).putLong(digestLow[directory.slot]);
+                parent.digest.update(parent.scratch.array(), 0, parent.scratch.position());
+            }
+        }
+    }
+}
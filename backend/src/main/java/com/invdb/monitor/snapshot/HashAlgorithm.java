@@ -0,0 +1,6 @@
+package com.invdb.monitor.snapshot;
+
+public enum HashAlgorithm {
+    CRC32C,
+    SHA_256
+}
@@ -0,0 +1,7 @@
+package com.invdb.monitor.snapshot;
+
+public enum HashMode {
+    NONE,
+    SAMPLED,
+    FULL
+}
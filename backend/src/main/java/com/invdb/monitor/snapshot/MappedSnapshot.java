@@ -0,0 +1,245 @@
+package com.invdb.monitor.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only view over a snapshot file written by {@link SnapshotFileFormat}. Only the mapping and
+ * the header live on the heap; entries are decoded on demand.
+ */
+public final class MappedSnapshot implements SnapshotView, DirectoryIndex {
+
+    private final MappedByteBuffer buffer;
+    private final Path rootDirectory;
+    private final Instant capturedAt;
+    private final String checksumAlgorithm;
+    private final int count;
+    private final int indexInterval;
+    private final int checksumWidth;
+    private final long sizesOffset;
+    private final long mtimesOffset;
+    private final long checksumsOffset;
+    private final long indexOffset;
+    private final long directoriesOffset;
+    private final int directoryCount;
+
+    private MappedSnapshot(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != SnapshotFileFormat.MAGIC || buffer.getInt(4) != SnapshotFileFormat.VERSION) {
+            throw new IllegalStateException("Unsupported snapshot file format");
+        }
+        this.count = buffer.getInt(8);
+        this.indexInterval = buffer.getInt(12);
+        this.checksumWidth = buffer.getInt(16);
+        this.capturedAt = Instant.ofEpochSecond(buffer.getLong(20), buffer.getInt(28));
+
+        int position = SnapshotFileFormat.OFFSETS_POSITION + Long.BYTES;
+        this.sizesOffset = buffer.getLong(position);
+        this.mtimesOffset = buffer.getLong(position + Long.BYTES);
+        this.checksumsOffset = buffer.getLong(position + 2 * Long.BYTES);
+        this.indexOffset = buffer.getLong(position + 3 * Long.BYTES);
+        this.directoriesOffset = buffer.getLong(position + 5 * Long.BYTES);
+        this.directoryCount = buffer.getInt(SnapshotFileFormat.DIRECTORY_COUNT_POSITION);
+
+        ByteBuffer header = buffer.duplicate().position(SnapshotFileFormat.FIXED_HEADER_SIZE);
+        this.rootDirectory = Path.of(SnapshotFileFormat.readString(header));
+        this.checksumAlgorithm = SnapshotFileFormat.readString(header);
+    }
+
+    public static MappedSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot file too large to map: " + file);
+            }
+            return new MappedSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    @Override
+    public Path getRootDirectory() {
+        return rootDirectory;
+    }
+
+    @Override
+    public Instant getCapturedAt() {
+        return capturedAt;
+    }
+
+    @Override
+    public String getChecksumAlgorithm() {
+        return checksumAlgorithm;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public FileMetadata find(Path path) {
+        if (path == null || count == 0 || !path.startsWith(rootDirectory)) {
+            return null;
+        }
+        String key = rootDirectory.relativize(path).toString();
+
+        int low = 0;
+        int high = (count - 1) / indexInterval;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (SnapshotOrder.compare(blockFirstPath(middle), key) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        Cursor cursor = new Cursor(low * indexInterval);
+        int end = Math.min(count, (low + 1) * indexInterval);
+        while (cursor.index < end) {
+            String relative = cursor.nextRelativePath();
+            int comparison = SnapshotOrder.compare(relative, key);
+            if (comparison == 0) {
+                return metadataAt(cursor.index - 1, path);
+            }
+            if (comparison > 0) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Iterator<FileMetadata> iterator() {
+        return iterator(0, count);
+    }
+
+    @Override
+    public Iterator<FileMetadata> iterator(int fromIndex, int toIndex) {
+        Cursor cursor = new Cursor(fromIndex - fromIndex % indexInterval);
+        while (cursor.index < fromIndex) {
+            cursor.nextRelativePath();
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.index < toIndex;
+            }
+
+            @Override
+            public FileMetadata next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Path path = rootDirectory.resolve(cursor.nextRelativePath());
+                return metadataAt(cursor.index - 1, path);
+            }
+        };
+    }
+
+    @Override
+    public DirectoryIndex getDirectories() {
+        return directoryCount == 0 ? null : this;
+    }
+
+    @Override
+    public int count() {
+        return directoryCount;
+    }
+
+    @Override
+    public String relativePath(int directory) {
+        int nameOffset = (int) buffer.getLong(directoryRecord(directory));
+        return SnapshotFileFormat.readString(buffer.duplicate().position(nameOffset));
+    }
+
+    @Override
+    public long digestHigh(int directory) {
+        return buffer.getLong(directoryRecord(directory) + Long.BYTES);
+    }
+
+    @Override
+    public long digestLow(int directory) {
+        return buffer.getLong(directoryRecord(directory) + 2 * Long.BYTES);
+    }
+
+    @Override
+    public int firstFile(int directory) {
+        return buffer.getInt(directoryRecord(directory) + 3 * Long.BYTES);
+    }
+
+    @Override
+    public int directFileEnd(int directory) {
+        return buffer.getInt(directoryRecord(directory) + 3 * Long.BYTES + Integer.BYTES);
+    }
+
+    @Override
+    public int fileEnd(int directory) {
+        return buffer.getInt(directoryRecord(directory) + 3 * Long.BYTES + 2 * Integer.BYTES);
+    }
+
+    @Override
+    public int subtreeEnd(int directory) {
+        return buffer.getInt(directoryRecord(directory) + 3 * Long.BYTES + 3 * Integer.BYTES);
+    }
+
+    private int directoryRecord(int directory) {
+        return (int) (directoriesOffset + (long) directory * SnapshotFileFormat.DIRECTORY_RECORD_SIZE);
+    }
+
+    private FileMetadata metadataAt(int index, Path path) {
+        int checksumPosition = (int) (checksumsOffset + (long) index * (1 + checksumWidth));
+        int checksumLength = buffer.get(checksumPosition) & 0xFF;
+        byte[] checksum = new byte[checksumLength];
+        buffer.get(checksumPosition + 1, checksum);
+
+        return FileMetadata.builder()
+                .path(path)
+                .size(buffer.getLong((int) (sizesOffset + (long) index * Long.BYTES)))
+                .lastModified(SnapshotFileFormat.fromNanos(buffer.getLong((int) (mtimesOffset + (long) index * Long.BYTES))))
+                .checksum(SnapshotFileFormat.formatChecksum(checksum, checksumLength))
+                .build();
+    }
+
+    private String blockFirstPath(int block) {
+        return new Cursor(block * indexInterval).nextRelativePath();
+    }
+
+    /**
+     * Sequential decoder that starts at an index block boundary and rebuilds each prefix-compressed
+     * path from the previous one.
+     */
+    private final class Cursor {
+
+        private final ByteBuffer paths = buffer.duplicate();
+        private byte[] current = new byte[256];
+        private int index;
+
+        private Cursor(int startIndex) {
+            this.index = startIndex;
+            if (startIndex < count) {
+                paths.position((int) buffer.getLong((int) (indexOffset + (long) (startIndex / indexInterval) * Long.BYTES)));
+            }
+        }
+
+        private String nextRelativePath() {
+            int shared = SnapshotFileFormat.readVarInt(paths);
+            int suffix = SnapshotFileFormat.readVarInt(paths);
+            if (shared + suffix > current.length) {
+                current = Arrays.copyOf(current, Math.max(shared + suffix, current.length * 2));
+            }
+            paths.get(current, shared, suffix);
+            index++;
+            return new String(current, 0, shared + suffix, StandardCharsets.UTF_8);
+        }
+    }
+}
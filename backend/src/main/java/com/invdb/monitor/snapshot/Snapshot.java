@@ -2,14 +2,57 @@ package com.invdb.monitor.snapshot;
 
 import java.nio.file.Path;
 import java.time.Instant;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.List;
 import lombok.Builder;
 import lombok.Value;
 
 @Value
 @Builder
-public class Snapshot {
+public class Snapshot implements SnapshotView {
     Path rootDirectory;
     Instant capturedAt;
-    Map<Path, FileMetadata> metadataByPath;
+    List<FileMetadata> entries;
+    String checksumAlgorithm;
+    DirectoryTree directories;
+    SnapshotStats stats;
+
+    @Override
+    public FileMetadata find(Path path) {
+        if (entries == null || path == null) {
+            return null;
+        }
+
+        String key = path.toString();
+        int low = 0;
+        int high = entries.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            FileMetadata candidate = entries.get(middle);
+            int comparison = SnapshotOrder.compare(candidate.getPath().toString(), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return entries == null ? 0 : entries.size();
+    }
+
+    @Override
+    public Iterator<FileMetadata> iterator() {
+        return entries == null ? List.<FileMetadata>of().iterator() : entries.iterator();
+    }
+
+    @Override
+    public Iterator<FileMetadata> iterator(int fromIndex, int toIndex) {
+        return entries.subList(fromIndex, toIndex).iterator();
+    }
 }
@@ -0,0 +1,95 @@
+package com.invdb.monitor.snapshot;
+
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.EventPublisher;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class SnapshotCatchUpService {
+
+    private final SnapshotService snapshotService;
+    private final SnapshotStore snapshotStore;
+    private final EventPublisher eventPublisher;
+    private final boolean enabled;
+    private volatile SnapshotDiffer.DiffResult lastResult;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-catch-up-thread");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SnapshotCatchUpService(
+            SnapshotService snapshotService,
+            SnapshotStore snapshotStore,
+            EventPublisher eventPublisher,
+            AppProperties appProperties) {
+        this.snapshotService = snapshotService;
+        this.snapshotStore = snapshotStore;
+        this.eventPublisher = eventPublisher;
+        this.enabled = appProperties.getSnapshot().isCatchUpOnStart();
+    }
+
+    public void onWatchStopped(Path root) {
+        if (!enabled) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                Optional<MappedSnapshot> previous = snapshotStore.loadLatest(root);
+                snapshotStore.save(snapshotService.createSnapshot(root, previous.orElse(null)));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to capture baseline snapshot for {}", root, e);
+            }
+        });
+    }
+
+    public void onWatchStarted(Path root) {
+        if (!enabled) {
+            return;
+        }
+        // Runs after any baseline queued by the preceding stop, since the executor is single threaded.
+        executor.execute(() -> {
+            try {
+                Optional<MappedSnapshot> baseline = snapshotStore.loadLatest(root);
+                Snapshot current = snapshotService.createSnapshot(root, baseline.orElse(null));
+                if (baseline.isPresent()) {
+                    SnapshotDiffer.DiffResult result =
+                            SnapshotDiffer.diff(baseline.get(), current, eventPublisher::publish);
+                    lastResult = result;
+                    log.info(
+                            "Changes under {} since {}: {} created, {} modified, {} deleted; "
+                                    + "{} directories compared, {} skipped in {}ms",
+                            root,
+                            baseline.get().getCapturedAt(),
+                            result.created(),
+                            result.modified(),
+                            result.deleted(),
+                            result.directoriesCompared(),
+                            result.directoriesSkipped(),
+                            result.elapsedMillis());
+                }
+                // Also persisted here so a restart without a clean stop still has a recent baseline.
+                snapshotStore.save(current);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to compare {} against its baseline snapshot", root, e);
+            }
+        });
+    }
+
+    public Optional<SnapshotDiffer.DiffResult> getLastResult() {
+        return Optional.ofNullable(lastResult);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
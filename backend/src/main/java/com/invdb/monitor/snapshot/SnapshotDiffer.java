@@ -0,0 +1,204 @@
+package com.invdb.monitor.snapshot;
+
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Compares two path-ordered entry streams with a single merge pass. Memory use does not depend on
+ * the size of either snapshot. When both snapshots carry directory digests, subtrees whose digests
+ * match are skipped without reading their entries.
+ */
+public final class SnapshotDiffer {
+
+    private SnapshotDiffer() {
+        // utility class
+    }
+
+    public static DiffResult diff(SnapshotView before, SnapshotView after, Consumer<FileEvent> sink) {
+        long startedAt = System.nanoTime();
+        Instant timestamp = after.getCapturedAt() == null ? Instant.now() : after.getCapturedAt();
+        Counts counts = new Counts(timestamp, sink);
+
+        DirectoryIndex beforeDirectories = before.getDirectories();
+        DirectoryIndex afterDirectories = after.getDirectories();
+        if (beforeDirectories != null
+                && afterDirectories != null
+                && before.getRootDirectory().equals(after.getRootDirectory())) {
+            diffDirectory(before, beforeDirectories, 0, after, afterDirectories, 0, counts);
+        } else {
+            merge(before.iterator(), after.iterator(), counts);
+        }
+        return counts.toResult(System.nanoTime() - startedAt);
+    }
+
+    public static DiffResult diff(
+            Iterator<FileMetadata> before, Iterator<FileMetadata> after, Instant timestamp, Consumer<FileEvent> sink) {
+        long startedAt = System.nanoTime();
+        Counts counts = new Counts(timestamp, sink);
+        merge(before, after, counts);
+        return counts.toResult(System.nanoTime() - startedAt);
+    }
+
+    static boolean isModified(FileMetadata before, FileMetadata after) {
+        if (before.getSize() != after.getSize() || !Objects.equals(before.getLastModified(), after.getLastModified())) {
+            return true;
+        }
+        return before.getChecksum() != null
+                && after.getChecksum() != null
+                && !before.getChecksum().equals(after.getChecksum());
+    }
+
+    static FileEvent toEvent(FileMetadata metadata, FileEventType eventType, Instant timestamp) {
+        return FileEvent.builder()
+                .path(metadata.getPath().toString())
+                .timestamp(timestamp)
+                .eventType(eventType)
+                .isHoneypotTriggered(false)
+                .build();
+    }
+
+    private static void diffDirectory(
+            SnapshotView before,
+            DirectoryIndex beforeDirectories,
+            int beforeDirectory,
+            SnapshotView after,
+            DirectoryIndex afterDirectories,
+            int afterDirectory,
+            Counts counts) {
+        if (beforeDirectories.digestHigh(beforeDirectory) == afterDirectories.digestHigh(afterDirectory)
+                && beforeDirectories.digestLow(beforeDirectory) == afterDirectories.digestLow(afterDirectory)) {
+            counts.directoriesSkipped += beforeDirectories.subtreeEnd(beforeDirectory) - beforeDirectory;
+            return;
+        }
+        counts.directoriesCompared++;
+
+        merge(
+                before.iterator(beforeDirectories.firstFile(beforeDirectory), beforeDirectories.directFileEnd(beforeDirectory)),
+                after.iterator(afterDirectories.firstFile(afterDirectory), afterDirectories.directFileEnd(afterDirectory)),
+                counts);
+
+        // Children follow their parent in pre-order; subtreeEnd jumps from one sibling to the next.
+        int beforeChild = beforeDirectory + 1;
+        int afterChild = afterDirectory + 1;
+        int beforeEnd = beforeDirectories.subtreeEnd(beforeDirectory);
+        int afterEnd = afterDirectories.subtreeEnd(afterDirectory);
+        while (beforeChild < beforeEnd || afterChild < afterEnd) {
+            int comparison;
+            if (beforeChild >= beforeEnd) {
+                comparison = 1;
+            } else if (afterChild >= afterEnd) {
+                comparison = -1;
+            } else {
+                comparison = SnapshotOrder.compare(
+                        beforeDirectories.relativePath(beforeChild), afterDirectories.relativePath(afterChild));
+            }
+
+            if (comparison < 0) {
+                emitAll(before, beforeDirectories, beforeChild, FileEventType.DELETED, counts);
+                beforeChild = beforeDirectories.subtreeEnd(beforeChild);
+            } else if (comparison > 0) {
+                emitAll(after, afterDirectories, afterChild, FileEventType.CREATED, counts);
+                afterChild = afterDirectories.subtreeEnd(afterChild);
+            } else {
+                diffDirectory(before, beforeDirectories, beforeChild, after, afterDirectories, afterChild, counts);
+                beforeChild = beforeDirectories.subtreeEnd(beforeChild);
+                afterChild = afterDirectories.subtreeEnd(afterChild);
+            }
+        }
+    }
+
+    private static void emitAll(
+            SnapshotView snapshot, DirectoryIndex directories, int directory, FileEventType eventType, Counts counts) {
+        Iterator<FileMetadata> entries =
+                snapshot.iterator(directories.firstFile(directory), directories.fileEnd(directory));
+        while (entries.hasNext()) {
+            counts.emit(entries.next(), eventType);
+        }
+    }
+
+    private static void merge(Iterator<FileMetadata> before, Iterator<FileMetadata> after, Counts counts) {
+        FileMetadata left = next(before);
+        FileMetadata right = next(after);
+        while (left != null || right != null) {
+            int comparison;
+            if (left == null) {
+                comparison = 1;
+            } else if (right == null) {
+                comparison = -1;
+            } else {
+                comparison = SnapshotOrder.compare(left.getPath().toString(), right.getPath().toString());
+            }
+
+            if (comparison < 0) {
+                counts.emit(left, FileEventType.DELETED);
+                left = next(before);
+            } else if (comparison > 0) {
+                counts.emit(right, FileEventType.CREATED);
+                right = next(after);
+            } else {
+                if (isModified(left, right)) {
+                    counts.emit(right, FileEventType.MODIFIED);
+                }
+                left = next(before);
+                right = next(after);
+            }
+        }
+    }
+
+    private static FileMetadata next(Iterator<FileMetadata> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static final class Counts {
+
+        private final Instant timestamp;
+        private final Consumer<FileEvent> sink;
+        private long created;
+        private long modified;
+        private long deleted;
+        private long directoriesCompared;
+        private long directoriesSkipped;
+
+        private Counts(Instant timestamp, Consumer<FileEvent> sink) {
+            this.timestamp = timestamp;
+            this.sink = sink;
+        }
+
+        private void emit(FileMetadata metadata, FileEventType eventType) {
+            sink.accept(toEvent(metadata, eventType, timestamp));
+            switch (eventType) {
+                case CREATED -> created++;
+                case MODIFIED -> modified++;
+                default -> deleted++;
+            }
+        }
+
+        private DiffResult toResult(long elapsedNanos) {
+            return new DiffResult(
+                    created,
+                    modified,
+                    deleted,
+                    directoriesCompared,
+                    directoriesSkipped,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    public record DiffResult(
+            long created,
+            long modified,
+            long deleted,
+            long directoriesCompared,
+            long directoriesSkipped,
+            long elapsedMillis) {
+
+        public long total() {
+            return created + modified + deleted;
+        }
+    }
+}
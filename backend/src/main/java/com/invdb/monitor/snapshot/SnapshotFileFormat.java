@@ -0,0 +1,221 @@
+package com.invdb.monitor.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Binary snapshot layout, in file order:
+ * <pre>
+ *   header   magic, version, entry count, index interval, checksum width, captured-at,
+ *            section offsets, root path, checksum algorithm
+ *   paths    per entry: varint shared-prefix length, varint suffix length, suffix bytes (UTF-8,
+ *            relative to the root); the prefix resets at the start of every index block
+ *   sizes    entry count x int64
+ *   mtimes   entry count x int64 (nanoseconds since the epoch)
+ *   checksum entry count x (1 length byte + checksum width bytes)
+ *   index    one int64 file offset per block of index-interval entries
+ *   dirnames per directory: int32 length + UTF-8 path relative to the root
+ *   dirs     per directory: int64 name offset, 128-bit digest, int32 first file,
+ *            direct file end, subtree file end and subtree directory end
+ * </pre>
+ * Entries are stored in {@link SnapshotOrder}, so lookups binary search the index and then decode
+ * at most one block.
+ */
+final class SnapshotFileFormat {
+
+    static final int MAGIC = 0x46424D53;
+    static final int VERSION = 2;
+    static final int INDEX_INTERVAL = 16;
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    static final int OFFSETS_POSITION = 32;
+    static final int OFFSET_COUNT = 7;
+    static final int DIRECTORY_COUNT_POSITION = OFFSETS_POSITION + OFFSET_COUNT * Long.BYTES;
+    static final int FIXED_HEADER_SIZE = DIRECTORY_COUNT_POSITION + Integer.BYTES;
+    static final int DIRECTORY_RECORD_SIZE = 3 * Long.BYTES + 4 * Integer.BYTES;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private SnapshotFileFormat() {
+        // utility class
+    }
+
+    static void write(SnapshotView snapshot, Path file) throws IOException {
+        Path root = snapshot.getRootDirectory();
+        int count = snapshot.size();
+        int checksumWidth = 0;
+        for (FileMetadata metadata : snapshot) {
+            if (metadata.getChecksum() != null) {
+                checksumWidth = Math.max(checksumWidth, metadata.getChecksum().length() / 2);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+
+            Instant capturedAt = snapshot.getCapturedAt() == null ? Instant.EPOCH : snapshot.getCapturedAt();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(INDEX_INTERVAL);
+            out.writeInt(checksumWidth);
+            out.writeLong(capturedAt.getEpochSecond());
+            out.writeInt(capturedAt.getNano());
+            for (int i = 0; i < OFFSET_COUNT; i++) {
+                out.writeLong(0L);
+            }
+            DirectoryIndex directories = snapshot.getDirectories();
+            int directoryCount = directories == null ? 0 : directories.count();
+            out.writeInt(directoryCount);
+            writeString(out, root.toString());
+            writeString(out, snapshot.getChecksumAlgorithm());
+
+            long[] blockOffsets = new long[(count + INDEX_INTERVAL - 1) / INDEX_INTERVAL];
+            long pathsOffset = out.size();
+            byte[] previous = new byte[0];
+            int index = 0;
+            for (FileMetadata metadata : snapshot) {
+                byte[] current = root.relativize(metadata.getPath()).toString().getBytes(StandardCharsets.UTF_8);
+                int shared = 0;
+                if (index % INDEX_INTERVAL == 0) {
+                    blockOffsets[index / INDEX_INTERVAL] = out.size();
+                } else {
+                    int limit = Math.min(previous.length, current.length);
+                    while (shared < limit && previous[shared] == current[shared]) {
+                        shared++;
+                    }
+                }
+                writeVarInt(out, shared);
+                writeVarInt(out, current.length - shared);
+                out.write(current, shared, current.length - shared);
+                previous = current;
+                index++;
+            }
+
+            long sizesOffset = out.size();
+            for (FileMetadata metadata : snapshot) {
+                out.writeLong(metadata.getSize());
+            }
+
+            long mtimesOffset = out.size();
+            for (FileMetadata metadata : snapshot) {
+                out.writeLong(toNanos(metadata.getLastModified()));
+            }
+
+            long checksumsOffset = out.size();
+            byte[] padding = new byte[checksumWidth];
+            for (FileMetadata metadata : snapshot) {
+                byte[] checksum = metadata.getChecksum() == null ? padding : HEX.parseHex(metadata.getChecksum());
+                int length = metadata.getChecksum() == null ? 0 : checksum.length;
+                out.writeByte(length);
+                out.write(checksum, 0, length);
+                out.write(padding, 0, checksumWidth - length);
+            }
+
+            long indexOffset = out.size();
+            for (long blockOffset : blockOffsets) {
+                out.writeLong(blockOffset);
+            }
+
+            long directoryNamesOffset = out.size();
+            long[] nameOffsets = new long[directoryCount];
+            for (int directory = 0; directory < directoryCount; directory++) {
+                nameOffsets[directory] = out.size();
+                writeString(out, directories.relativePath(directory));
+            }
+
+            long directoriesOffset = out.size();
+            for (int directory = 0; directory < directoryCount; directory++) {
+                out.writeLong(nameOffsets[directory]);
+                out.writeLong(directories.digestHigh(directory));
+                out.writeLong(directories.digestLow(directory));
+                out.writeInt(directories.firstFile(directory));
+                out.writeInt(directories.directFileEnd(directory));
+                out.writeInt(directories.fileEnd(directory));
+                out.writeInt(directories.subtreeEnd(directory));
+            }
+            out.flush();
+
+            if (out.size() == Integer.MAX_VALUE) {
+                throw new IOException("Snapshot file exceeds 2 GB: " + file);
+            }
+
+            ByteBuffer offsets = ByteBuffer.allocate(OFFSET_COUNT * Long.BYTES);
+            offsets.putLong(pathsOffset).putLong(sizesOffset).putLong(mtimesOffset);
+            offsets.putLong(checksumsOffset).putLong(indexOffset);
+            offsets.putLong(directoryNamesOffset).putLong(directoriesOffset);
+            offsets.flip();
+            channel.write(offsets, OFFSETS_POSITION);
+            channel.force(true);
+        }
+    }
+
+    static long toNanos(Instant instant) {
+        if (instant == null) {
+            return NO_TIMESTAMP;
+        }
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    static Instant fromNanos(long nanos) {
+        if (nanos == NO_TIMESTAMP) {
+            return null;
+        }
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    static String formatChecksum(byte[] checksum, int length) {
+        return length == 0 ? null : HEX.formatHex(checksum, 0, length);
+    }
+
+    static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,50 @@
+package com.invdb.monitor.snapshot;
+
+import java.io.File;
+import java.util.Comparator;
+
+/**
+ * Directory-major path order: a directory's own files sort before the contents of its
+ * subdirectories, and siblings sort by name. Every subtree is therefore one contiguous run of
+ * entries, which is what lets snapshot diffs merge and skip whole directories.
+ */
+public final class SnapshotOrder {
+
+    public static final Comparator<FileMetadata> BY_PATH =
+            (left, right) -> compare(left.getPath().toString(), right.getPath().toString());
+
+    private static final char SEPARATOR = File.separatorChar;
+
+    private SnapshotOrder() {
+        // utility class
+    }
+
+    public static int compare(String left, String right) {
+        int length = Math.min(left.length(), right.length());
+        int index = 0;
+        int lastSeparator = -1;
+        while (index < length && left.charAt(index) == right.charAt(index)) {
+            if (left.charAt(index) == SEPARATOR) {
+                lastSeparator = index;
+            }
+            index++;
+        }
+        if (index == left.length() && index == right.length()) {
+            return 0;
+        }
+
+        boolean leftNested = left.indexOf(SEPARATOR, lastSeparator + 1) >= 0;
+        boolean rightNested = right.indexOf(SEPARATOR, lastSeparator + 1) >= 0;
+        if (leftNested != rightNested) {
+            return leftNested ? 1 : -1;
+        }
+
+        if (index == left.length() || left.charAt(index) == SEPARATOR) {
+            return -1;
+        }
+        if (index == right.length() || right.charAt(index) == SEPARATOR) {
+            return 1;
+        }
+        return Character.compare(left.charAt(index), right.charAt(index));
+    }
+}
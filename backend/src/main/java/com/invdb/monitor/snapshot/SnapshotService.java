@@ -1,6 +1,19 @@
 package com.invdb.monitor.snapshot;
 
+import com.invdb.monitor.config.AppProperties;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -8,9 +21,168 @@ import org.springframework.stereotype.Service;
 @Service
 public class SnapshotService {
 
+    private static final int HDD_PARALLELISM = 2;
+
+    private final ContentHasher contentHasher;
+    private final ForkJoinPool walkPool;
+
+    public SnapshotService(AppProperties appProperties, ContentHasher contentHasher) {
+        this.contentHasher = contentHasher;
+        this.walkPool = new ForkJoinPool(resolveParallelism(appProperties.getSnapshot()));
+    }
+
     public Snapshot createSnapshot(Path directory) {
-        // TODO: Build snapshot structure using AVL-backed index in future phase.
-        log.debug("Snapshot creation placeholder for directory: {}", directory);
-        return null;
+        return createSnapshot(directory, null);
+    }
+
+    public Snapshot createSnapshot(Path directory, SnapshotView previous) {
+        Path root = directory.toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
+            throw new IllegalArgumentException("Path is not a directory: " + root);
+        }
+
+        Instant capturedAt = Instant.now();
+        long startedAt = System.nanoTime();
+
+        TreeWalkTask.WalkCounters counters = new TreeWalkTask.WalkCounters();
+        SnapshotView reusable = canReuseChecksums(previous) ? previous : null;
+        WorkerBuffers buffers = new WorkerBuffers();
+        walkPool.invoke(new TreeWalkTask(
+                root,
+                metadata -> buffers.current().add(
+                        withChecksum(metadata, reusable == null ? null : reusable.find(metadata.getPath()), counters)),
+                counters));
+        List<FileMetadata> entries = buffers.sorted();
+
+        SnapshotStats stats = toStats(counters, System.nanoTime() - startedAt);
+        log.info(
+                "Snapshot of {}: {} files in {} directories, {} bytes in {}ms ({} files/s, {} MB/s) parallelism={}",
+                root,
+                stats.fileCount(),
+                stats.directoryCount(),
+                stats.totalBytes(),
+                stats.elapsedMillis(),
+                Math.round(stats.filesPerSecond()),
+                Math.round(stats.bytesPerSecond() / (1024 * 1024)),
+                walkPool.getParallelism());
+        if (contentHasher.isEnabled()) {
+            log.info(
+                    "Snapshot checksums ({}): {} hashed, {} reused, {} bytes read at {} GB/s",
+                    contentHasher.describe(),
+                    stats.hashedFiles(),
+                    stats.reusedChecksums(),
+                    stats.hashedBytes(),
+                    String.format("%.2f", stats.hashGigabytesPerSecond()));
+        }
+
+        return Snapshot.builder()
+                .rootDirectory(root)
+                .capturedAt(capturedAt)
+                .entries(entries)
+                .directories(DirectoryTree.build(root, entries))
+                .checksumAlgorithm(contentHasher.isEnabled() ? contentHasher.describe() : null)
+                .stats(stats)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        walkPool.shutdownNow();
+    }
+
+    private boolean canReuseChecksums(SnapshotView previous) {
+        return previous != null
+                && contentHasher.isEnabled()
+                && Objects.equals(previous.getChecksumAlgorithm(), contentHasher.describe());
+    }
+
+    private FileMetadata withChecksum(FileMetadata metadata, FileMetadata previous, TreeWalkTask.WalkCounters counters) {
+        if (!contentHasher.isEnabled()) {
+            return metadata;
+        }
+
+        if (previous != null
+                && previous.getChecksum() != null
+                && previous.getSize() == metadata.getSize()
+                && Objects.equals(previous.getLastModified(), metadata.getLastModified())) {
+            counters.reusedChecksums.increment();
+            return metadata.toBuilder().checksum(previous.getChecksum()).build();
+        }
+
+        try {
+            String checksum = contentHasher.checksum(metadata.getPath(), metadata.getSize());
+            counters.hashedFiles.increment();
+            counters.hashedBytes.add(metadata.getSize());
+            return metadata.toBuilder().checksum(checksum).build();
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not hash {}", metadata.getPath(), e);
+            return metadata;
+        }
+    }
+
+    private SnapshotStats toStats(TreeWalkTask.WalkCounters counters, long elapsedNanos) {
+        long files = counters.files.sum();
+        long bytes = counters.bytes.sum();
+        long hashedBytes = counters.hashedBytes.sum();
+        double seconds = Math.max(1L, elapsedNanos) / 1_000_000_000d;
+        return new SnapshotStats(
+                files,
+                counters.directories.sum(),
+                bytes,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                files / seconds,
+                bytes / seconds,
+                counters.hashedFiles.sum(),
+                counters.reusedChecksums.sum(),
+                hashedBytes,
+                hashedBytes / seconds / 1_000_000_000d);
+    }
+
+    private int resolveParallelism(AppProperties.SnapshotProperties properties) {
+        if (properties.getParallelism() > 0) {
+            return properties.getParallelism();
+        }
+        if (properties.getStorage() == StorageType.HDD) {
+            // Concurrent directory reads on a spinning disk mostly add seeks.
+            return HDD_PARALLELISM;
+        }
+        // Metadata reads on flash are latency bound, so more threads than cores keep the device queue full.
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    /**
+     * One append-only list per walker thread, so collecting entries needs no shared lock; they are
+     * concatenated and sorted into snapshot order once the walk is done.
+     */
+    private static final class WorkerBuffers {
+
+        private final List<List<FileMetadata>> all = new CopyOnWriteArrayList<>();
+        private final ThreadLocal<List<FileMetadata>> local = ThreadLocal.withInitial(() -> {
+            List<FileMetadata> buffer = new ArrayList<>();
+            all.add(buffer);
+            return buffer;
+        });
+
+        private List<FileMetadata> current() {
+            return local.get();
+        }
+
+        private List<FileMetadata> sorted() {
+            int total = 0;
+            for (List<FileMetadata> buffer : all) {
+                total += buffer.size();
+            }
+
+            FileMetadata[] entries = new FileMetadata[total];
+            int offset = 0;
+            for (List<FileMetadata> buffer : all) {
+                for (FileMetadata metadata : buffer) {
+                    entries[offset++] = metadata;
+                }
+                buffer.clear();
+            }
+            Arrays.parallelSort(entries, SnapshotOrder.BY_PATH);
+            return Collections.unmodifiableList(Arrays.asList(entries));
+        }
     }
 }
@@ -0,0 +1,13 @@
+package com.invdb.monitor.snapshot;
+
+public record SnapshotStats(
+        long fileCount,
+        long directoryCount,
+        long totalBytes,
+        long elapsedMillis,
+        double filesPerSecond,
+        double bytesPerSecond,
+        long hashedFiles,
+        long reusedChecksums,
+        long hashedBytes,
+        double hashGigabytesPerSecond) {}
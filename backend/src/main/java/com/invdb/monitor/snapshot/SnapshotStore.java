@@ -0,0 +1,114 @@
+package com.invdb.monitor.snapshot;
+
+import com.invdb.monitor.config.AppProperties;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class SnapshotStore {
+
+    private static final String EXTENSION = ".snap";
+
+    private final Path storeDirectory;
+
+    public SnapshotStore(AppProperties appProperties) {
+        this.storeDirectory = Path.of(appProperties.getSnapshot().getStoreDirectory()).toAbsolutePath().normalize();
+    }
+
+    public void save(SnapshotView snapshot) throws IOException {
+        Files.createDirectories(storeDirectory);
+        String prefix = prefixFor(snapshot.getRootDirectory());
+        Path target = storeDirectory.resolve(prefix + snapshot.getCapturedAt().toEpochMilli() + EXTENSION);
+        Path temporary = storeDirectory.resolve(target.getFileName() + ".tmp");
+
+        SnapshotFileFormat.write(snapshot, temporary);
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteOlder(prefix, target);
+    }
+
+    public Optional<MappedSnapshot> loadLatest(Path root) {
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        List<Path> candidates = listFor(prefixFor(normalizedRoot));
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Path latest = candidates.get(candidates.size() - 1);
+        long startedAt = System.nanoTime();
+        try {
+            MappedSnapshot snapshot = MappedSnapshot.open(latest);
+            if (!snapshot.getRootDirectory().equals(normalizedRoot)) {
+                return Optional.empty();
+            }
+            log.info(
+                    "Loaded baseline snapshot {} ({} entries) in {}ms",
+                    latest.getFileName(),
+                    snapshot.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            return Optional.of(snapshot);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable snapshot file {}", latest, e);
+            return Optional.empty();
+        }
+    }
+
+    private void deleteOlder(String prefix, Path keep) {
+        for (Path candidate : listFor(prefix)) {
+            if (candidate.equals(keep)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(candidate);
+            } catch (IOException e) {
+                // Still mapped by a reader on platforms that lock mapped files; retried on the next save.
+                log.debug("Could not delete old snapshot file {}", candidate, e);
+            }
+        }
+    }
+
+    private List<Path> listFor(String prefix) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(storeDirectory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(storeDirectory, prefix + "*" + EXTENSION)) {
+            entries.forEach(files::add);
+        } catch (IOException e) {
+            log.warn("Could not list snapshot store {}", storeDirectory, e);
+        }
+        files.sort((left, right) -> Long.compare(capturedMillis(left, prefix), capturedMillis(right, prefix)));
+        return files;
+    }
+
+    private long capturedMillis(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private String prefixFor(Path root) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(root.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8) + "-";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
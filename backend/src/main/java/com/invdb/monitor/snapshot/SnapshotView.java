@@ -0,0 +1,22 @@
+package com.invdb.monitor.snapshot;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+
+public interface SnapshotView extends Iterable<FileMetadata> {
+
+    Path getRootDirectory();
+
+    Instant getCapturedAt();
+
+    String getChecksumAlgorithm();
+
+    int size();
+
+    FileMetadata find(Path path);
+
+    Iterator<FileMetadata> iterator(int fromIndex, int toIndex);
+
+    DirectoryIndex getDirectories();
+}
@@ -0,0 +1,6 @@
+package com.invdb.monitor.snapshot;
+
+public enum StorageType {
+    SSD,
+    HDD
+}
@@ -0,0 +1,79 @@
+package com.invdb.monitor.snapshot;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lists one directory, hands every regular file straight to the sink and forks a subtask per
+ * subdirectory, so idle workers steal whole subtrees and nothing is buffered between levels.
+ */
+@Slf4j
+final class TreeWalkTask extends RecursiveAction {
+
+    private final Path directory;
+    private final Consumer<FileMetadata> sink;
+    private final WalkCounters counters;
+
+    TreeWalkTask(Path directory, Consumer<FileMetadata> sink, WalkCounters counters) {
+        this.directory = directory;
+        this.sink = sink;
+        this.counters = counters;
+    }
+
+    @Override
+    protected void compute() {
+        counters.directories.increment();
+        List<TreeWalkTask> subdirectories = null;
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    continue;
+                }
+
+                if (attributes.isDirectory()) {
+                    if (subdirectories == null) {
+                        subdirectories = new ArrayList<>();
+                    }
+                    subdirectories.add(new TreeWalkTask(entry, sink, counters));
+                } else if (attributes.isRegularFile()) {
+                    counters.files.increment();
+                    counters.bytes.add(attributes.size());
+                    sink.accept(FileMetadata.builder()
+                            .path(entry)
+                            .size(attributes.size())
+                            .lastModified(attributes.lastModifiedTime().toInstant())
+                            .build());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Skipping unreadable directory {}", directory, e);
+        }
+
+        if (subdirectories != null) {
+            invokeAll(subdirectories);
+        }
+    }
+
+    static final class WalkCounters {
+        final LongAdder files = new LongAdder();
+        final LongAdder directories = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder hashedFiles = new LongAdder();
+        final LongAdder hashedBytes = new LongAdder();
+        final LongAdder reusedChecksums = new LongAdder();
+    }
+}
@@ -0,0 +1,289 @@
+package com.invdb.monitor.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.risk.RiskLevel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes processed events to Server-Sent Events subscribers. Events are collected for one flush
+ * interval, repeated MODIFIED events for the same path are collapsed, and each batch is serialized
+ * once and shared by every subscriber. A batch holds at most {@code maxBatchEvents}; events past
+ * that are dropped and the batch is followed by a {@link StreamGap} so clients can reload them.
+ * Every subscriber has a bounded queue of pending messages and is disconnected when it falls so far
+ * behind that the queue fills up.
+ */
+@Slf4j
+@Service
+public class LiveEventBroadcaster {
+
+    private static final String EVENTS = "events";
+    private static final String STATS = "stats";
+    private static final String GAP = "gap";
+
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final int subscriberBufferSize;
+    private final int maxBatchEvents;
+    private final long flushIntervalMs;
+    private final long statsIntervalMs;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Object pendingLock = new Object();
+    private List<FileEvent> pending = new ArrayList<>();
+    private Map<String, Integer> pendingModifications = new HashMap<>();
+    private long pendingDropped;
+    private long gapSequence;
+
+    private final LongAdder[] byEventType = newAdders(FileEventType.values().length);
+    private final LongAdder[] byRiskLevel = newAdders(RiskLevel.values().length);
+    private final LongAdder honeypotHits = new LongAdder();
+    private final long[] reportedByEventType = new long[FileEventType.values().length];
+    private final long[] reportedByRiskLevel = new long[RiskLevel.values().length];
+    private long reportedHoneypotHits;
+
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong truncated = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicInteger senderIds = new AtomicInteger();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "live-stream-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService senders;
+
+    public LiveEventBroadcaster(ObjectMapper objectMapper, AppProperties appProperties) {
+        AppProperties.StreamProperties properties = appProperties.getStream();
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = Math.max(1, properties.getMaxSubscribers());
+        this.subscriberBufferSize = Math.max(1, properties.getSubscriberBufferSize());
+        this.maxBatchEvents = Math.max(1, properties.getMaxBatchEvents());
+        this.flushIntervalMs = Math.max(10L, properties.getFlushIntervalMs());
+        this.statsIntervalMs = Math.max(flushIntervalMs, properties.getStatsIntervalMs());
+        this.senders = Executors.newFixedThreadPool(Math.max(1, properties.getSenderThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "live-stream-sender-" + senderIds.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::flushEvents, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushStats, statsIntervalMs, statsIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many live stream subscribers");
+        }
+
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, subscriberBufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public void publish(FileEvent event) {
+        if (event.getEventType() != null) {
+            byEventType[event.getEventType().ordinal()].increment();
+        }
+        if (event.getRiskLevel() != null) {
+            byRiskLevel[event.getRiskLevel().ordinal()].increment();
+        }
+        if (event.isHoneypotTriggered()) {
+            honeypotHits.increment();
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        synchronized (pendingLock) {
+            if (event.getEventType() == FileEventType.MODIFIED && event.getPath() != null) {
+                Integer position = pendingModifications.get(event.getPath());
+                if (position != null) {
+                    pending.set(position, event);
+                    coalesced.incrementAndGet();
+                    return;
+                }
+            }
+            if (pending.size() >= maxBatchEvents) {
+                // Clients reload the rest after the gap frame that follows this batch.
+                if (pendingDropped++ == 0) {
+                    gapSequence = event.getSequence() - 1;
+                }
+                truncated.incrementAndGet();
+                return;
+            }
+            if (event.getEventType() == FileEventType.MODIFIED && event.getPath() != null) {
+                pendingModifications.put(event.getPath(), pending.size());
+            }
+            pending.add(event);
+        }
+    }
+
+    public StreamStats getStats() {
+        return new StreamStats(subscribers.size(), coalesced.get(), truncated.get(), evicted.get());
+    }
+
+    private void flushEvents() {
+        List<FileEvent> batch;
+        long dropped;
+        long lastSequence;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            dropped = pendingDropped;
+            lastSequence = gapSequence;
+            pending = new ArrayList<>(Math.min(batch.size(), maxBatchEvents));
+            pendingModifications = new HashMap<>();
+            pendingDropped = 0;
+        }
+        broadcast(EVENTS, batch);
+        if (dropped > 0) {
+            broadcast(GAP, new StreamGap(lastSequence, dropped));
+        }
+    }
+
+    private void flushStats() {
+        Map<FileEventType, Long> eventTypes = new EnumMap<>(FileEventType.class);
+        long events = 0;
+        for (FileEventType type : FileEventType.values()) {
+            long total = byEventType[type.ordinal()].sum();
+            long delta = total - reportedByEventType[type.ordinal()];
+            reportedByEventType[type.ordinal()] = total;
+            eventTypes.put(type, delta);
+            events += delta;
+        }
+        Map<RiskLevel, Long> riskLevels = new EnumMap<>(RiskLevel.class);
+        for (RiskLevel level : RiskLevel.values()) {
+            long total = byRiskLevel[level.ordinal()].sum();
+            riskLevels.put(level, total - reportedByRiskLevel[level.ordinal()]);
+            reportedByRiskLevel[level.ordinal()] = total;
+        }
+        long honeypot = honeypotHits.sum();
+        long honeypotDelta = honeypot - reportedHoneypotHits;
+        reportedHoneypotHits = honeypot;
+
+        // Also serves as a keep-alive for idle connections.
+        broadcast(STATS, new StreamDelta(Instant.now(), events, eventTypes, riskLevels, honeypotDelta, subscribers.size()));
+    }
+
+    private void broadcast(String name, Object payload) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize live stream {} message", name, e);
+            return;
+        }
+
+        Message message = new Message(name, json);
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(message)) {
+                evict(subscriber, "fell " + subscriberBufferSize + " messages behind");
+                continue;
+            }
+            if (subscriber.draining.compareAndSet(false, true)) {
+                senders.execute(() -> drain(subscriber));
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Message message;
+            while ((message = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name(message.name())
+                        .data(message.json(), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            evict(subscriber, "disconnected");
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // A message offered after the last poll but before the flag was cleared would otherwise wait.
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void evict(Subscriber subscriber, String reason) {
+        if (subscribers.remove(subscriber)) {
+            evicted.incrementAndGet();
+            subscriber.queue.clear();
+            log.info("Dropping live stream subscriber that {}", reason);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static LongAdder[] newAdders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    private record Message(String name, String json) {}
+}
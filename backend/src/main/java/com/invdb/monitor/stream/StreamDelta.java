@@ -0,0 +1,17 @@
+package com.invdb.monitor.stream;
+
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.risk.RiskLevel;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Counts accumulated since the previous delta, sent periodically to every live subscriber.
+ */
+public record StreamDelta(
+        Instant at,
+        long events,
+        Map<FileEventType, Long> byEventType,
+        Map<RiskLevel, Long> byRiskLevel,
+        long honeypotHits,
+        int subscribers) {}
@@ -0,0 +1,7 @@
+package com.invdb.monitor.stream;
+
+/**
+ * Sent after a batch that had to drop events. Subscribers reload everything after
+ * {@code lastSequence}, the sequence just before the first dropped event, from {@code /events}.
+ */
+public record StreamGap(long lastSequence, long dropped) {}
@@ -0,0 +1,3 @@
+package com.invdb.monitor.stream;
+
+public record StreamStats(int subscribers, long coalesced, long truncated, long evicted) {}
@@ -1,20 +1,49 @@
 package com.invdb.monitor.watcher;
 
+import com.invdb.monitor.behavior.BehaviorAnalyzer;
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.CoalesceStats;
+import com.invdb.monitor.event.DedupStats;
+import com.invdb.monitor.event.EventPipelineService;
 import com.invdb.monitor.event.EventPublisher;
 import com.invdb.monitor.event.FileEvent;
 import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.event.PublisherStats;
 import com.invdb.monitor.honeypot.HoneypotDeploymentService;
+import com.invdb.monitor.journal.EventJournal;
+import com.invdb.monitor.journal.JournalStats;
+import com.invdb.monitor.metrics.PipelineMetrics;
+import com.invdb.monitor.metrics.PipelineStage;
+import com.invdb.monitor.metrics.PipelineStats;
+import com.invdb.monitor.metrics.StageLatency;
+import com.invdb.monitor.snapshot.SnapshotCatchUpService;
+import com.invdb.monitor.stream.LiveEventBroadcaster;
+import com.invdb.monitor.stream.StreamStats;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -22,24 +51,60 @@ import org.springframework.stereotype.Service;
 @Service
 public class FileWatcherService {
 
+    private static final long RESCAN_POLL_MS = 100;
+
     private final EventPublisher eventPublisher;
+    private final EventPipelineService eventPipelineService;
+    private final BehaviorAnalyzer behaviorAnalyzer;
     private final HoneypotDeploymentService honeypotDeploymentService;
+    private final SnapshotCatchUpService snapshotCatchUpService;
+    private final EventJournal eventJournal;
+    private final LiveEventBroadcaster liveEventBroadcaster;
+    private final PipelineMetrics pipelineMetrics;
+    private final boolean recursive;
+    private final int registrationParallelism;
+    private final AppProperties.WatcherProperties watcherProperties;
 
     private final Object lifecycleLock = new Object();
     private final WatchStatus status = new WatchStatus();
     private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> keysByDirectory = new ConcurrentHashMap<>();
     private volatile boolean running;
     private WatchService watchService;
     private Thread watcherThread;
+    private volatile ForkJoinPool registrationPool;
+    private volatile OverflowRescanner overflowRescanner;
 
-    public FileWatcherService(EventPublisher eventPublisher, HoneypotDeploymentService honeypotDeploymentService) {
+    public FileWatcherService(
+            EventPublisher eventPublisher,
+            EventPipelineService eventPipelineService,
+            BehaviorAnalyzer behaviorAnalyzer,
+            HoneypotDeploymentService honeypotDeploymentService,
+            SnapshotCatchUpService snapshotCatchUpService,
+            EventJournal eventJournal,
+            LiveEventBroadcaster liveEventBroadcaster,
+            PipelineMetrics pipelineMetrics,
+            AppProperties appProperties) {
         this.eventPublisher = eventPublisher;
+        this.eventPipelineService = eventPipelineService;
+        this.behaviorAnalyzer = behaviorAnalyzer;
         this.honeypotDeploymentService = honeypotDeploymentService;
+        this.snapshotCatchUpService = snapshotCatchUpService;
+        this.eventJournal = eventJournal;
+        this.liveEventBroadcaster = liveEventBroadcaster;
+        this.pipelineMetrics = pipelineMetrics;
+        this.watcherProperties = appProperties.getWatcher();
+        this.recursive = watcherProperties.isRecursive();
+        int configuredParallelism = watcherProperties.getRegistrationParallelism();
+        this.registrationParallelism = configuredParallelism > 0
+                ? configuredParallelism
+                : Runtime.getRuntime().availableProcessors();
         this.status.setRunning(false);
         this.status.setDirectory(null);
         this.status.setStartedAt(null);
         this.status.setTotalEventsProcessed(0L);
         this.running = false;
+        this.overflowRescanner = newOverflowRescanner();
     }
 
     public void startWatching(Path directory) {
@@ -56,10 +121,22 @@ public class FileWatcherService {
 
             try {
                 watchService = FileSystems.getDefault().newWatchService();
+                registrationPool = new ForkJoinPool(registrationParallelism);
+                overflowRescanner = newOverflowRescanner();
+                behaviorAnalyzer.reset(normalizedDirectory);
                 registerDirectory(normalizedDirectory, watchService);
+                if (!recursive) {
+                    recordListing(normalizedDirectory);
+                }
 
                 running = true;
-                watcherThread = new Thread(() -> watchLoop(watchService), "file-watch-service-thread");
+                WatchService currentWatchService = watchService;
+                watcherThread = new Thread(
+                        () -> {
+                            registerSubdirectories(normalizedDirectory, currentWatchService);
+                            watchLoop(currentWatchService);
+                        },
+                        "file-watch-service-thread");
                 watcherThread.setDaemon(true);
                 watcherThread.start();
 
@@ -67,20 +144,25 @@ public class FileWatcherService {
                 status.setDirectory(normalizedDirectory.toString());
                 status.setStartedAt(Instant.now());
                 status.setTotalEventsProcessed(0L);
+                status.setRegistrationComplete(!recursive);
+                status.setRegistrationMillis(0L);
 
                 honeypotDeploymentService.deploy(normalizedDirectory);
                 Path trapFolder = honeypotDeploymentService.resolveTrapFolder(normalizedDirectory);
                 if (Files.isDirectory(trapFolder)) {
                     registerDirectory(trapFolder, watchService);
+                    recordListing(trapFolder);
                 }
 
+                snapshotCatchUpService.onWatchStarted(normalizedDirectory);
                 log.info("Started watching directory: {}", normalizedDirectory);
             } catch (Exception e) {
                 running = false;
                 closeQuietly(watchService);
                 watchService = null;
                 watcherThread = null;
-                watchedDirectories.clear();
+                shutdownRegistrationPool();
+                clearRegistrations();
                 status.setRunning(false);
                 status.setDirectory(null);
                 status.setStartedAt(null);
@@ -97,6 +179,55 @@ public class FileWatcherService {
             watchStatus.setDirectory(status.getDirectory());
             watchStatus.setStartedAt(status.getStartedAt());
             watchStatus.setTotalEventsProcessed(status.getTotalEventsProcessed());
+            watchStatus.setWatchedDirectories(keysByDirectory.size());
+            watchStatus.setRegistrationComplete(status.isRegistrationComplete());
+            watchStatus.setRegistrationMillis(status.getRegistrationMillis());
+
+            OverflowRescanner rescanner = overflowRescanner;
+            if (rescanner != null) {
+                watchStatus.setOverflowCount(rescanner.overflowCount());
+                watchStatus.setRescanCount(rescanner.rescanCount());
+                watchStatus.setRescanEventsSynthesized(rescanner.synthesizedEventCount());
+                watchStatus.setPendingRescans(rescanner.pendingCount());
+            }
+
+            snapshotCatchUpService.getLastResult().ifPresent(result -> {
+                watchStatus.setCatchUpChanges(result.total());
+                watchStatus.setCatchUpDirectoriesCompared(result.directoriesCompared());
+                watchStatus.setCatchUpDirectoriesSkipped(result.directoriesSkipped());
+                watchStatus.setCatchUpComparisonMillis(result.elapsedMillis());
+            });
+
+            PublisherStats publisherStats = eventPublisher.getStats();
+            watchStatus.setQueueDepth(publisherStats.queueDepth());
+            watchStatus.setQueueCapacity(publisherStats.queueCapacity());
+            watchStatus.setEventsDropped(publisherStats.dropped());
+            watchStatus.setEventsCoalesced(publisherStats.coalesced());
+
+            DedupStats dedupStats = eventPipelineService.getDedupStats();
+            watchStatus.setDedupEntries(dedupStats.size());
+            watchStatus.setDedupHitRate(dedupStats.hitRate());
+            CoalesceStats coalesceStats = eventPipelineService.getCoalesceStats();
+            watchStatus.setCoalescePending(coalesceStats.pending());
+            watchStatus.setCoalesceMerged(coalesceStats.merged());
+            watchStatus.setCoalesceFolded(coalesceStats.folded());
+            watchStatus.setRenamesDetected(eventPipelineService.getRenameStats().renames());
+
+            JournalStats journalStats = eventJournal.getStats();
+            watchStatus.setJournalEventsWritten(journalStats.written());
+            watchStatus.setJournalPending(journalStats.pending());
+
+            StreamStats streamStats = liveEventBroadcaster.getStats();
+            watchStatus.setStreamSubscribers(streamStats.subscribers());
+            watchStatus.setStreamEvictions(streamStats.evicted());
+
+            PipelineStats pipelineStats = pipelineMetrics.getStats(publisherStats);
+            StageLatency endToEnd = pipelineStats.stage(PipelineStage.END_TO_END);
+            PipelineStage slowestStage = pipelineStats.slowestStage();
+            watchStatus.setEventsPerSecond(pipelineStats.eventsPerSecond());
+            watchStatus.setPipelineP50Micros(endToEnd.p50Micros());
+            watchStatus.setPipelineP99Micros(endToEnd.p99Micros());
+            watchStatus.setSlowestStage(slowestStage == null ? null : slowestStage.name());
             return watchStatus;
         }
     }
@@ -104,26 +235,34 @@ public class FileWatcherService {
     public void stopWatching() {
         synchronized (lifecycleLock) {
             String watchedDirectory = status.getDirectory();
+            boolean wasRunning = status.isRunning();
             running = false;
             closeQuietly(watchService);
             watchService = null;
-            watchedDirectories.clear();
+            shutdownRegistrationPool();
+            clearRegistrations();
             if (watcherThread != null && watcherThread.isAlive()) {
                 watcherThread.interrupt();
             }
             watcherThread = null;
             if (watchedDirectory != null) {
                 honeypotDeploymentService.cleanup(Path.of(watchedDirectory));
+                if (wasRunning) {
+                    snapshotCatchUpService.onWatchStopped(Path.of(watchedDirectory));
+                }
             }
             status.setRunning(false);
         }
     }
 
     private void watchLoop(WatchService watcherService) {
+        OverflowRescanner rescanner = overflowRescanner;
         while (running) {
             WatchKey key;
             try {
-                key = watcherService.take();
+                key = rescanner != null && rescanner.hasPending()
+                        ? watcherService.poll(RESCAN_POLL_MS, TimeUnit.MILLISECONDS)
+                        : watcherService.take();
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 log.info("Watcher thread interrupted");
@@ -136,6 +275,15 @@ public class FileWatcherService {
                 log.error("Unexpected watcher error", e);
                 break;
             }
+            long receivedAt = pipelineMetrics.now();
+
+            if (rescanner != null) {
+                rescanner.runDue(System.currentTimeMillis(),
+                        (type, path) -> handleChange(type, path, pipelineMetrics.now(), watcherService));
+            }
+            if (key == null) {
+                continue;
+            }
 
             Path parentDirectory = watchedDirectories.get(key);
             if (parentDirectory == null) {
@@ -147,6 +295,9 @@ public class FileWatcherService {
                 WatchEvent.Kind<?> kind = event.kind();
                 if (kind == StandardWatchEventKinds.OVERFLOW) {
                     log.warn("WatchService overflow for directory: {}", parentDirectory);
+                    if (rescanner != null) {
+                        rescanner.onOverflow(parentDirectory);
+                    }
                     continue;
                 }
 
@@ -157,21 +308,19 @@ public class FileWatcherService {
                     continue;
                 }
 
-                FileEvent fileEvent = FileEvent.builder()
-                        .path(absolutePath.toString())
-                        .timestamp(Instant.now())
-                        .eventType(eventType)
-                        .isHoneypotTriggered(false)
-                        .build();
-                eventPublisher.publish(fileEvent);
-                synchronized (lifecycleLock) {
-                    status.setTotalEventsProcessed(status.getTotalEventsProcessed() + 1);
+                if (rescanner != null) {
+                    rescanner.onEvent(eventType, absolutePath);
                 }
+                // Registering a new directory is timed on its own, so it is not charged to later events.
+                receivedAt = handleChange(eventType, absolutePath, receivedAt, watcherService);
             }
 
             boolean valid = key.reset();
             if (!valid) {
                 Path removed = watchedDirectories.remove(key);
+                if (removed != null) {
+                    keysByDirectory.remove(removed, key);
+                }
                 log.warn("Watch key no longer valid for directory: {}", removed);
                 if (watchedDirectories.isEmpty()) {
                     break;
@@ -186,7 +335,9 @@ public class FileWatcherService {
                 status.setRunning(false);
                 running = false;
             }
-            watchedDirectories.clear();
+            if (watcherService == watchService || watchService == null) {
+                clearRegistrations();
+            }
             if (Thread.currentThread() == watcherThread) {
                 watcherThread = null;
             }
@@ -206,13 +357,174 @@ public class FileWatcherService {
         return null;
     }
 
+    /**
+     * Publishes the change and returns the start time for the next event from the same key: the
+     * time any directory registration it caused ended, otherwise {@code receivedAt}.
+     */
+    private long handleChange(FileEventType eventType, Path absolutePath, long receivedAt, WatchService watcherService) {
+        FileEvent fileEvent = FileEvent.builder()
+                .path(absolutePath.toString())
+                .timestamp(Instant.now())
+                .eventType(eventType)
+                .isHoneypotTriggered(false)
+                .receivedNanos(receivedAt)
+                .build();
+        publish(fileEvent);
+        pipelineMetrics.record(PipelineStage.WATCH_TO_ENQUEUE, receivedAt);
+
+        if (recursive) {
+            long registeredAt = trackDirectoryChange(eventType, absolutePath, watcherService);
+            if (registeredAt != 0L) {
+                return registeredAt;
+            }
+        }
+        return receivedAt;
+    }
+
+    private void publish(FileEvent fileEvent) {
+        eventPublisher.publish(fileEvent);
+        synchronized (lifecycleLock) {
+            status.setTotalEventsProcessed(status.getTotalEventsProcessed() + 1);
+        }
+    }
+
+    /**
+     * Follows directories being created and removed, returning when registration of a new one
+     * ended, or 0 if nothing was registered or timing is off.
+     */
+    private long trackDirectoryChange(FileEventType eventType, Path path, WatchService watcherService) {
+        if (eventType == FileEventType.DELETED) {
+            if (unregister(path)) {
+                // A directory moved elsewhere keeps its nested keys valid, still reporting under the old
+                // paths, so drop the whole subtree rather than waiting for keys to fail their reset.
+                for (Path directory : keysByDirectory.keySet()) {
+                    if (directory.startsWith(path)) {
+                        unregister(directory);
+                    }
+                }
+            }
+            return 0L;
+        }
+
+        if (eventType != FileEventType.CREATED || !Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            return 0L;
+        }
+
+        long start = pipelineMetrics.now();
+        // Entries written before the new directory was registered produced no watch events, so report them now.
+        Queue<Path> discovered = new ConcurrentLinkedQueue<>();
+        long registered = registerTree(path, watcherService, discovered::add);
+        for (Path entry : discovered) {
+            publish(FileEvent.builder()
+                    .path(entry.toString())
+                    .timestamp(Instant.now())
+                    .eventType(FileEventType.CREATED)
+                    .isHoneypotTriggered(false)
+                    .build());
+        }
+        log.debug("Registered {} new directories under {}", registered, path);
+        return pipelineMetrics.record(PipelineStage.DIRECTORY_REGISTRATION, start);
+    }
+
+    private void registerSubdirectories(Path root, WatchService watcherService) {
+        if (!recursive) {
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        long registered = registerTree(root, watcherService, null);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        synchronized (lifecycleLock) {
+            if (watcherService == watchService) {
+                status.setRegistrationComplete(true);
+                status.setRegistrationMillis(elapsedMillis);
+            }
+        }
+        log.info(
+                "Registered {} directories under {} in {}ms ({} watch keys)",
+                registered,
+                root,
+                elapsedMillis,
+                keysByDirectory.size());
+    }
+
+    private void shutdownRegistrationPool() {
+        if (registrationPool != null) {
+            registrationPool.shutdownNow();
+            registrationPool = null;
+        }
+    }
+
+    private boolean unregister(Path directory) {
+        WatchKey key = keysByDirectory.remove(directory);
+        if (key == null) {
+            return false;
+        }
+        watchedDirectories.remove(key);
+        key.cancel();
+        return true;
+    }
+
+    private long registerTree(Path root, WatchService watcherService, Consumer<Path> discovered) {
+        ForkJoinPool pool = registrationPool;
+        if (pool == null) {
+            return 0L;
+        }
+        RegisterTreeTask task = new RegisterTreeTask(root, watcherService, discovered);
+        try {
+            pool.invoke(task);
+        } catch (RejectedExecutionException | CancellationException e) {
+            // Watching stopped and the pool was shut down.
+            return 0L;
+        }
+        return task.registeredCount();
+    }
+
+    private OverflowRescanner newOverflowRescanner() {
+        if (!watcherProperties.isOverflowRescan()) {
+            return null;
+        }
+        return new OverflowRescanner(
+                watcherProperties.getRescanMinIntervalMs(), watcherProperties.getMaxRescansPerSecond());
+    }
+
+    private void recordListing(Path directory) {
+        OverflowRescanner rescanner = overflowRescanner;
+        if (rescanner == null) {
+            return;
+        }
+
+        Map<String, OverflowRescanner.EntryState> listing = new HashMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                listing.put(
+                        entry.getFileName().toString(),
+                        OverflowRescanner.stateOf(
+                                Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)));
+            }
+            rescanner.record(directory, listing);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not record listing for {}", directory, e);
+        }
+    }
+
     private void registerDirectory(Path directory, WatchService currentWatchService) throws IOException {
+        if (keysByDirectory.containsKey(directory)) {
+            return;
+        }
         WatchKey key = directory.register(
                 currentWatchService,
                 StandardWatchEventKinds.ENTRY_CREATE,
                 StandardWatchEventKinds.ENTRY_MODIFY,
                 StandardWatchEventKinds.ENTRY_DELETE);
         watchedDirectories.put(key, directory);
+        keysByDirectory.put(directory, key);
+    }
+
+    private void clearRegistrations() {
+        watchedDirectories.clear();
+        keysByDirectory.clear();
     }
 
     private void closeQuietly(WatchService watchService) {
@@ -225,4 +537,74 @@ public class FileWatcherService {
             log.debug("Error while closing watch service", e);
         }
     }
+
+    private final class RegisterTreeTask extends RecursiveAction {
+
+        private final Path directory;
+        private final WatchService watcherService;
+        private final Consumer<Path> discovered;
+        private long registered;
+        private final List<RegisterTreeTask> children = new ArrayList<>();
+
+        private RegisterTreeTask(Path directory, WatchService watcherService, Consumer<Path> discovered) {
+            this.directory = directory;
+            this.watcherService = watcherService;
+            this.discovered = discovered;
+        }
+
+        @Override
+        protected void compute() {
+            if (!running) {
+                return;
+            }
+
+            try {
+                registerDirectory(directory, watcherService);
+                registered = 1;
+            } catch (IOException | RuntimeException e) {
+                log.debug("Skipping directory that could not be registered: {}", directory, e);
+                return;
+            }
+
+            OverflowRescanner rescanner = overflowRescanner;
+            Map<String, OverflowRescanner.EntryState> listing = rescanner == null ? null : new HashMap<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    Path absoluteEntry = entry.toAbsolutePath().normalize();
+                    if (discovered != null) {
+                        discovered.accept(absoluteEntry);
+                    }
+
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(
+                                absoluteEntry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    if (listing != null) {
+                        listing.put(absoluteEntry.getFileName().toString(), OverflowRescanner.stateOf(attributes));
+                    }
+                    if (attributes.isDirectory()) {
+                        children.add(new RegisterTreeTask(absoluteEntry, watcherService, discovered));
+                    }
+                }
+                if (listing != null) {
+                    rescanner.record(directory, listing);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Could not list directory {}", directory, e);
+            }
+
+            invokeAll(children);
+        }
+
+        private long registeredCount() {
+            long total = registered;
+            for (RegisterTreeTask child : children) {
+                total += child.registeredCount();
+            }
+            return total;
+        }
+    }
 }
@@ -0,0 +1,187 @@
+package com.invdb.monitor.watcher;
+
+import com.invdb.monitor.event.FileEventType;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps a size + mtime listing per watched directory so an OVERFLOW can be recovered by rescanning
+ * just the affected directory and reporting the difference. Rescans are rate limited per directory
+ * and globally; directories that overflow again too soon are queued and rescanned later.
+ */
+@Slf4j
+final class OverflowRescanner {
+
+    private static final EntryState UNKNOWN = new EntryState(-1L, -1L, false);
+
+    private final long minIntervalMillis;
+    private final int maxRescansPerSecond;
+
+    private final Map<Path, Map<String, EntryState>> listings = new ConcurrentHashMap<>();
+    private final Map<Path, Long> lastRescanAt = new HashMap<>();
+    private final Set<Path> pending = new LinkedHashSet<>();
+    private long budgetWindowStart;
+    private int rescansInWindow;
+    private volatile int pendingSize;
+
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong rescans = new AtomicLong();
+    private final AtomicLong synthesizedEvents = new AtomicLong();
+
+    OverflowRescanner(long minIntervalMillis, int maxRescansPerSecond) {
+        this.minIntervalMillis = Math.max(0L, minIntervalMillis);
+        this.maxRescansPerSecond = Math.max(1, maxRescansPerSecond);
+    }
+
+    static EntryState stateOf(BasicFileAttributes attributes) {
+        return new EntryState(attributes.size(), attributes.lastModifiedTime().toMillis(), attributes.isDirectory());
+    }
+
+    void record(Path directory, Map<String, EntryState> listing) {
+        listings.put(directory, listing);
+    }
+
+    void onEvent(FileEventType eventType, Path path) {
+        Path parent = path.getParent();
+        Map<String, EntryState> listing = parent == null ? null : listings.get(parent);
+        if (listing == null) {
+            return;
+        }
+
+        String name = path.getFileName().toString();
+        if (eventType == FileEventType.DELETED) {
+            listing.remove(name);
+            forget(path);
+        } else {
+            // Already reported; the next rescan refreshes the state without emitting a MODIFIED for it.
+            listing.put(name, UNKNOWN);
+        }
+    }
+
+    void onOverflow(Path directory) {
+        overflows.incrementAndGet();
+        pending.add(directory);
+        pendingSize = pending.size();
+    }
+
+    boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    void runDue(long nowMillis, BiConsumer<FileEventType, Path> changes) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        if (nowMillis - budgetWindowStart >= 1000L) {
+            budgetWindowStart = nowMillis;
+            rescansInWindow = 0;
+        }
+
+        Iterator<Path> iterator = pending.iterator();
+        while (iterator.hasNext() && rescansInWindow < maxRescansPerSecond) {
+            Path directory = iterator.next();
+            Long last = lastRescanAt.get(directory);
+            if (last != null && nowMillis - last < minIntervalMillis) {
+                continue;
+            }
+
+            iterator.remove();
+            lastRescanAt.put(directory, nowMillis);
+            rescansInWindow++;
+            rescan(directory, changes);
+        }
+        pendingSize = pending.size();
+    }
+
+    long overflowCount() {
+        return overflows.get();
+    }
+
+    long rescanCount() {
+        return rescans.get();
+    }
+
+    long synthesizedEventCount() {
+        return synthesizedEvents.get();
+    }
+
+    int pendingCount() {
+        return pendingSize;
+    }
+
+    private void rescan(Path directory, BiConsumer<FileEventType, Path> changes) {
+        Map<String, EntryState> previous = listings.get(directory);
+        Map<String, EntryState> current = new HashMap<>(previous == null ? 16 : previous.size() * 2);
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                try {
+                    current.put(
+                            entry.getFileName().toString(),
+                            stateOf(Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)));
+                } catch (NoSuchFileException e) {
+                    // Removed between listing and stat; treated as absent.
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Overflow rescan failed for {}", directory, e);
+            return;
+        }
+
+        rescans.incrementAndGet();
+        listings.put(directory, current);
+        if (previous == null) {
+            return;
+        }
+
+        long synthesized = 0;
+        for (Map.Entry<String, EntryState> entry : current.entrySet()) {
+            EntryState before = previous.get(entry.getKey());
+            if (before == null) {
+                changes.accept(FileEventType.CREATED, directory.resolve(entry.getKey()));
+                synthesized++;
+            } else if (before != UNKNOWN && !before.directory() && !before.equals(entry.getValue())) {
+                changes.accept(FileEventType.MODIFIED, directory.resolve(entry.getKey()));
+                synthesized++;
+            }
+        }
+        for (String name : previous.keySet()) {
+            if (!current.containsKey(name)) {
+                Path removed = directory.resolve(name);
+                forget(removed);
+                changes.accept(FileEventType.DELETED, removed);
+                synthesized++;
+            }
+        }
+
+        synthesizedEvents.addAndGet(synthesized);
+        log.info("Overflow rescan of {} reported {} changes", directory, synthesized);
+    }
+
+    /**
+     * Drops the listings of a removed directory and everything under it; a directory moved away
+     * takes its whole subtree with it.
+     */
+    private void forget(Path removed) {
+        if (listings.remove(removed) != null) {
+            listings.keySet().removeIf(directory -> directory.startsWith(removed));
+        }
+    }
+
+    record EntryState(long size, long modifiedMillis, boolean directory) {}
+}
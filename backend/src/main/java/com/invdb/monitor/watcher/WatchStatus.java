@@ -0,0 +1,41 @@
+package com.invdb.monitor.watcher;
+
+import java.time.Instant;
+import lombok.Data;
+
+@Data
+public class WatchStatus {
+    private boolean running;
+    private String directory;
+    private Instant startedAt;
+    private long totalEventsProcessed;
+    private int queueDepth;
+    private int queueCapacity;
+    private long eventsDropped;
+    private long eventsCoalesced;
+    private int dedupEntries;
+    private double dedupHitRate;
+    private int coalescePending;
+    private long coalesceMerged;
+    private long coalesceFolded;
+    private long renamesDetected;
+    private int watchedDirectories;
+    private boolean registrationComplete;
+    private long registrationMillis;
+    private long overflowCount;
+    private long rescanCount;
+    private long rescanEventsSynthesized;
+    private int pendingRescans;
+    private long catchUpChanges;
+    private long catchUpDirectoriesCompared;
+    private long catchUpDirectoriesSkipped;
+    private long catchUpComparisonMillis;
+    private long journalEventsWritten;
+    private int journalPending;
+    private int streamSubscribers;
+    private long streamEvictions;
+    private double eventsPerSecond;
+    private double pipelineP50Micros;
+    private double pipelineP99Micros;
+    private String slowestStage;
+}
@@ -0,0 +1,66 @@
+package com.invdb.monitor.behavior;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.rules.RuleService;
+import java.nio.file.Path;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class BehaviorAnalyzerImplTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final AppProperties properties = new AppProperties();
+    private final BehaviorAnalyzerImpl analyzer =
+            new BehaviorAnalyzerImpl(new RuleService(new ObjectMapper(), properties), properties);
+
+    @Test
+    void flagsAHoneypotHitDuringAShareWideBurst() {
+        analyzer.reset(Path.of("/data"));
+        for (int i = 0; i < 40; i++) {
+            analyzer.analyze(event("/data/dir-" + i + "/file-" + i + ".f" + i, false, i));
+        }
+
+        FileEvent hit = event("/data/.sys_trap/decoy.txt", true, 40);
+        analyzer.analyze(hit);
+
+        assertThat(hit.hasNote(BehaviorNote.MASS_CHANGE_SUSPECTED)).isFalse();
+        assertThat(hit.hasNote(BehaviorNote.CRITICAL_INTRUSION_PATTERN)).isTrue();
+    }
+
+    @Test
+    void leavesAQuietHoneypotHitToTheRiskRules() {
+        analyzer.reset(Path.of("/data"));
+
+        FileEvent hit = event("/data/.sys_trap/decoy.txt", true, 0);
+        analyzer.analyze(hit);
+
+        assertThat(hit.hasNote(BehaviorNote.CRITICAL_INTRUSION_PATTERN)).isFalse();
+    }
+
+    @Test
+    void rejectsAOneMillisecondBucketWidth() {
+        AppProperties narrow = new AppProperties();
+        narrow.getBehavior().setWindowBucketMillis(1);
+        RuleService ruleService = new RuleService(new ObjectMapper(), narrow);
+
+        assertThatThrownBy(() -> new BehaviorAnalyzerImpl(ruleService, narrow))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("app.behavior.windowBucketMillis");
+    }
+
+    private static FileEvent event(String path, boolean honeypot, int offsetMillis) {
+        return FileEvent.builder()
+                .path(path)
+                .timestamp(START.plusMillis(offsetMillis))
+                .eventType(FileEventType.MODIFIED)
+                .isHoneypotTriggered(honeypot)
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.invdb.monitor.behavior;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class KeyedWindowCountersTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(10);
+
+    @Test
+    void narrowBucketsKeepEventsUntilTheyAreAWindowOld() {
+        KeyedWindowCounters counters = new KeyedWindowCounters(WINDOW, Duration.ofMillis(100), 16);
+
+        SlidingWindowCounter counter = counters.record("dir", Instant.ofEpochMilli(900), KeyedWindowCounters.DELETES);
+
+        assertThat(counter.count(Instant.ofEpochMilli(10_050), KeyedWindowCounters.ALL)).isEqualTo(1);
+        assertThat(counter.count(Instant.ofEpochMilli(10_050), KeyedWindowCounters.DELETES)).isEqualTo(1);
+        assertThat(counter.count(Instant.ofEpochMilli(10_900), KeyedWindowCounters.ALL)).isZero();
+    }
+
+    @Test
+    void wideBucketsAgeOutAWholeBucketAtOnce() {
+        KeyedWindowCounters counters = new KeyedWindowCounters(WINDOW, Duration.ofSeconds(1), 16);
+
+        SlidingWindowCounter counter = counters.record("dir", Instant.ofEpochMilli(900), KeyedWindowCounters.ALL);
+
+        assertThat(counter.count(Instant.ofEpochMilli(9_999), KeyedWindowCounters.ALL)).isEqualTo(1);
+        assertThat(counter.count(Instant.ofEpochMilli(10_050), KeyedWindowCounters.ALL)).isZero();
+    }
+
+    @Test
+    void rejectsBucketsNarrowerThanTheFloor() {
+        assertThatThrownBy(() -> new KeyedWindowCounters(WINDOW, Duration.ofMillis(1), 16))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new KeyedWindowCounters(WINDOW, Duration.ZERO, 16))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void countsAtCurrentEpochTimesWithTheNarrowestBuckets() {
+        KeyedWindowCounters counters = new KeyedWindowCounters(WINDOW, KeyedWindowCounters.MIN_BUCKET_WIDTH, 16);
+        Instant start = Instant.parse("2026-10-17T12:00:00Z");
+
+        SlidingWindowCounter counter = null;
+        for (int i = 0; i < 5; i++) {
+            counter = counters.record("dir", start.plusMillis(i * 1_000L), KeyedWindowCounters.ALL);
+        }
+
+        assertThat(counter.count(start.plusMillis(4_000), KeyedWindowCounters.ALL)).isEqualTo(5);
+        assertThat(counter.count(start.plusMillis(10_005), KeyedWindowCounters.ALL)).isEqualTo(4);
+        assertThat(counter.count(start.plusMillis(15_000), KeyedWindowCounters.ALL)).isZero();
+    }
+
+    @Test
+    void sweepsIdleKeysPastTheLimit() {
+        KeyedWindowCounters counters = new KeyedWindowCounters(WINDOW, Duration.ofMillis(100), 4);
+        for (int i = 0; i < 4; i++) {
+            counters.record("old-" + i, Instant.ofEpochMilli(0), KeyedWindowCounters.ALL);
+        }
+
+        counters.record("new", Instant.ofEpochMilli(60_000), KeyedWindowCounters.ALL);
+
+        assertThat(counters.size()).isEqualTo(1);
+    }
+}
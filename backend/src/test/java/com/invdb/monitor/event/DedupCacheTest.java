@@ -0,0 +1,72 @@
+package com.invdb.monitor.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class DedupCacheTest {
+
+    private static final long WINDOW_MS = 300;
+
+    @Test
+    void reportsRepeatsWithinTheWindowOnly() {
+        DedupCache cache = new DedupCache(WINDOW_MS, 1024);
+
+        assertThat(cache.isDuplicate("/data/a.txt", 1_000)).isFalse();
+        assertThat(cache.isDuplicate("/data/a.txt", 1_299)).isTrue();
+        assertThat(cache.isDuplicate("/data/a.txt", 1_300)).isFalse();
+        assertThat(cache.isDuplicate("/data/a.txt", 1_400)).isTrue();
+    }
+
+    @Test
+    void foldsCaseAndSeparators() {
+        DedupCache cache = new DedupCache(WINDOW_MS, 1024);
+
+        cache.isDuplicate("C:\\Data\\A.txt", 1_000);
+
+        assertThat(cache.isDuplicate("c:/data/a.txt", 1_001)).isTrue();
+    }
+
+    @Test
+    void evictsLiveEntriesInsteadOfGrowingPastCapacity() {
+        DedupCache cache = new DedupCache(WINDOW_MS, 1024);
+        int slots = cache.getStats().capacity();
+
+        for (int i = 0; i < 10 * slots; i++) {
+            assertThat(cache.isDuplicate("/data/file-" + i, 1_000)).isFalse();
+        }
+
+        DedupStats stats = cache.getStats();
+        assertThat(stats.size()).isLessThanOrEqualTo(slots);
+        assertThat(stats.evictions()).isGreaterThanOrEqualTo(9L * slots);
+        // The newest entry survives; the oldest ones were the victims.
+        assertThat(cache.isDuplicate("/data/file-" + (10 * slots - 1), 1_001)).isTrue();
+    }
+
+    @Test
+    void timingWheelClearsExpiredEntriesWithoutNewKeys() {
+        DedupCache cache = new DedupCache(WINDOW_MS, 1024);
+        for (int i = 0; i < 500; i++) {
+            cache.isDuplicate("/data/file-" + i, 1_000);
+        }
+        assertThat(cache.getStats().size()).isEqualTo(500);
+
+        // One lookup per sweep interval; a full turn of the wheel takes a few windows.
+        long now = 1_000;
+        for (int tick = 0; tick < DedupCache.STRIPES + 1; tick++) {
+            now += WINDOW_MS;
+            cache.isDuplicate("/data/probe", now);
+        }
+
+        assertThat(cache.getStats().size()).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void zeroWindowNeverReportsDuplicates() {
+        DedupCache cache = new DedupCache(0, 1024);
+
+        cache.isDuplicate("/data/a.txt", 1_000);
+
+        assertThat(cache.isDuplicate("/data/a.txt", 1_000)).isFalse();
+    }
+}
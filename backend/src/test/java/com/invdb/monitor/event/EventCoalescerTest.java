@@ -0,0 +1,99 @@
+package com.invdb.monitor.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EventCoalescerTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void mergesABurstIntoOneEvent() {
+        List<FileEvent> emitted = new ArrayList<>();
+        EventCoalescer coalescer = new EventCoalescer(60_000, 60_000, 16, emitted::add);
+
+        coalescer.submit(event("/data/a.txt", FileEventType.MODIFIED, null, 0));
+        coalescer.submit(event("/data/a.txt", FileEventType.MODIFIED, null, 1));
+        coalescer.submit(event("/data/a.txt", FileEventType.MODIFIED, null, 2));
+        coalescer.shutdown();
+
+        assertThat(emitted).hasSize(1);
+        FileEvent merged = emitted.get(0);
+        assertThat(merged.getEventType()).isEqualTo(FileEventType.MODIFIED);
+        assertThat(merged.getEventCount()).isEqualTo(3);
+        assertThat(merged.getFirstTimestamp()).isEqualTo(START);
+        assertThat(merged.getTimestamp()).isEqualTo(START.plusSeconds(2));
+    }
+
+    @Test
+    void dropsAFileCreatedAndDeletedWithinTheBurst() {
+        List<FileEvent> emitted = new ArrayList<>();
+        EventCoalescer coalescer = new EventCoalescer(60_000, 60_000, 16, emitted::add);
+
+        coalescer.submit(event("/data/tmp.swp", FileEventType.CREATED, null, 0));
+        coalescer.submit(event("/data/tmp.swp", FileEventType.MODIFIED, null, 1));
+        coalescer.submit(event("/data/tmp.swp", FileEventType.DELETED, null, 2));
+        coalescer.shutdown();
+
+        assertThat(emitted).isEmpty();
+        assertThat(coalescer.getStats().folded()).isEqualTo(3);
+    }
+
+    @Test
+    void keepsThePreviousPathWhileTheBurstIsARename() {
+        List<FileEvent> emitted = new ArrayList<>();
+        EventCoalescer coalescer = new EventCoalescer(60_000, 60_000, 16, emitted::add);
+
+        coalescer.submit(event("/data/x.txt", FileEventType.RENAMED, "/data/a.txt", 0));
+        coalescer.submit(event("/data/x.txt", FileEventType.MODIFIED, null, 1));
+        coalescer.shutdown();
+
+        assertThat(emitted).singleElement().satisfies(event -> {
+            assertThat(event.getEventType()).isEqualTo(FileEventType.RENAMED);
+            assertThat(event.getPreviousPath()).isEqualTo("/data/a.txt");
+        });
+    }
+
+    @Test
+    void reportsARenamedThenDeletedFileAsTheDeletionOfItsOriginalPath() {
+        List<FileEvent> emitted = new ArrayList<>();
+        EventCoalescer coalescer = new EventCoalescer(60_000, 60_000, 16, emitted::add);
+
+        coalescer.submit(event("/data/x.txt", FileEventType.RENAMED, "/data/a.txt", 0));
+        coalescer.submit(event("/data/x.txt", FileEventType.DELETED, null, 1));
+        coalescer.shutdown();
+
+        assertThat(emitted).singleElement().satisfies(event -> {
+            assertThat(event.getEventType()).isEqualTo(FileEventType.DELETED);
+            assertThat(event.getPath()).isEqualTo("/data/a.txt");
+            assertThat(event.getPreviousPath()).isNull();
+            assertThat(event.getEventCount()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void passesNewPathsThroughOnceFull() {
+        List<FileEvent> emitted = new ArrayList<>();
+        EventCoalescer coalescer = new EventCoalescer(60_000, 60_000, 1, emitted::add);
+
+        coalescer.submit(event("/data/a.txt", FileEventType.MODIFIED, null, 0));
+        coalescer.submit(event("/data/b.txt", FileEventType.MODIFIED, null, 1));
+
+        assertThat(emitted).extracting(FileEvent::getPath).containsExactly("/data/b.txt");
+        coalescer.shutdown();
+        assertThat(emitted).extracting(FileEvent::getPath).containsExactly("/data/b.txt", "/data/a.txt");
+    }
+
+    private static FileEvent event(String path, FileEventType type, String previousPath, int second) {
+        return FileEvent.builder()
+                .path(path)
+                .previousPath(previousPath)
+                .eventType(type)
+                .timestamp(START.plusSeconds(second))
+                .build();
+    }
+}
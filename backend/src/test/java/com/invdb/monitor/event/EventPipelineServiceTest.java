@@ -0,0 +1,105 @@
+package com.invdb.monitor.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.invdb.monitor.behavior.BehaviorAnalyzer;
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.honeypot.HoneypotService;
+import com.invdb.monitor.journal.EventJournal;
+import com.invdb.monitor.metrics.PipelineMetrics;
+import com.invdb.monitor.risk.RiskAssessment;
+import com.invdb.monitor.risk.RiskEngine;
+import com.invdb.monitor.risk.RiskLevel;
+import com.invdb.monitor.stream.LiveEventBroadcaster;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Test;
+
+class EventPipelineServiceTest {
+
+    private static final int MAX_EVENTS = 500;
+
+    @Test
+    void evictsTheOldestEventsAndKeepsAggregatesInStep() {
+        EventPipelineService service = service();
+
+        for (int i = 0; i < MAX_EVENTS + 100; i++) {
+            service.process(created(i));
+        }
+
+        List<FileEvent> stored = service.getAllEvents();
+        assertThat(stored).hasSize(MAX_EVENTS);
+        assertThat(stored.get(0).getSequence()).isEqualTo(MAX_EVENTS + 99);
+        assertThat(stored.get(MAX_EVENTS - 1).getSequence()).isEqualTo(100);
+        assertThat(service.getAggregates().totalEvents()).isEqualTo(MAX_EVENTS);
+    }
+
+    @Test
+    void clearsRacingWithStoresLeaveCountAndAggregatesConsistent() throws Exception {
+        EventPipelineService service = service();
+        int writers = 4;
+        int perWriter = 5_000;
+        AtomicBoolean stop = new AtomicBoolean();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    service.process(created(i));
+                }
+            }));
+        }
+        Thread clearer = new Thread(() -> {
+            while (!stop.get()) {
+                service.clearEvents();
+                LockSupport.parkNanos(50_000);
+            }
+        });
+        threads.forEach(Thread::start);
+        clearer.start();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        stop.set(true);
+        clearer.join();
+
+        // Refill past capacity: a skewed count would leave the deque short or over-full.
+        for (int i = 0; i < MAX_EVENTS; i++) {
+            service.process(created(i));
+        }
+        assertThat(service.getAllEvents()).hasSize(MAX_EVENTS);
+        assertThat(service.getAggregates().totalEvents()).isEqualTo(MAX_EVENTS);
+    }
+
+    private static EventPipelineService service() {
+        AppProperties properties = new AppProperties();
+        properties.setMaxEventsStored(MAX_EVENTS);
+        properties.getRename().setEnabled(false);
+        properties.getCoalesce().setEnabled(false);
+        RiskEngine riskEngine = mock(RiskEngine.class, withSettings().stubOnly());
+        when(riskEngine.calculateRisk(any())).thenReturn(new RiskAssessment(0, RiskLevel.LOW));
+        return new EventPipelineService(
+                mock(HoneypotService.class, withSettings().stubOnly()),
+                mock(BehaviorAnalyzer.class, withSettings().stubOnly()),
+                riskEngine,
+                mock(EventJournal.class, withSettings().stubOnly()),
+                mock(LiveEventBroadcaster.class, withSettings().stubOnly()),
+                mock(PipelineMetrics.class, withSettings().stubOnly()),
+                properties);
+    }
+
+    private static FileEvent created(int i) {
+        return FileEvent.builder()
+                .path("/data/file-" + i)
+                .eventType(FileEventType.CREATED)
+                .timestamp(Instant.ofEpochSecond(i))
+                .build();
+    }
+}
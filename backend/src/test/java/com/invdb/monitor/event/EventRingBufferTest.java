@@ -0,0 +1,59 @@
+package com.invdb.monitor.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class EventRingBufferTest {
+
+    @Test
+    void replacesQueuedEventBeforeItIsClaimed() {
+        EventRingBuffer ring = new EventRingBuffer(4);
+        FileEvent queued = event("a.txt");
+        FileEvent newer = event("a.txt");
+
+        long position = ring.offer(queued);
+
+        assertThat(ring.replace(position, queued, newer)).isTrue();
+        assertThat(ring.poll()).isSameAs(newer);
+        assertThat(ring.poll()).isNull();
+    }
+
+    @Test
+    void refusesToReplaceClaimedEvent() {
+        EventRingBuffer ring = new EventRingBuffer(4);
+        FileEvent queued = event("a.txt");
+
+        long position = ring.offer(queued);
+        assertThat(ring.poll()).isSameAs(queued);
+
+        assertThat(ring.replace(position, queued, event("a.txt"))).isFalse();
+    }
+
+    @Test
+    void refusesToReplaceRecycledSlot() {
+        EventRingBuffer ring = new EventRingBuffer(2);
+        FileEvent first = event("a.txt");
+        long position = ring.offer(first);
+        ring.poll();
+        ring.offer(event("b.txt"));
+        FileEvent recycled = event("c.txt");
+        ring.offer(recycled);
+
+        assertThat(ring.replace(position, first, event("a.txt"))).isFalse();
+        assertThat(ring.replace(position, recycled, event("c.txt"))).isFalse();
+    }
+
+    @Test
+    void reportsFullRing() {
+        EventRingBuffer ring = new EventRingBuffer(2);
+
+        assertThat(ring.offer(event("a"))).isZero();
+        assertThat(ring.offer(event("b"))).isEqualTo(1L);
+        assertThat(ring.offer(event("c"))).isNegative();
+    }
+
+    private static FileEvent event(String path) {
+        return FileEvent.builder().path(path).eventType(FileEventType.MODIFIED).build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.invdb.monitor.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RenameCorrelatorTest {
+
+    private final List<FileEvent> emitted = new ArrayList<>();
+
+    @Test
+    void pairsADeleteWithACreateThatAppendsAnExtension() {
+        RenameCorrelator correlator = new RenameCorrelator(60_000, 16, emitted::add);
+
+        correlator.submit(event("/data/report.docx", FileEventType.DELETED));
+        correlator.submit(event("/data/report.docx.locked", FileEventType.CREATED));
+        correlator.shutdown();
+
+        assertThat(emitted).extracting(FileEvent::getEventType, FileEvent::getPath, FileEvent::getPreviousPath)
+                .containsExactly(tuple(FileEventType.RENAMED, "/data/report.docx.locked", "/data/report.docx"));
+        assertThat(correlator.getStats().renames()).isEqualTo(1);
+    }
+
+    @Test
+    void prefersTheDeleteWhoseWholeNameTheCreateStartsWith() {
+        RenameCorrelator correlator = new RenameCorrelator(60_000, 16, emitted::add);
+
+        correlator.submit(event("/data/report.docx", FileEventType.DELETED));
+        correlator.submit(event("/data/report.txt", FileEventType.DELETED));
+        correlator.submit(event("/data/report.docx.locked", FileEventType.CREATED));
+        correlator.shutdown();
+
+        assertThat(emitted).extracting(FileEvent::getEventType, FileEvent::getPath, FileEvent::getPreviousPath)
+                .containsExactly(
+                        tuple(FileEventType.RENAMED, "/data/report.docx.locked", "/data/report.docx"),
+                        tuple(FileEventType.DELETED, "/data/report.txt", null));
+    }
+
+    @Test
+    void fallsBackToTheStemWhenTheExtensionIsReplaced() {
+        RenameCorrelator correlator = new RenameCorrelator(60_000, 16, emitted::add);
+
+        correlator.submit(event("/data/report.docx", FileEventType.DELETED));
+        correlator.submit(event("/data/report.enc", FileEventType.CREATED));
+        correlator.shutdown();
+
+        assertThat(emitted).extracting(FileEvent::getEventType, FileEvent::getPreviousPath)
+                .containsExactly(tuple(FileEventType.RENAMED, "/data/report.docx"));
+    }
+
+    @Test
+    void pairsTheSameNameInAnotherDirectoryAsAMove() {
+        RenameCorrelator correlator = new RenameCorrelator(60_000, 16, emitted::add);
+
+        correlator.submit(event("/data/inbox/report.docx", FileEventType.DELETED));
+        correlator.submit(event("/data/archive/report.docx", FileEventType.CREATED));
+        correlator.shutdown();
+
+        assertThat(emitted).extracting(FileEvent::getEventType, FileEvent::getPath, FileEvent::getPreviousPath)
+                .containsExactly(tuple(FileEventType.RENAMED, "/data/archive/report.docx", "/data/inbox/report.docx"));
+    }
+
+    @Test
+    void passesADeleteAndRecreateInPlaceOnInOrder() {
+        RenameCorrelator correlator = new RenameCorrelator(60_000, 16, emitted::add);
+
+        correlator.submit(event("/data/report.docx", FileEventType.DELETED));
+        correlator.submit(event("/data/report.docx", FileEventType.CREATED));
+        correlator.shutdown();
+
+        assertThat(emitted).extracting(FileEvent::getEventType)
+                .containsExactly(FileEventType.DELETED, FileEventType.CREATED);
+        assertThat(correlator.getStats().renames()).isZero();
+        assertThat(correlator.getStats().unmatchedDeletes()).isEqualTo(1);
+    }
+
+    @Test
+    void releasesADeleteOnceItsWindowEnds() throws InterruptedException {
+        RenameCorrelator correlator = new RenameCorrelator(1, 16, emitted::add);
+
+        correlator.submit(event("/data/report.docx", FileEventType.DELETED));
+        Thread.sleep(5);
+        correlator.submit(event("/data/report.docx.locked", FileEventType.CREATED));
+
+        assertThat(emitted).extracting(FileEvent::getEventType)
+                .containsExactly(FileEventType.DELETED, FileEventType.CREATED);
+        assertThat(correlator.getStats().pending()).isZero();
+        correlator.shutdown();
+    }
+
+    @Test
+    void releasesTheOldestDeleteOncePastMaxPending() {
+        RenameCorrelator correlator = new RenameCorrelator(60_000, 2, emitted::add);
+
+        correlator.submit(event("/data/a.txt", FileEventType.DELETED));
+        correlator.submit(event("/data/b.txt", FileEventType.DELETED));
+        correlator.submit(event("/data/c.txt", FileEventType.DELETED));
+
+        assertThat(emitted).extracting(FileEvent::getPath).containsExactly("/data/a.txt");
+        assertThat(correlator.getStats().pending()).isEqualTo(2);
+
+        correlator.submit(event("/data/a.txt.locked", FileEventType.CREATED));
+        correlator.shutdown();
+
+        assertThat(emitted).extracting(FileEvent::getEventType, FileEvent::getPath).containsExactly(
+                tuple(FileEventType.DELETED, "/data/a.txt"),
+                tuple(FileEventType.DELETED, "/data/b.txt"),
+                tuple(FileEventType.CREATED, "/data/a.txt.locked"),
+                tuple(FileEventType.DELETED, "/data/c.txt"));
+    }
+
+    private static FileEvent event(String path, FileEventType type) {
+        return FileEvent.builder().path(path).eventType(type).build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.invdb.monitor.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.invdb.monitor.config.AppProperties;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class RingBufferEventPublisherTest {
+
+    @Test
+    void coalescesByReplacingQueuedEventWithoutMutatingIt() {
+        EventPipelineService pipeline = mock(EventPipelineService.class);
+        RingBufferEventPublisher publisher = new RingBufferEventPublisher(pipeline, properties(BackpressurePolicy.COALESCE));
+        FileEvent first = modified("a.txt", 1);
+        FileEvent second = modified("a.txt", 2);
+        FileEvent third = modified("a.txt", 3);
+
+        publisher.publish(first);
+        publisher.publish(second);
+        publisher.publish(third);
+        publisher.stop();
+
+        ArgumentCaptor<FileEvent> processed = ArgumentCaptor.forClass(FileEvent.class);
+        verify(pipeline, times(1)).process(processed.capture());
+        assertThat(processed.getValue()).isSameAs(third);
+        assertThat(third.getEventCount()).isEqualTo(3);
+        assertThat(third.getFirstTimestamp()).isEqualTo(Instant.ofEpochSecond(1));
+        assertThat(first.getTimestamp()).isEqualTo(Instant.ofEpochSecond(1));
+        assertThat(first.getEventCount()).isEqualTo(1);
+        assertThat(publisher.getStats().coalesced()).isEqualTo(2);
+    }
+
+    @Test
+    void queuesNewEventOnceTheQueuedOneWasConsumed() {
+        EventPipelineService pipeline = mock(EventPipelineService.class);
+        RingBufferEventPublisher publisher = new RingBufferEventPublisher(pipeline, properties(BackpressurePolicy.COALESCE));
+
+        publisher.publish(modified("a.txt", 1));
+        publisher.stop();
+        publisher.publish(modified("a.txt", 2));
+        publisher.stop();
+
+        verify(pipeline, times(2)).process(any());
+        assertThat(publisher.getStats().coalesced()).isZero();
+    }
+
+    private static AppProperties properties(BackpressurePolicy policy) {
+        AppProperties properties = new AppProperties();
+        properties.getPipeline().setBackpressure(policy);
+        properties.getPipeline().setBufferSize(16);
+        return properties;
+    }
+
+    private static FileEvent modified(String path, long second) {
+        return FileEvent.builder()
+                .path(path)
+                .eventType(FileEventType.MODIFIED)
+                .timestamp(Instant.ofEpochSecond(second))
+                .build();
+    }
+}
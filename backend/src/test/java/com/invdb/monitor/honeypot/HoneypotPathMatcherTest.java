@@ -0,0 +1,117 @@
+package com.invdb.monitor.honeypot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class HoneypotPathMatcherTest {
+
+    private static final List<String> FILES = List.of("salary_2025.xlsx", "admin_passwords.txt");
+    private static final List<String> DIRECTORIES = List.of(".sys_trap");
+    private static final List<String> PATHS = List.of("/srv/finance/payroll", "/srv/keys/master.key");
+    private static final List<String> PATTERNS = List.of(
+            "**/*.kdbx", "**/backups/**", "**/id_rsa", "/srv/*/secret-?.txt", "**/tmp/*.lock");
+
+    private final HoneypotPathMatcher matcher = new HoneypotPathMatcher(FILES, DIRECTORIES, PATHS, PATTERNS);
+    private final PathBasedMatcher reference = new PathBasedMatcher(FILES, DIRECTORIES, PATHS, PATTERNS);
+
+    @Test
+    void matchesConfiguredNamesDirectoriesPathsAndGlobs() {
+        assertThat(matcher.matches("/home/a/Salary_2025.XLSX")).isTrue();
+        assertThat(matcher.matches("/home/a/.sys_trap/decoy.docx")).isTrue();
+        assertThat(matcher.matches("/srv/finance/payroll/2026/jan.csv")).isTrue();
+        assertThat(matcher.matches("/srv/finance/payroll")).isTrue();
+        assertThat(matcher.matches("/srv/finance/payroll-old/jan.csv")).isFalse();
+        assertThat(matcher.matches("/home/a/vault.KDBX")).isTrue();
+        assertThat(matcher.matches("/data/backups/db/dump.sql")).isTrue();
+        assertThat(matcher.matches("/srv/web/secret-1.txt")).isTrue();
+        assertThat(matcher.matches("/srv/web/deep/secret-1.txt")).isFalse();
+        assertThat(matcher.matches("C:\\Users\\a\\.ssh\\id_rsa")).isTrue();
+        assertThat(matcher.matches("/home/a/salary_2025.xlsx.bak")).isFalse();
+        assertThat(matcher.matches("")).isFalse();
+        assertThat(matcher.matches(null)).isFalse();
+    }
+
+    @Test
+    void agreesWithAPathBasedMatcherOnGeneratedPaths() {
+        String[] segments = {
+            "srv", "finance", "payroll", "keys", "master.key", "home", "a", ".sys_trap", "backups", "tmp",
+            "Salary_2025.xlsx", "admin_passwords.txt", "vault.kdbx", "id_rsa", "secret-1.txt", "secret-12.txt",
+            "x.lock", "report.docx", "web", "notes.TXT", "PAYROLL", "Backups"
+        };
+        Random random = new Random(7);
+        int matched = 0;
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder path = new StringBuilder();
+            int depth = 1 + random.nextInt(5);
+            for (int d = 0; d < depth; d++) {
+                path.append('/').append(segments[random.nextInt(segments.length)]);
+            }
+            String candidate = path.toString();
+
+            boolean expected = reference.matches(candidate);
+            assertThat(matcher.matches(candidate)).as(candidate).isEqualTo(expected);
+            assertThat(matcher.matches(candidate.replace('/', '\\'))).as(candidate).isEqualTo(expected);
+            if (expected) {
+                matched++;
+            }
+        }
+        assertThat(matched).isGreaterThan(1000);
+    }
+
+    /**
+     * The straightforward matcher: builds a Path and checks file name, parent directories, path
+     * prefixes and java.nio globs one by one on a lower-cased copy.
+     */
+    private static final class PathBasedMatcher {
+
+        private final List<String> fileNames;
+        private final List<String> directoryNames;
+        private final List<Path> paths = new ArrayList<>();
+        private final List<PathMatcher> globs = new ArrayList<>();
+
+        private PathBasedMatcher(List<String> fileNames, List<String> directoryNames, List<String> paths, List<String> patterns) {
+            this.fileNames = fileNames;
+            this.directoryNames = directoryNames;
+            for (String path : paths) {
+                this.paths.add(Path.of(path.toLowerCase(Locale.ROOT)));
+            }
+            for (String pattern : patterns) {
+                globs.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern.toLowerCase(Locale.ROOT)));
+            }
+        }
+
+        private boolean matches(String raw) {
+            Path path = Path.of(raw.replace('\\', '/').toLowerCase(Locale.ROOT));
+            if (path.getFileName() != null && fileNames.stream().anyMatch(path.getFileName().toString()::equalsIgnoreCase)) {
+                return true;
+            }
+            Path parent = path.getParent();
+            if (parent != null) {
+                for (Path element : parent) {
+                    if (directoryNames.stream().anyMatch(element.toString()::equalsIgnoreCase)) {
+                        return true;
+                    }
+                }
+            }
+            for (Path prefix : paths) {
+                if (path.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            for (PathMatcher glob : globs) {
+                if (glob.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.invdb.monitor.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.risk.RiskLevel;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EventJournalRecoveryTest {
+
+    private static final int EVENTS = 50;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void truncatesAPartiallyWrittenRecord() throws Exception {
+        AppProperties properties = properties();
+        Path segment = writeEvents(properties, EVENTS);
+        long intact = Files.size(segment);
+        byte[] lastRecord = lastRecordBytes(segment);
+        Files.write(segment, Arrays.copyOf(lastRecord, lastRecord.length / 2), StandardOpenOption.APPEND);
+
+        EventJournal journal = new EventJournal(properties);
+        journal.start();
+        journal.stop();
+
+        assertThat(Files.size(segment)).isEqualTo(intact);
+        assertThat(SegmentIndex.sidecarFor(segment)).doesNotExist();
+        assertThat(journal.nextSequence()).isEqualTo(EVENTS);
+        assertThat(sequences(journal)).hasSize(EVENTS).endsWith((long) EVENTS - 1);
+    }
+
+    @Test
+    void stopsAtTheFirstRecordWithABadChecksum() throws Exception {
+        AppProperties properties = properties();
+        Path segment = writeEvents(properties, EVENTS);
+        long size = Files.size(segment);
+        int lastLength = lastRecordBytes(segment).length;
+        long corruptAt = size - lastLength / 2;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer single = ByteBuffer.allocate(1);
+            channel.read(single, corruptAt);
+            single.put(0, (byte) (single.get(0) ^ 0x5A)).rewind();
+            channel.write(single, corruptAt);
+        }
+
+        List<Long> beforeRecovery = new ArrayList<>();
+        long validEnd = JournalSegment.list(directory).get(0).read(entry -> beforeRecovery.add(entry.sequence()));
+        assertThat(validEnd).isEqualTo(size - lastLength);
+        assertThat(beforeRecovery).hasSize(EVENTS - 1);
+
+        EventJournal journal = new EventJournal(properties);
+        journal.start();
+        journal.stop();
+
+        assertThat(Files.size(segment)).isEqualTo(size - lastLength);
+        assertThat(journal.nextSequence()).isEqualTo(EVENTS - 1);
+    }
+
+    @Test
+    void removesALastSegmentWithNoCompleteRecord() throws Exception {
+        AppProperties properties = properties();
+        Path first = writeEvents(properties, EVENTS);
+        Path torn = JournalSegment.fileFor(directory, EVENTS);
+        byte[] partial = Arrays.copyOf(lastRecordBytes(first), 6);
+        ByteBuffer header = JournalSegment.header(EVENTS);
+        byte[] headerBytes = new byte[header.remaining()];
+        header.get(headerBytes);
+        Files.write(torn, headerBytes);
+        Files.write(torn, partial, StandardOpenOption.APPEND);
+
+        EventJournal journal = new EventJournal(properties);
+        journal.start();
+        journal.stop();
+
+        assertThat(torn).doesNotExist();
+        assertThat(first).exists();
+        assertThat(journal.nextSequence()).isEqualTo(EVENTS);
+    }
+
+    private AppProperties properties() {
+        AppProperties properties = new AppProperties();
+        properties.getJournal().setDirectory(directory.toString());
+        properties.getJournal().setFsyncPolicy(FsyncPolicy.NONE);
+        return properties;
+    }
+
+    private Path writeEvents(AppProperties properties, int count) throws Exception {
+        EventJournal journal = new EventJournal(properties);
+        journal.start();
+        for (int i = 0; i < count; i++) {
+            journal.append(FileEvent.builder()
+                    .sequence(i)
+                    .path("/data/file-" + i)
+                    .timestamp(Instant.parse("2026-01-01T00:00:00Z").plusSeconds(i))
+                    .eventType(FileEventType.MODIFIED)
+                    .riskLevel(RiskLevel.LOW)
+                    .build());
+        }
+        journal.stop();
+        List<JournalSegment> segments = JournalSegment.list(directory);
+        assertThat(segments).hasSize(1);
+        return segments.get(0).file();
+    }
+
+    /**
+     * The bytes of the segment's final record, header included.
+     */
+    private byte[] lastRecordBytes(Path segment) throws Exception {
+        long[] lastOffset = {-1L};
+        long end = JournalSegment.list(directory).stream()
+                .filter(candidate -> candidate.file().equals(segment))
+                .findFirst()
+                .orElseThrow()
+                .read(JournalSegment.HEADER_SIZE, (offset, entry) -> {
+                    lastOffset[0] = offset;
+                    return true;
+                });
+        byte[] bytes = Files.readAllBytes(segment);
+        return Arrays.copyOfRange(bytes, (int) lastOffset[0], (int) end);
+    }
+
+    private List<Long> sequences(EventJournal journal) throws Exception {
+        List<Long> sequences = new ArrayList<>();
+        journal.forEach(0, entry -> sequences.add(entry.sequence()));
+        return sequences;
+    }
+}
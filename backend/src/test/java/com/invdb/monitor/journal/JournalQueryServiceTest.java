@@ -0,0 +1,113 @@
+package com.invdb.monitor.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.risk.RiskLevel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalQueryServiceTest {
+
+    private static final Instant DAY_ONE = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant DAY_TWO = Instant.parse("2026-01-02T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void skipsSegmentsOutsideTheTimeRangeOnTheirSidecar() throws Exception {
+        AppProperties properties = properties();
+        writeSegment(properties, 0, 1000, DAY_ONE);
+        writeSegment(properties, 1000, 100, DAY_TWO);
+        List<JournalSegment> segments = JournalSegment.list(directory);
+        assertThat(segments).hasSize(2);
+        assertThat(SegmentIndex.sidecarFor(segments.get(0).file())).exists();
+        assertThat(SegmentIndex.sidecarFor(segments.get(1).file())).exists();
+
+        JournalQueryService service = new JournalQueryService(new EventJournal(properties), properties);
+        EventPage page = service.search(query(DAY_TWO, DAY_TWO.plusSeconds(3600), null, 1000, null));
+
+        assertThat(page.events()).hasSize(100);
+        assertThat(page.events().get(0).getSequence()).isEqualTo(1099);
+        assertThat(page.recordsRead()).isEqualTo(100);
+    }
+
+    @Test
+    void readsOnlyBlocksThatCanMatch() throws Exception {
+        AppProperties properties = properties();
+        writeSegment(properties, 0, 1000, DAY_ONE);
+
+        JournalQueryService service = new JournalQueryService(new EventJournal(properties), properties);
+        // Events are a second apart, so the first block holds seconds 0..255.
+        EventPage page = service.search(query(DAY_ONE.plusSeconds(10), DAY_ONE.plusSeconds(19), null, 100, null));
+
+        assertThat(page.events()).extracting(FileEvent::getSequence).containsExactly(19L, 18L, 17L, 16L, 15L, 14L, 13L, 12L, 11L, 10L);
+        assertThat(page.recordsRead()).isEqualTo(SegmentIndex.BLOCK_SIZE);
+    }
+
+    @Test
+    void pagesNewestFirstWithTheCursor() throws Exception {
+        AppProperties properties = properties();
+        writeSegment(properties, 0, 600, DAY_ONE);
+
+        JournalQueryService service = new JournalQueryService(new EventJournal(properties), properties);
+        EventPage first = service.search(query(null, null, FileEventType.DELETED, 100, null));
+        EventPage second = service.search(query(null, null, FileEventType.DELETED, 100, first.nextCursor()));
+
+        assertThat(first.events()).hasSize(100).allMatch(event -> event.getEventType() == FileEventType.DELETED);
+        assertThat(first.events().get(0).getSequence()).isEqualTo(599);
+        assertThat(second.events().get(0).getSequence()).isEqualTo(first.nextCursor() - 3);
+        assertThat(second.events()).hasSize(100);
+    }
+
+    @Test
+    void rebuildsAMissingSidecar() throws Exception {
+        AppProperties properties = properties();
+        writeSegment(properties, 0, 300, DAY_ONE);
+        Path sidecar = SegmentIndex.sidecarFor(JournalSegment.list(directory).get(0).file());
+        Files.delete(sidecar);
+
+        JournalQueryService service = new JournalQueryService(new EventJournal(properties), properties);
+        EventPage page = service.search(query(null, null, null, 1000, null));
+
+        assertThat(page.events()).hasSize(300);
+        assertThat(sidecar).exists();
+        assertThat(SegmentIndex.load(JournalSegment.list(directory).get(0)).count()).isEqualTo(300);
+    }
+
+    private AppProperties properties() {
+        AppProperties properties = new AppProperties();
+        properties.getJournal().setDirectory(directory.toString());
+        properties.getJournal().setFsyncPolicy(FsyncPolicy.NONE);
+        return properties;
+    }
+
+    private static void writeSegment(AppProperties properties, long firstSequence, int count, Instant start)
+            throws Exception {
+        EventJournal journal = new EventJournal(properties);
+        journal.start();
+        assertThat(journal.nextSequence()).isEqualTo(firstSequence);
+        for (int i = 0; i < count; i++) {
+            long sequence = firstSequence + i;
+            journal.append(FileEvent.builder()
+                    .sequence(sequence)
+                    .path("/data/file-" + sequence)
+                    .timestamp(start.plusSeconds(i))
+                    .eventType(FileEventType.values()[(int) (sequence % 3)])
+                    .riskLevel(RiskLevel.LOW)
+                    .build());
+        }
+        journal.stop();
+    }
+
+    private static EventQuery query(Instant from, Instant to, FileEventType type, int limit, Long cursor) {
+        return new EventQuery(from, to, null, type, null, null, null, limit, cursor);
+    }
+}
@@ -0,0 +1,120 @@
+package com.invdb.monitor.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.risk.RiskLevel;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+import org.junit.jupiter.api.Test;
+
+class JournalRecordCodecTest {
+
+    @Test
+    void roundTripsEveryField() {
+        FileEvent event = FileEvent.builder()
+                .sequence(42)
+                .path("/data/résumé/报告.txt")
+                .previousPath("/data/old name.txt")
+                .timestamp(Instant.parse("2026-01-01T10:15:30.123456789Z"))
+                .firstTimestamp(Instant.parse("2026-01-01T10:15:29Z"))
+                .eventCount(7)
+                .eventType(FileEventType.RENAMED)
+                .isHoneypotTriggered(true)
+                .riskScore(85)
+                .riskLevel(RiskLevel.HIGH)
+                .noteFlags(BehaviorNote.MASS_CHANGE_SUSPECTED.mask() | BehaviorNote.SUSPICIOUS_EXTENSION.mask())
+                .build();
+
+        JournalEntry entry = roundTrip(42, event);
+
+        assertThat(entry.sequence()).isEqualTo(42);
+        assertThat(entry.event()).isEqualTo(event);
+    }
+
+    @Test
+    void roundTripsMissingValues() {
+        FileEvent event = FileEvent.builder().sequence(0).build();
+
+        JournalEntry entry = roundTrip(0, event);
+
+        assertThat(entry.event()).isEqualTo(event);
+        assertThat(entry.event().getPath()).isNull();
+        assertThat(entry.event().getTimestamp()).isNull();
+        assertThat(entry.event().getEventType()).isNull();
+        assertThat(entry.event().getRiskLevel()).isNull();
+    }
+
+    @Test
+    void rejectsABodyWhoseChecksumDoesNotMatch() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        new JournalRecordCodec().encode(1, event("/data/a.txt"), buffer);
+        int bodyLength = buffer.getInt(0);
+        int crc = buffer.getInt(Integer.BYTES);
+        int flipped = JournalRecordCodec.HEADER_SIZE + bodyLength - 1;
+        buffer.put(flipped, (byte) (buffer.get(flipped) ^ 1));
+
+        buffer.position(JournalRecordCodec.HEADER_SIZE).limit(JournalRecordCodec.HEADER_SIZE + bodyLength);
+        assertThat(JournalRecordCodec.decode(buffer, crc, new CRC32C())).isNull();
+    }
+
+    @Test
+    void leavesTheBufferUntouchedWhenARecordDoesNotFit() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.position(10);
+
+        boolean written = new JournalRecordCodec().encode(1, event("/data/" + "x".repeat(100)), buffer);
+
+        assertThat(written).isFalse();
+        assertThat(buffer.position()).isEqualTo(10);
+    }
+
+    @Test
+    void encodesConsecutiveRecordsBackToBack() {
+        JournalRecordCodec codec = new JournalRecordCodec();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (int i = 0; i < 10; i++) {
+            assertThat(codec.encode(i, event("/data/file-" + i), buffer)).isTrue();
+        }
+        buffer.flip();
+
+        CRC32C crc = new CRC32C();
+        for (int i = 0; i < 10; i++) {
+            int bodyLength = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            int end = buffer.position() + bodyLength;
+            int limit = buffer.limit();
+            buffer.limit(end);
+            JournalEntry entry = JournalRecordCodec.decode(buffer, expectedCrc, crc);
+            buffer.limit(limit).position(end);
+
+            assertThat(entry.sequence()).isEqualTo(i);
+            assertThat(entry.event().getPath()).isEqualTo("/data/file-" + i);
+        }
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    private static JournalEntry roundTrip(long sequence, FileEvent event) {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        assertThat(new JournalRecordCodec().encode(sequence, event, buffer)).isTrue();
+        int bodyLength = buffer.getInt(0);
+        assertThat(buffer.position()).isEqualTo(JournalRecordCodec.HEADER_SIZE + bodyLength);
+
+        buffer.position(JournalRecordCodec.HEADER_SIZE).limit(JournalRecordCodec.HEADER_SIZE + bodyLength);
+        JournalEntry entry = JournalRecordCodec.decode(buffer, buffer.getInt(Integer.BYTES), new CRC32C());
+        assertThat(entry).isNotNull();
+        return entry;
+    }
+
+    private static FileEvent event(String path) {
+        return FileEvent.builder()
+                .path(path)
+                .timestamp(Instant.parse("2026-01-01T00:00:00Z"))
+                .eventType(FileEventType.MODIFIED)
+                .riskLevel(RiskLevel.LOW)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.invdb.monitor.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void countsSmallValuesExactly() {
+        for (long value = 0; value < 2L * LatencyHistogram.SUB_BUCKETS; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(index).isEqualTo((int) value);
+            assertThat(LatencyHistogram.upperBound(index)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void bucketsAreContiguousAndIncreasing() {
+        for (int index = 1; index < LatencyHistogram.BUCKETS - 1; index++) {
+            long lower = LatencyHistogram.upperBound(index - 1) + 1;
+            long upper = LatencyHistogram.upperBound(index);
+            assertThat(upper).isGreaterThanOrEqualTo(lower);
+            assertThat(LatencyHistogram.indexOf(lower)).isEqualTo(index);
+            assertThat(LatencyHistogram.indexOf(upper)).isEqualTo(index);
+            assertThat(LatencyHistogram.indexOf(upper + 1)).isEqualTo(index + 1);
+        }
+    }
+
+    @Test
+    void boundsStayWithinTheRelativeError() {
+        for (int shift = 0; shift < 40; shift++) {
+            for (long value : new long[] {(1L << shift) + 1, 3L << shift, (1L << (shift + 1)) - 1}) {
+                long bound = LatencyHistogram.upperBound(LatencyHistogram.indexOf(value));
+                assertThat(bound).isGreaterThanOrEqualTo(value);
+                assertThat((double) (bound - value) / value).isLessThanOrEqualTo(1.0 / LatencyHistogram.SUB_BUCKETS);
+            }
+        }
+    }
+
+    @Test
+    void clampsHugeValuesIntoTheLastBucket() {
+        long last = LatencyHistogram.upperBound(LatencyHistogram.BUCKETS - 1);
+
+        assertThat(last).isEqualTo((1L << (LatencyHistogram.MAX_MAGNITUDE + 1)) - 1);
+        assertThat(LatencyHistogram.indexOf(last + 1)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+        assertThat(LatencyHistogram.indexOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test
+    void reportsPercentilesAtBucketUpperBoundsCappedByTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        StageLatency latency = histogram.snapshot(PipelineStage.STORAGE);
+
+        assertThat(latency.count()).isEqualTo(100);
+        assertThat(latency.maxMicros()).isEqualTo(100.0);
+        assertThat(latency.p50Micros()).isBetween(50.0, 50.0 * 33 / 32);
+        assertThat(latency.p99Micros()).isBetween(99.0, 100.0);
+        assertThat(latency.p999Micros()).isEqualTo(100.0);
+    }
+}
@@ -0,0 +1,95 @@
+package com.invdb.monitor.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.invdb.monitor.config.AppProperties;
+import com.invdb.monitor.event.EventPipelineService;
+import com.invdb.monitor.watcher.FileWatcherService;
+import com.invdb.monitor.watcher.WatchStatus;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportJobServiceTest {
+
+    private static final Instant DAY = Instant.parse("2026-01-01T00:00:00Z");
+
+    @TempDir
+    Path cacheDirectory;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ReportJobService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AppProperties properties = new AppProperties();
+        properties.getReports().setCacheDirectory(cacheDirectory.toString());
+        properties.getReports().setJobThreads(1);
+        properties.getReports().setMaxQueuedJobs(1);
+
+        ExcelExporter excelExporter = mock(ExcelExporter.class);
+        doAnswer(invocation -> release.await(10, TimeUnit.SECONDS)).when(excelExporter).export(any(), any());
+        FileWatcherService fileWatcherService = mock(FileWatcherService.class);
+        when(fileWatcherService.getStatus()).thenReturn(new WatchStatus());
+
+        service = new ReportJobService(
+                mock(ReportService.class),
+                mock(PdfExporter.class),
+                excelExporter,
+                mock(EventPipelineService.class),
+                fileWatcherService,
+                properties);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void joinsTheRunningJobForTheSameReport() {
+        ReportJobView first = service.submit(ReportFormat.EXCEL, DAY, DAY.plusSeconds(60));
+        ReportJobView second = service.submit(ReportFormat.EXCEL, DAY, DAY.plusSeconds(60));
+
+        assertThat(second.id()).isEqualTo(first.id());
+        assertThat(service.find(first.id())).isPresent();
+    }
+
+    @Test
+    void refusesJobsPastTheQueueAndFreesTheirSlot() throws Exception {
+        ReportJobView running = service.submit(ReportFormat.EXCEL, DAY, DAY.plusSeconds(1));
+        ReportJobView queued = service.submit(ReportFormat.EXCEL, DAY, DAY.plusSeconds(2));
+
+        assertThatThrownBy(() -> service.submit(ReportFormat.EXCEL, DAY, DAY.plusSeconds(3)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Too many report jobs queued");
+
+        release.countDown();
+        awaitFinished(running.id());
+        awaitFinished(queued.id());
+        ReportJobView retried = service.submit(ReportFormat.EXCEL, DAY, DAY.plusSeconds(3));
+        assertThat(retried.state()).isNotEqualTo(ReportJobState.FAILED);
+        awaitFinished(retried.id());
+        assertThat(service.find(retried.id()).orElseThrow().state()).isEqualTo(ReportJobState.DONE);
+    }
+
+    private void awaitFinished(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!service.find(id).orElseThrow().state().isFinished()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
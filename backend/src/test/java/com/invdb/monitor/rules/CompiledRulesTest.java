@@ -0,0 +1,180 @@
+package com.invdb.monitor.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.invdb.monitor.behavior.BehaviorNote;
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import com.invdb.monitor.risk.RiskLevel;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The built-in rules must score and note events exactly as the hard-coded RiskEngineImpl and
+ * BehaviorAnalyzerImpl did before rules were configurable.
+ */
+class CompiledRulesTest {
+
+    private static final List<String> SUSPICIOUS = List.of("exe", "dll", "bat", "ps1", "jar", "sh");
+    private static final FileEventType[] BASELINE_TYPES = {FileEventType.CREATED, FileEventType.MODIFIED, FileEventType.DELETED};
+    private static final BehaviorNote[] BASELINE_NOTES = {
+        BehaviorNote.MASS_CHANGE_SUSPECTED,
+        BehaviorNote.RAPID_DELETE_SPIKE,
+        BehaviorNote.SUSPICIOUS_EXTENSION,
+        BehaviorNote.CRITICAL_INTRUSION_PATTERN
+    };
+
+    private final CompiledRules rules = CompiledRules.compile(RuleSetDefinition.defaults(SUSPICIOUS));
+
+    @Test
+    void defaultRiskRulesScoreLikeTheBaselineEngine() {
+        int checked = 0;
+        for (FileEventType type : BASELINE_TYPES) {
+            for (boolean honeypot : new boolean[] {false, true}) {
+                for (int subset = 0; subset < 1 << BASELINE_NOTES.length; subset++) {
+                    FileEvent event = event(type, "/data/file.txt", honeypot, notes(subset));
+
+                    int score = rules.score(event);
+
+                    int expected = baselineScore(event);
+                    assertThat(score).as("%s honeypot=%s notes=%s", type, honeypot, event.getNotes()).isEqualTo(expected);
+                    assertThat(rules.level(score)).isEqualTo(baselineLevel(expected));
+                    checked++;
+                }
+            }
+        }
+        assertThat(checked).isEqualTo(3 * 2 * 16);
+    }
+
+    @Test
+    void defaultBehaviorRulesNoteLikeTheBaselineAnalyzer() {
+        for (FileEventType type : BASELINE_TYPES) {
+            for (boolean honeypot : new boolean[] {false, true}) {
+                for (String path : new String[] {"/data/run.EXE", "/data/notes.txt", "/data/Makefile"}) {
+                    for (long events : new long[] {0, 30, 31}) {
+                        for (long deletes : new long[] {0, 15, 16}) {
+                            FileEvent event = event(type, path, honeypot, 0);
+                            String extension = extensionOf(path);
+
+                            int notes = rules.applyBehavior(event, extension, events, deletes, 0, events);
+
+                            assertThat(notes)
+                                    .as("%s %s honeypot=%s events=%d deletes=%d", type, path, honeypot, events, deletes)
+                                    .isEqualTo(baselineNotes(type, extension, honeypot, events, deletes));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void renamesScoreAsModificationsAndFlagMassRenames() {
+        FileEvent rename = event(FileEventType.RENAMED, "/data/report.docx.locked", false, 0);
+
+        int notes = rules.applyBehavior(rename, "locked", 11, 0, 11, 11);
+        rename.setNoteFlags(notes);
+
+        assertThat(BehaviorNote.MASS_RENAME_SUSPECTED.isSet(notes)).isTrue();
+        assertThat(rules.score(rename)).isEqualTo(25 + 30);
+    }
+
+    @Test
+    void flagsAHoneypotHitByTheShareWideCountAlone() {
+        FileEvent hit = event(FileEventType.MODIFIED, "/data/.sys_trap/decoy.txt", true, 0);
+
+        int notes = rules.applyBehavior(hit, "txt", 2, 0, 0, 31);
+
+        assertThat(BehaviorNote.MASS_CHANGE_SUSPECTED.isSet(notes)).isFalse();
+        assertThat(BehaviorNote.CRITICAL_INTRUSION_PATTERN.isSet(notes)).isTrue();
+    }
+
+    @Test
+    void stopEndsEvaluationAndScoresAreCapped() {
+        RuleSetDefinition definition = new RuleSetDefinition();
+        definition.getRisk().add(RuleDefinition.builder().setScore(90).build());
+        definition.getRisk().add(RuleDefinition.builder().addScore(50).stop(true).build());
+        definition.getRisk().add(RuleDefinition.builder().setScore(0).build());
+
+        CompiledRules compiled = CompiledRules.compile(definition);
+
+        assertThat(compiled.score(event(FileEventType.CREATED, "/a", false, 0))).isEqualTo(100);
+    }
+
+    /** RiskEngineImpl before rules were compiled. */
+    private static int baselineScore(FileEvent event) {
+        if (event.hasNote(BehaviorNote.CRITICAL_INTRUSION_PATTERN)) {
+            return 100;
+        }
+        int score = switch (event.getEventType()) {
+            case CREATED -> 15;
+            case MODIFIED, RENAMED -> 25;
+            case DELETED -> 20;
+        };
+        if (event.isHoneypotTriggered()) {
+            score = 95;
+        }
+        if (event.hasNote(BehaviorNote.MASS_CHANGE_SUSPECTED)) {
+            score += 20;
+        }
+        if (event.hasNote(BehaviorNote.RAPID_DELETE_SPIKE)) {
+            score += 25;
+        }
+        if (event.hasNote(BehaviorNote.SUSPICIOUS_EXTENSION)) {
+            score += 30;
+        }
+        return Math.min(100, score);
+    }
+
+    private static RiskLevel baselineLevel(int score) {
+        if (score <= 30) {
+            return RiskLevel.LOW;
+        }
+        return score <= 70 ? RiskLevel.MEDIUM : RiskLevel.HIGH;
+    }
+
+    /** BehaviorAnalyzerImpl's note decisions before rules were compiled. */
+    private static int baselineNotes(FileEventType type, String extension, boolean honeypot, long events, long deletes) {
+        int notes = 0;
+        if (events > 30) {
+            notes |= BehaviorNote.MASS_CHANGE_SUSPECTED.mask();
+        }
+        if (deletes > 15) {
+            notes |= BehaviorNote.RAPID_DELETE_SPIKE.mask();
+        }
+        if ((type == FileEventType.CREATED || type == FileEventType.MODIFIED)
+                && extension != null
+                && SUSPICIOUS.contains(extension)) {
+            notes |= BehaviorNote.SUSPICIOUS_EXTENSION.mask();
+        }
+        if (honeypot && BehaviorNote.MASS_CHANGE_SUSPECTED.isSet(notes)) {
+            notes |= BehaviorNote.CRITICAL_INTRUSION_PATTERN.mask();
+        }
+        return notes;
+    }
+
+    private static int notes(int subset) {
+        int flags = 0;
+        for (int i = 0; i < BASELINE_NOTES.length; i++) {
+            if ((subset & (1 << i)) != 0) {
+                flags |= BASELINE_NOTES[i].mask();
+            }
+        }
+        return flags;
+    }
+
+    private static String extensionOf(String path) {
+        int dot = path.lastIndexOf('.');
+        return dot < path.lastIndexOf('/') || dot < 0 ? null : path.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static FileEvent event(FileEventType type, String path, boolean honeypot, int notes) {
+        return FileEvent.builder()
+                .path(path)
+                .eventType(type)
+                .isHoneypotTriggered(honeypot)
+                .noteFlags(notes)
+                .build();
+    }
+}
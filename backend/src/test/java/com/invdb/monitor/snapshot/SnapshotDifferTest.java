@@ -0,0 +1,175 @@
+package com.invdb.monitor.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.invdb.monitor.event.FileEvent;
+import com.invdb.monitor.event.FileEventType;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class SnapshotDifferTest {
+
+    private static final Path ROOT = Path.of("/data").toAbsolutePath();
+    private static final Instant CAPTURED = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void reportsCreatedModifiedAndDeletedInPathOrder() {
+        List<FileMetadata> before = sorted(List.of(
+                file("a.txt", 1),
+                file("docs/old.txt", 2),
+                file("docs/same.txt", 3)));
+        List<FileMetadata> after = sorted(List.of(
+                file("a.txt", 10),
+                file("docs/same.txt", 3),
+                file("docs/sub/new.txt", 4)));
+
+        List<FileEvent> events = new ArrayList<>();
+        SnapshotDiffer.DiffResult result = SnapshotDiffer.diff(before.iterator(), after.iterator(), CAPTURED, events::add);
+
+        assertThat(events).extracting(FileEvent::getEventType, FileEvent::getPath).containsExactly(
+                tuple(FileEventType.MODIFIED, resolve("a.txt")),
+                tuple(FileEventType.DELETED, resolve("docs/old.txt")),
+                tuple(FileEventType.CREATED, resolve("docs/sub/new.txt")));
+        assertThat(events).allMatch(event -> CAPTURED.equals(event.getTimestamp()));
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.modified()).isEqualTo(1);
+        assertThat(result.deleted()).isEqualTo(1);
+    }
+
+    @Test
+    void treatsAChecksumChangeAsAModification() {
+        FileMetadata before = file("a.txt", 1).toBuilder().checksum("aa").build();
+
+        assertThat(SnapshotDiffer.isModified(before, before.toBuilder().checksum("bb").build())).isTrue();
+        assertThat(SnapshotDiffer.isModified(before, before.toBuilder().checksum(null).build())).isFalse();
+        assertThat(SnapshotDiffer.isModified(before, before.toBuilder().lastModified(CAPTURED.plusSeconds(1)).build()))
+                .isTrue();
+    }
+
+    @Test
+    void mergeMatchesAMapBasedDiff() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            List<FileMetadata> before = randomTree(random, 300);
+            List<FileMetadata> after = mutate(random, before);
+
+            List<FileEvent> events = new ArrayList<>();
+            SnapshotDiffer.diff(sorted(before).iterator(), sorted(after).iterator(), CAPTURED, events::add);
+
+            assertThat(asMap(events)).isEqualTo(referenceDiff(before, after));
+        }
+    }
+
+    @Test
+    void skipsUnchangedSubtreesAndFindsTheSameChanges() {
+        Random random = new Random(5);
+        for (int round = 0; round < 20; round++) {
+            List<FileMetadata> before = sorted(randomTree(random, 300));
+            List<FileMetadata> after = sorted(mutate(random, before));
+
+            List<FileEvent> merged = new ArrayList<>();
+            SnapshotDiffer.diff(before.iterator(), after.iterator(), CAPTURED, merged::add);
+            List<FileEvent> indexed = new ArrayList<>();
+            SnapshotDiffer.DiffResult result = SnapshotDiffer.diff(snapshot(before), snapshot(after), indexed::add);
+
+            assertThat(asMap(indexed)).isEqualTo(asMap(merged));
+            assertThat(result.total()).isEqualTo(merged.size());
+        }
+    }
+
+    @Test
+    void comparesNoDirectoriesWhenNothingChanged() {
+        List<FileMetadata> entries = sorted(randomTree(new Random(9), 200));
+
+        List<FileEvent> events = new ArrayList<>();
+        SnapshotDiffer.DiffResult result = SnapshotDiffer.diff(snapshot(entries), snapshot(entries), events::add);
+
+        assertThat(events).isEmpty();
+        assertThat(result.directoriesCompared()).isZero();
+        assertThat(result.directoriesSkipped()).isEqualTo(snapshot(entries).getDirectories().count());
+    }
+
+    private static Snapshot snapshot(List<FileMetadata> entries) {
+        return Snapshot.builder()
+                .rootDirectory(ROOT)
+                .capturedAt(CAPTURED)
+                .entries(entries)
+                .directories(DirectoryTree.build(ROOT, entries))
+                .build();
+    }
+
+    private static List<FileMetadata> randomTree(Random random, int files) {
+        String[] directories = {"", "a/", "a/x/", "a/x/deep/", "a-b/", "b/", "b/y/", "c.d/"};
+        Map<String, FileMetadata> entries = new HashMap<>();
+        while (entries.size() < files) {
+            String relative = directories[random.nextInt(directories.length)] + "f" + random.nextInt(60) + ".txt";
+            entries.put(relative, file(relative, random.nextInt(1000)));
+        }
+        return new ArrayList<>(entries.values());
+    }
+
+    private static List<FileMetadata> mutate(Random random, List<FileMetadata> before) {
+        List<FileMetadata> after = new ArrayList<>();
+        for (FileMetadata entry : before) {
+            int roll = random.nextInt(20);
+            if (roll == 0) {
+                continue;
+            }
+            after.add(roll == 1 ? entry.toBuilder().size(entry.getSize() + 1).build() : entry);
+        }
+        for (int i = 0; i < 10; i++) {
+            after.add(file("new/n" + i + "-" + random.nextInt(1000) + ".txt", 1));
+        }
+        return after;
+    }
+
+    private static Map<String, FileEventType> referenceDiff(List<FileMetadata> before, List<FileMetadata> after) {
+        Map<String, FileMetadata> beforeByPath = new HashMap<>();
+        before.forEach(entry -> beforeByPath.put(entry.getPath().toString(), entry));
+        Map<String, FileEventType> expected = new TreeMap<>();
+        for (FileMetadata entry : after) {
+            FileMetadata previous = beforeByPath.remove(entry.getPath().toString());
+            if (previous == null) {
+                expected.put(entry.getPath().toString(), FileEventType.CREATED);
+            } else if (SnapshotDiffer.isModified(previous, entry)) {
+                expected.put(entry.getPath().toString(), FileEventType.MODIFIED);
+            }
+        }
+        beforeByPath.keySet().forEach(path -> expected.put(path, FileEventType.DELETED));
+        return expected;
+    }
+
+    private static Map<String, FileEventType> asMap(List<FileEvent> events) {
+        Map<String, FileEventType> byPath = new TreeMap<>();
+        for (FileEvent event : events) {
+            assertThat(byPath.put(event.getPath(), event.getEventType())).as(event.getPath()).isNull();
+        }
+        return byPath;
+    }
+
+    private static List<FileMetadata> sorted(List<FileMetadata> entries) {
+        List<FileMetadata> copy = new ArrayList<>(entries);
+        copy.sort(SnapshotOrder.BY_PATH);
+        return copy;
+    }
+
+    private static FileMetadata file(String relative, long size) {
+        return FileMetadata.builder()
+                .path(ROOT.resolve(relative))
+                .size(size)
+                .lastModified(CAPTURED.minusSeconds(3600))
+                .build();
+    }
+
+    private static String resolve(String relative) {
+        return ROOT.resolve(relative).toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.invdb.monitor.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SnapshotOrderTest {
+
+    private static final String SEP = File.separator;
+
+    @Test
+    void sortsADirectorysFilesBeforeItsSubdirectories() {
+        assertThat(SnapshotOrder.compare(path("r", "z.txt"), path("r", "a", "b.txt"))).isNegative();
+        assertThat(SnapshotOrder.compare(path("r", "a", "b.txt"), path("r", "z.txt"))).isPositive();
+    }
+
+    @Test
+    void sortsSiblingsByName() {
+        assertThat(SnapshotOrder.compare(path("r", "a.txt"), path("r", "b.txt"))).isNegative();
+        assertThat(SnapshotOrder.compare(path("r", "a"), path("r", "a.txt"))).isNegative();
+        assertThat(SnapshotOrder.compare(path("r", "a", "x"), path("r", "b", "x"))).isNegative();
+        assertThat(SnapshotOrder.compare(path("r", "a.txt"), path("r", "a.txt"))).isZero();
+    }
+
+    @Test
+    void keepsADirectoryAheadOfASiblingSharingItsPrefix() {
+        // '-' sorts before the separator, but "a" as a directory must still sort as a whole.
+        List<String> paths = new ArrayList<>(List.of(
+                path("r", "a-b", "x"),
+                path("r", "a", "y", "z"),
+                path("r", "a", "x")));
+        paths.sort(SnapshotOrder::compare);
+
+        assertThat(paths).containsExactly(path("r", "a", "x"), path("r", "a", "y", "z"), path("r", "a-b", "x"));
+    }
+
+    @Test
+    void isAConsistentOrderThatKeepsEverySubtreeContiguous() {
+        Random random = new Random(11);
+        Set<String> unique = new HashSet<>();
+        String[] names = {"a", "a.b", "a-b", "b", "ab"};
+        while (unique.size() < 400) {
+            StringBuilder builder = new StringBuilder(SEP + "r");
+            int depth = 1 + random.nextInt(4);
+            for (int level = 0; level < depth; level++) {
+                builder.append(SEP).append(names[random.nextInt(names.length)]);
+            }
+            builder.append(SEP).append("f").append(random.nextInt(3));
+            unique.add(builder.toString());
+        }
+        List<String> sorted = new ArrayList<>(unique);
+        sorted.sort(SnapshotOrder::compare);
+
+        for (int i = 0; i < sorted.size(); i++) {
+            for (int j = 0; j < sorted.size(); j++) {
+                int forward = Integer.signum(SnapshotOrder.compare(sorted.get(i), sorted.get(j)));
+                assertThat(forward).isEqualTo(Integer.signum(Integer.compare(i, j)));
+            }
+        }
+
+        Set<String> directories = new HashSet<>();
+        for (String path : sorted) {
+            for (int end = path.indexOf(SEP, 1); end > 0; end = path.indexOf(SEP, end + 1)) {
+                directories.add(path.substring(0, end + 1));
+            }
+        }
+        for (String directory : directories) {
+            int first = -1;
+            int last = -1;
+            int count = 0;
+            for (int i = 0; i < sorted.size(); i++) {
+                if (sorted.get(i).startsWith(directory)) {
+                    first = first < 0 ? i : first;
+                    last = i;
+                    count++;
+                }
+            }
+            assertThat(last - first + 1).as("entries under %s", directory).isEqualTo(count);
+        }
+    }
+
+    private static String path(String... parts) {
+        return SEP + String.join(SEP, parts);
+    }
+}
@@ -0,0 +1,91 @@
+package com.invdb.monitor.watcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.invdb.monitor.event.FileEventType;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OverflowRescannerTest {
+
+    @TempDir
+    Path root;
+
+    private final OverflowRescanner rescanner = new OverflowRescanner(0, 100);
+    private final List<Object[]> changes = new ArrayList<>();
+
+    @Test
+    void reportsWhatChangedInAnOverflowedDirectory() throws IOException {
+        Files.writeString(root.resolve("kept.txt"), "a");
+        Files.writeString(root.resolve("gone.txt"), "a");
+        record(root);
+
+        Files.delete(root.resolve("gone.txt"));
+        Files.writeString(root.resolve("new.txt"), "a");
+        rescan(root, 0);
+
+        assertThat(changes).extracting(change -> change[0], change -> change[1]).containsExactlyInAnyOrder(
+                tuple(FileEventType.CREATED, root.resolve("new.txt")),
+                tuple(FileEventType.DELETED, root.resolve("gone.txt")));
+    }
+
+    @Test
+    void forgetsTheListingsOfARemovedSubtree() throws IOException {
+        Path sub = Files.createDirectories(root.resolve("sub"));
+        Path deep = Files.createDirectories(sub.resolve("deep"));
+        Files.writeString(deep.resolve("old.txt"), "a");
+        record(root);
+        record(sub);
+        record(deep);
+
+        deleteTree(sub);
+        rescan(root, 0);
+        assertThat(changes).extracting(change -> change[0], change -> change[1])
+                .containsExactly(tuple(FileEventType.DELETED, sub));
+
+        // Recreated later: the first rescan is a fresh baseline, not a diff against the old contents.
+        changes.clear();
+        Files.createDirectories(deep);
+        Files.writeString(deep.resolve("new.txt"), "a");
+        rescan(deep, 2_000);
+
+        assertThat(changes).isEmpty();
+    }
+
+    private void record(Path directory) throws IOException {
+        Map<String, OverflowRescanner.EntryState> listing = new HashMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                listing.put(
+                        entry.getFileName().toString(),
+                        OverflowRescanner.stateOf(Files.readAttributes(entry, BasicFileAttributes.class)));
+            }
+        }
+        rescanner.record(directory, listing);
+    }
+
+    private void rescan(Path directory, long nowMillis) {
+        rescanner.onOverflow(directory);
+        rescanner.runDue(nowMillis, (type, path) -> changes.add(new Object[] {type, path}));
+    }
+
+    private static void deleteTree(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
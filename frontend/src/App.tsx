@@ -1,9 +1,9 @@
-import { useCallback, useEffect, useMemo, useState } from "react";
+import { useCallback, useEffect, useMemo, useRef, useState } from "react";
 import {
   clearEvents,
   downloadExcel,
   downloadPdf,
-  getEvents,
+  getEventsSince,
   getHealth,
   pickFolder,
   getReport,
@@ -12,6 +12,7 @@ import {
   stopWatch,
 } from "./api/client";
 import type { FileEvent, HealthResponse, ReportSummary, RiskLevel, WatchStatus } from "./api/types";
+import { useEventStream } from "./hooks/useEventStream";
 import { usePolling } from "./hooks/usePolling";
 import { AnalyticsCards } from "./components/analytics/AnalyticsCards";
 import { RiskPieChart } from "./components/analytics/RiskPieChart";
@@ -23,6 +24,23 @@ import "./App.css";
 
 type TabKey = "control" | "events" | "reports";
 
+const MAX_EVENTS = 200;
+
+function newestFirst(left: FileEvent, right: FileEvent) {
+  return new Date(right.timestamp).getTime() - new Date(left.timestamp).getTime();
+}
+
+function mergeEvents(incoming: FileEvent[], current: FileEvent[]) {
+  const bySequence = new Map<number, FileEvent>();
+  for (const event of current) {
+    bySequence.set(event.sequence, event);
+  }
+  for (const event of incoming) {
+    bySequence.set(event.sequence, event);
+  }
+  return [...bySequence.values()].sort(newestFirst).slice(0, MAX_EVENTS);
+}
+
 const TAB_LABELS: Record<TabKey, string> = {
   control: "Control Panel",
   events: "Live Events",
@@ -35,6 +53,8 @@ function App() {
   const [health, setHealth] = useState<HealthResponse | null>(null);
   const [watchStatus, setWatchStatus] = useState<WatchStatus | null>(null);
   const [events, setEvents] = useState<FileEvent[]>([]);
+  const lastSequenceRef = useRef<number | null>(null);
+  const eventsEtagRef = useRef<string | null>(null);
   const [report, setReport] = useState<ReportSummary | null>(null);
   const [highRiskOnly, setHighRiskOnly] = useState(false);
   const [honeypotOnly, setHoneypotOnly] = useState(false);
@@ -84,21 +104,31 @@ function App() {
     }
   }, [captureError]);
 
+  const acceptEvents = useCallback((incoming: FileEvent[]) => {
+    for (const event of incoming) {
+      lastSequenceRef.current = Math.max(lastSequenceRef.current ?? event.sequence, event.sequence);
+    }
+    setEvents((current) => mergeEvents(incoming, current));
+  }, []);
+
   const refreshEvents = useCallback(async () => {
     try {
-      const data = await getEvents();
-      const sorted = [...data].sort(
-        (left, right) => new Date(right.timestamp).getTime() - new Date(left.timestamp).getTime(),
-      );
-      setEvents(sorted);
+      const data = await getEventsSince(lastSequenceRef.current, eventsEtagRef.current);
+      if (data === null) {
+        return;
+      }
+      eventsEtagRef.current = data.etag;
+      acceptEvents(data.events);
     } catch (error) {
       captureError(error);
     }
-  }, [captureError]);
+  }, [acceptEvents, captureError]);
 
   usePolling(refreshHealth, 10000, true);
   usePolling(refreshWatchStatus, 3000, true);
-  usePolling(refreshEvents, 1000, activeTab === "events");
+  const isStreaming = useEventStream(acceptEvents, activeTab === "events");
+  // Polls until the stream is open, which also loads the initial list.
+  usePolling(refreshEvents, 1000, activeTab === "events" && !isStreaming);
 
   const filteredEvents = useMemo(() => {
     const normalizedSearch = search.trim().toLowerCase();
@@ -144,6 +174,8 @@ function App() {
       setErrorMessage(null);
       await clearEvents();
       setEvents([]);
+      lastSequenceRef.current = null;
+      eventsEtagRef.current = null;
       setToastMessage("Events cleared");
     } catch (error) {
       captureError(error);
@@ -371,8 +403,14 @@ function App() {
                   {filteredEvents.map((event) => (
                     <tr key={`${event.path}-${event.timestamp}-${event.eventType}`} className={event.honeypotTriggered ? "honeypot" : ""}>
                       <td>{formatDate(event.timestamp)}</td>
-                      <td>{event.eventType}</td>
-                      <td className="path-cell">{event.path}</td>
+                      <td>
+                        {event.eventType}
+                        {event.eventCount > 1 ? ` ×${event.eventCount}` : ""}
+                      </td>
+                      <td className="path-cell">
+                        {event.path}
+                        {event.previousPath ? <div className="previous-path">from {event.previousPath}</div> : null}
+                      </td>
                       <td>
                         <span className={`badge ${badgeClassForRisk(event.riskLevel)}`}>
                           {event.riskLevel} ({event.riskScore})
@@ -1,4 +1,14 @@
-import type { FileEvent, HealthResponse, HoneypotStatus, ReportSummary, WatchStatus } from "./types";
+import type {
+  EventPage,
+  EventSearchParams,
+  FileEvent,
+  HealthResponse,
+  HoneypotStatus,
+  ReportFormat,
+  ReportJob,
+  ReportSummary,
+  WatchStatus,
+} from "./types";
 
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL ?? "http://localhost:8080";
 
@@ -53,16 +63,65 @@ export function stopWatch() {
   return request<{ message: string }>("/watch/stop", { method: "POST" });
 }
 
+export function eventStreamUrl() {
+  return `${API_BASE_URL}/events/stream`;
+}
+
 export function getEvents() {
   return request<FileEvent[]>("/events");
 }
 
+export type EventsDelta = {
+  events: FileEvent[];
+  etag: string | null;
+};
+
+/**
+ * Fetches events newer than `after`; resolves to null when nothing changed since `etag`. The server
+ * sends them in pages, oldest first, marking every page but the last as truncated.
+ */
+export async function getEventsSince(after: number | null, etag: string | null): Promise<EventsDelta | null> {
+  const events: FileEvent[] = [];
+  let cursor = after;
+  let pageEtag = etag;
+  for (;;) {
+    const query = cursor === null ? "" : `?after=${cursor}`;
+    const response = await fetch(`${API_BASE_URL}/events${query}`, {
+      headers: pageEtag ? { "If-None-Match": pageEtag } : {},
+    });
+    if (response.status === 304) {
+      return null;
+    }
+    if (!response.ok) {
+      throw new Error(`Request failed with status ${response.status}`);
+    }
+    const page = (await response.json()) as FileEvent[];
+    events.push(...page);
+    if (response.headers.get("X-Events-Truncated") !== "true" || page.length === 0) {
+      return { events, etag: response.headers.get("ETag") };
+    }
+    cursor = page[0].sequence;
+    // Later pages must not be answered with 304 for the version the first one saw.
+    pageEtag = null;
+  }
+}
+
+export function searchEvents(params: EventSearchParams) {
+  const query = new URLSearchParams();
+  for (const [key, value] of Object.entries(params)) {
+    if (value !== undefined && value !== null && value !== "") {
+      query.set(key, String(value));
+    }
+  }
+  return request<EventPage>(`/events/search?${query.toString()}`);
+}
+
 export function clearEvents() {
   return request<{ cleared: boolean }>("/events", { method: "DELETE" });
 }
 
 export function getReport() {
-  return request<ReportSummary>("/report");
+  return request<ReportSummary>("/report?includeEvents=false");
 }
 
 export function getHoneypotStatus() {
@@ -94,10 +153,59 @@ async function downloadFile(path: string, filename: string) {
   window.URL.revokeObjectURL(url);
 }
 
-export function downloadPdf() {
-  return downloadFile("/report/pdf", "file-behavior-report.pdf");
+export interface ReportRange {
+  from?: string;
+  to?: string;
+}
+
+function rangeQuery(range?: ReportRange) {
+  const query = new URLSearchParams();
+  if (range?.from) {
+    query.set("from", range.from);
+  }
+  if (range?.to) {
+    query.set("to", range.to);
+  }
+  const search = query.toString();
+  return search ? `?${search}` : "";
+}
+
+const REPORT_JOB_POLL_MS = 1000;
+
+export function submitReportJob(format: ReportFormat, range?: ReportRange) {
+  return request<ReportJob>("/report/jobs", {
+    method: "POST",
+    body: JSON.stringify({ format, from: range?.from || null, to: range?.to || null }),
+  });
+}
+
+export function getReportJob(id: string) {
+  return request<ReportJob>(`/report/jobs/${encodeURIComponent(id)}`);
+}
+
+export function cancelReportJob(id: string) {
+  return request<ReportJob>(`/report/jobs/${encodeURIComponent(id)}`, { method: "DELETE" });
+}
+
+/**
+ * Generates a report in the background, polling until it is ready, then downloads it.
+ */
+async function downloadReport(format: ReportFormat, filename: string, range?: ReportRange) {
+  let job = await submitReportJob(format, range);
+  while (job.state === "QUEUED" || job.state === "RUNNING") {
+    await new Promise((resolve) => window.setTimeout(resolve, REPORT_JOB_POLL_MS));
+    job = await getReportJob(job.id);
+  }
+  if (job.state !== "DONE") {
+    throw new Error(job.error ?? `Report generation ${job.state.toLowerCase()}`);
+  }
+  return downloadFile(`/report/jobs/${encodeURIComponent(job.id)}/download`, filename);
+}
+
+export function downloadPdf(range?: ReportRange) {
+  return downloadReport("PDF", "file-behavior-report.pdf", range);
 }
 
-export function downloadExcel() {
-  return downloadFile("/report/excel", "file-behavior-report.xlsx");
+export function downloadExcel(range?: ReportRange) {
+  return downloadReport("EXCEL", "file-behavior-report.xlsx", range);
 }
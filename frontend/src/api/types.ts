@@ -11,11 +11,44 @@ export interface WatchStatus {
   directory: string | null;
   startedAt: string | null;
   totalEventsProcessed: number;
+  queueDepth: number;
+  queueCapacity: number;
+  eventsDropped: number;
+  eventsCoalesced: number;
+  dedupEntries: number;
+  dedupHitRate: number;
+  coalescePending: number;
+  coalesceMerged: number;
+  coalesceFolded: number;
+  renamesDetected: number;
+  watchedDirectories: number;
+  registrationComplete: boolean;
+  registrationMillis: number;
+  overflowCount: number;
+  rescanCount: number;
+  rescanEventsSynthesized: number;
+  pendingRescans: number;
+  catchUpChanges: number;
+  catchUpDirectoriesCompared: number;
+  catchUpDirectoriesSkipped: number;
+  catchUpComparisonMillis: number;
+  journalEventsWritten: number;
+  journalPending: number;
+  streamSubscribers: number;
+  streamEvictions: number;
+  eventsPerSecond: number;
+  pipelineP50Micros: number;
+  pipelineP99Micros: number;
+  slowestStage: string | null;
 }
 
 export interface FileEvent {
+  sequence: number;
   path: string;
+  previousPath: string | null;
   timestamp: string;
+  firstTimestamp: string | null;
+  eventCount: number;
   eventType: string;
   honeypotTriggered: boolean;
   riskScore: number;
@@ -23,6 +56,31 @@ export interface FileEvent {
   notes: string[] | null;
 }
 
+export interface EventSearchParams {
+  from?: string;
+  to?: string;
+  pathPrefix?: string;
+  eventType?: string;
+  riskLevel?: RiskLevel;
+  honeypot?: boolean;
+  note?: string;
+  limit?: number;
+  cursor?: number;
+}
+
+export interface EventPage {
+  events: FileEvent[];
+  nextCursor: number | null;
+  recordsRead: number;
+  elapsedMillis: number;
+}
+
+/** Live stream frame: events after `lastSequence` were dropped from the stream. */
+export interface StreamGap {
+  lastSequence: number;
+  dropped: number;
+}
+
 export interface ReportSummary {
   directory: string | null;
   generatedAt: string;
@@ -33,7 +91,36 @@ export interface ReportSummary {
   mediumRiskCount: number;
   highRiskCount: number;
   detectedPatterns: string[];
-  events: FileEvent[];
+  eventTypeCounts: Record<string, number>;
+  patternCounts: Record<string, number>;
+  timeline: MinuteCount[];
+  events: FileEvent[] | null;
+}
+
+export interface MinuteCount {
+  minute: string;
+  total: number;
+  honeypot: number;
+  low: number;
+  medium: number;
+  high: number;
+}
+
+export type ReportFormat = "PDF" | "EXCEL";
+
+export type ReportJobState = "QUEUED" | "RUNNING" | "DONE" | "FAILED" | "CANCELLED";
+
+export interface ReportJob {
+  id: string;
+  format: ReportFormat;
+  state: ReportJobState;
+  from: string | null;
+  to: string | null;
+  createdAt: string;
+  finishedAt: string | null;
+  cached: boolean;
+  sizeBytes: number;
+  error: string | null;
 }
 
 export interface HoneypotStatus {
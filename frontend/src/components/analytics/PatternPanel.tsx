@@ -8,6 +8,7 @@ const SEVERITY_BY_PATTERN: Record<string, string> = {
   CRITICAL_INTRUSION_PATTERN: "critical",
   MASS_CHANGE_SUSPECTED: "mass-change",
   RAPID_DELETE_SPIKE: "delete-spike",
+  MASS_RENAME_SUSPECTED: "mass-rename",
   SUSPICIOUS_EXTENSION: "suspicious-extension",
 };
 
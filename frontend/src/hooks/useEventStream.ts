@@ -0,0 +1,46 @@
+import { useEffect, useRef, useState } from "react";
+import { eventStreamUrl, getEventsSince } from "../api/client";
+import type { FileEvent, StreamGap } from "../api/types";
+
+export function useEventStream(onEvents: (events: FileEvent[]) => void, enabled: boolean) {
+  const onEventsRef = useRef(onEvents);
+  const [connected, setConnected] = useState(false);
+
+  useEffect(() => {
+    onEventsRef.current = onEvents;
+  }, [onEvents]);
+
+  useEffect(() => {
+    if (!enabled || typeof EventSource === "undefined") {
+      return;
+    }
+
+    const source = new EventSource(eventStreamUrl());
+    source.onopen = () => setConnected(true);
+    // EventSource reconnects by itself; callers fall back to polling until it does.
+    source.onerror = () => setConnected(false);
+    source.addEventListener("events", (message) => {
+      onEventsRef.current(JSON.parse((message as MessageEvent<string>).data) as FileEvent[]);
+    });
+    // A burst overflowed the last batch; reload what the stream dropped.
+    source.addEventListener("gap", (message) => {
+      const gap = JSON.parse((message as MessageEvent<string>).data) as StreamGap;
+      getEventsSince(gap.lastSequence, null)
+        .then((delta) => {
+          if (delta !== null) {
+            onEventsRef.current(delta.events);
+          }
+        })
+        .catch(() => {
+          // Leave the gap; the journal search still has every event.
+        });
+    });
+
+    return () => {
+      source.close();
+      setConnected(false);
+    };
+  }, [enabled]);
+
+  return connected;
+}